@@ -0,0 +1,397 @@
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * HTMLAttributeIndex finds elements by the value of an attribute, such as name or id,
+ * without scanning the document
+ * Every value of the indexed attributes is stored in an open addressing table, so a lookup
+ * takes constant time and does not create any objects
+ *
+ * When several elements share the same value, they are kept in document order and can be
+ * walked through with next()
+ */
+public class HTMLAttributeIndex {
+
+	public static final String[] DEFAULT_ATTRIBUTES = {"id", "name"};	//The attributes indexed by default
+
+	private HTMLDocumentIndex documentIndex;	//The elements of the indexed document
+	private CharSequence source;				//The indexed document
+	private String[] attributeNames;			//The attributes which are indexed
+
+	private int size;					//The number of entries
+	private int[] entryAttribute;		//The position in attributeNames of the attribute of each entry
+	private int[] entryValueStart;		//The range of the value of each entry in the document
+	private int[] entryValueEnd;
+	private int[] entryHash;			//The hash of the attribute and value of each entry
+	private int[] entryElement;			//The element each entry was found in
+	private int[] entryNext;			//The next entry with the same attribute and value; -1 for none
+
+	private int[] slots;				//The first entry of each attribute and value + 1; 0 marks
+										//an empty slot
+	private int[] slotLast;				//The last entry of each attribute and value
+
+	/**
+	 * Constructs an index of the id and name attributes of every element in a document
+	 * @param documentIndex	The elements of the document
+	 */
+	public HTMLAttributeIndex(HTMLDocumentIndex documentIndex) {
+		this(documentIndex, DEFAULT_ATTRIBUTES);
+	}
+
+	/**
+	 * Constructs an index of the specified attributes of every element in a document
+	 * @param documentIndex		The elements of the document
+	 * @param attributeNames	The attributes to index
+	 */
+	public HTMLAttributeIndex(HTMLDocumentIndex documentIndex, String... attributeNames) {
+		this(documentIndex, attributeNames, documentIndex.size());
+		scan(new HTMLTokenizer(), 0, documentIndex.size());
+	}
+
+	/**
+	 * Constructs the index of a document made by replacing the content of one element
+	 * The entries of every element outside the content are copied from the index before the edit,
+	 * so only the opening tags of the elements in the new content are read
+	 * @param previous		The index of the document before the edit
+	 * @param documentIndex	The elements of the edited document
+	 * @param first			The number of the first element in the content
+	 * @param removed		The number of elements in the content before the edit
+	 * @param inserted		The number of elements in the content after the edit
+	 * @param delta			The change in the length of the document
+	 */
+	HTMLAttributeIndex(HTMLAttributeIndex previous, HTMLDocumentIndex documentIndex, int first, int removed, int inserted,
+			int delta) {
+		this(documentIndex, previous.attributeNames, documentIndex.size());
+
+		int entry;
+
+		for(entry = 0; entry < previous.size && previous.entryElement[entry] < first; entry++)
+			add(previous.entryAttribute[entry], previous.entryValueStart[entry], previous.entryValueEnd[entry],
+					previous.entryElement[entry]);
+
+		scan(new HTMLTokenizer(), first, first + inserted);
+
+		for(; entry < previous.size; entry++)
+			if(previous.entryElement[entry] >= first + removed)
+				add(previous.entryAttribute[entry], previous.entryValueStart[entry] + delta,
+						previous.entryValueEnd[entry] + delta, previous.entryElement[entry] - removed + inserted);
+	}
+
+	/**
+	 * Constructs an empty index
+	 * @param documentIndex		The elements of the document
+	 * @param attributeNames	The attributes to index
+	 * @param elements			The number of elements in the document
+	 */
+	private HTMLAttributeIndex(HTMLDocumentIndex documentIndex, String[] attributeNames, int elements) {
+		int capacity;
+
+		this.documentIndex = documentIndex;
+		this.attributeNames = attributeNames.clone();
+		source = documentIndex.getSource();
+
+		capacity = 16;
+		while(capacity < elements)
+			capacity *= 2;
+		entryAttribute = new int[capacity];
+		entryValueStart = new int[capacity];
+		entryValueEnd = new int[capacity];
+		entryHash = new int[capacity];
+		entryElement = new int[capacity];
+		entryNext = new int[capacity];
+		slots = new int[capacity * 2];
+		slotLast = new int[capacity * 2];
+	}
+
+	/**
+	 * Constructs an index saved by write(), copying its arrays straight out of the buffer
+	 * @param documentIndex	The elements of the document
+	 * @param in			The saved index, in little endian order; left just past the end of the index
+	 */
+	HTMLAttributeIndex(HTMLDocumentIndex documentIndex, ByteBuffer in) {
+		int i, slotCount;
+
+		this.documentIndex = documentIndex;
+		source = documentIndex.getSource();
+		attributeNames = new String[in.getInt()];
+		for(i = 0; i < attributeNames.length; i++)
+			attributeNames[i] = HTMLDocumentFile.readString(in);
+
+		size = in.getInt();
+		entryAttribute = HTMLDocumentFile.readInts(in, size);
+		entryValueStart = HTMLDocumentFile.readInts(in, size);
+		entryValueEnd = HTMLDocumentFile.readInts(in, size);
+		entryHash = HTMLDocumentFile.readInts(in, size);
+		entryElement = HTMLDocumentFile.readInts(in, size);
+		entryNext = HTMLDocumentFile.readInts(in, size);
+		slotCount = in.getInt();
+		slots = HTMLDocumentFile.readInts(in, slotCount);
+		slotLast = HTMLDocumentFile.readInts(in, slotCount);
+	}
+
+	/**
+	 * Saves the index, to be read back with HTMLAttributeIndex(HTMLDocumentIndex, ByteBuffer)
+	 * The hash table is saved as it is, so it does not have to be filled in again when loaded
+	 * @param out	The file to save the index to
+	 * @throws IOException	Thrown if the file cannot be written
+	 */
+	void write(HTMLDocumentFile.Writer out) throws IOException {
+		int i;
+
+		out.writeInt(attributeNames.length);
+		for(i = 0; i < attributeNames.length; i++)
+			out.writeString(attributeNames[i]);
+
+		out.writeInt(size);
+		out.writeInts(entryAttribute, size);
+		out.writeInts(entryValueStart, size);
+		out.writeInts(entryValueEnd, size);
+		out.writeInts(entryHash, size);
+		out.writeInts(entryElement, size);
+		out.writeInts(entryNext, size);
+		out.writeInt(slots.length);
+		out.writeInts(slots, slots.length);
+		out.writeInts(slotLast, slots.length);
+	}
+
+	/**
+	 * Indexes another document in place of the one indexed, reusing every array of the index
+	 * The table is only cleared if it holds any entries, and arrays are only replaced when the new
+	 * document has more values than any document indexed before it
+	 * @param documentIndex	The elements of the document
+	 * @param tokenizer		The tokenizer to read the opening tags with
+	 */
+	void rebuild(HTMLDocumentIndex documentIndex, HTMLTokenizer tokenizer) {
+		int i;
+
+		this.documentIndex = documentIndex;
+		source = documentIndex.getSource();
+		if(size > 0)
+			for(i = 0; i < slots.length; i++)
+				slots[i] = 0;
+		size = 0;
+		scan(tokenizer, 0, documentIndex.size());
+	}
+
+	/**
+	 * Reads the opening tag of each of a run of elements, recording the indexed attributes
+	 * @param tokenizer	The tokenizer to read the opening tags with
+	 * @param from		The first element to read
+	 * @param to		The element just past the last one to read
+	 */
+	private void scan(HTMLTokenizer tokenizer, int from, int to) {
+		int element, attribute;
+
+		for(element = from; element < to; element++) {
+			tokenizer.reset(source, documentIndex.getElementStart(element), documentIndex.getContentStart(element));
+			if(tokenizer.next() != HTMLTokenizer.START_TAG)
+				continue;
+
+			while(tokenizer.nextAttribute()) {
+				for(attribute = 0; attribute < attributeNames.length; attribute++)
+					if(tokenizer.attributeNameEquals(attributeNames[attribute])) {
+						add(attribute, tokenizer.getAttributeValueStart(), tokenizer.getAttributeValueEnd(), element);
+						break;
+					}
+			}
+		}
+	}
+
+	/**
+	 * Adds an attribute value to the index
+	 */
+	private void add(int attribute, int valueStart, int valueEnd, int element) {
+		int entry, hash, slot;
+
+		if(size == entryElement.length)
+			growEntries(size * 2);
+
+		hash = hash(attribute, HTMLNameTable.hash(source, valueStart, valueEnd));
+		entry = size++;
+		entryAttribute[entry] = attribute;
+		entryValueStart[entry] = valueStart;
+		entryValueEnd[entry] = valueEnd;
+		entryHash[entry] = hash;
+		entryElement[entry] = element;
+		entryNext[entry] = -1;
+
+		slot = findSlot(attribute, source, valueStart, valueEnd, hash);
+		if(slots[slot] == 0)
+			slots[slot] = entry + 1;
+		else
+			entryNext[slotLast[slot]] = entry;
+		slotLast[slot] = entry;
+
+		if(size * 2 > slots.length)
+			rehash();
+	}
+
+	/**
+	 * Finds the first element in the document with the specified attribute value
+	 * @param attributeName	The name of the attribute
+	 * @param value			The value of the attribute
+	 * @return	The first entry with the value, or -1 if no element has the value or the
+	 * 			attribute is not indexed
+	 */
+	public int find(String attributeName, String value) {
+		int attribute;
+
+		attribute = indexOf(attributeName);
+		if(attribute < 0)
+			return -1;
+		if(source instanceof HTMLByteSequence)
+			value = HTMLByteSequence.encode(value);		//hashed and compared the way the bytes are read
+		return slots[findSlot(attribute, value, 0, value.length(), hash(attribute, value.hashCode()))] - 1;
+	}
+
+	/**
+	 * Finds the first element with the specified attribute value whose opening tag starts inside
+	 * the specified range of the document
+	 * @param attributeName	The name of the attribute
+	 * @param value			The value of the attribute
+	 * @param start			The start of the range to search in
+	 * @param end			The end of the range to search in
+	 * @return	The number of the element in the document index, or -1 if there is none
+	 */
+	public int findElement(String attributeName, String value, int start, int end) {
+		int entry, elementStart;
+
+		for(entry = find(attributeName, value); entry >= 0; entry = entryNext[entry]) {
+			elementStart = documentIndex.getElementStart(entryElement[entry]);
+			if(elementStart >= end)
+				break;
+			if(elementStart >= start)
+				return entryElement[entry];
+		}
+		return -1;
+	}
+
+	/**
+	 * Retrieves the next element with the same attribute value as an entry
+	 * @param entry	The entry returned by find() or next()
+	 * @return	The next entry, or -1 if there are no more
+	 */
+	public int next(int entry) {
+		return entryNext[entry];
+	}
+
+	/**
+	 * Retrieves the element of an entry
+	 * @param entry	The entry returned by find() or next()
+	 * @return	The number of the element in the document index
+	 */
+	public int getElement(int entry) {
+		return entryElement[entry];
+	}
+
+	/**
+	 * Checks whether an attribute is indexed
+	 * @param attributeName	The name of the attribute
+	 * @return	True if the attribute is indexed
+	 */
+	public boolean isIndexed(String attributeName) {
+		return indexOf(attributeName) >= 0;
+	}
+
+	/**
+	 * Finds the position of an attribute in attributeNames
+	 * @return	The position of the attribute, or -1 if it is not indexed
+	 */
+	private int indexOf(String attributeName) {
+		int i;
+
+		for(i = 0; i < attributeNames.length; i++)
+			if(attributeNames[i].equals(attributeName))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Finds the slot of an attribute value, or the empty slot where the value belongs
+	 * @return	The index of the slot
+	 */
+	private int findSlot(int attribute, CharSequence value, int start, int end, int hash) {
+		int slot, entry, mask;
+
+		mask = slots.length - 1;
+		slot = HTMLNameTable.mix(hash) & mask;
+		while(slots[slot] != 0) {
+			entry = slots[slot] - 1;
+			if(entryHash[entry] == hash && entryAttribute[entry] == attribute
+					&& matches(entry, value, start, end))
+				break;
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Checks whether the value of an entry is the same as a range of characters
+	 * @return	True if the characters match
+	 */
+	private boolean matches(int entry, CharSequence value, int start, int end) {
+		int i, offset;
+
+		if(entryValueEnd[entry] - entryValueStart[entry] != end - start)
+			return false;
+		offset = entryValueStart[entry];
+		for(i = start; i < end; i++)
+			if(source.charAt(offset++) != value.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Doubles the number of slots in the table
+	 */
+	private void rehash() {
+		int i, slot, mask;
+		int[] oldSlots, oldSlotLast;
+
+		oldSlots = slots;
+		oldSlotLast = slotLast;
+		slots = new int[oldSlots.length * 2];
+		slotLast = new int[oldSlots.length * 2];
+		mask = slots.length - 1;
+		for(i = 0; i < oldSlots.length; i++) {
+			if(oldSlots[i] == 0)
+				continue;
+			slot = HTMLNameTable.mix(entryHash[oldSlots[i] - 1]) & mask;
+			while(slots[slot] != 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = oldSlots[i];
+			slotLast[slot] = oldSlotLast[i];
+		}
+	}
+
+	/**
+	 * Makes room for more entries
+	 * @param capacity	The number of entries to make room for
+	 */
+	private void growEntries(int capacity) {
+		entryAttribute = HTMLNameTable.grow(entryAttribute, capacity);
+		entryValueStart = HTMLNameTable.grow(entryValueStart, capacity);
+		entryValueEnd = HTMLNameTable.grow(entryValueEnd, capacity);
+		entryHash = HTMLNameTable.grow(entryHash, capacity);
+		entryElement = HTMLNameTable.grow(entryElement, capacity);
+		entryNext = HTMLNameTable.grow(entryNext, capacity);
+	}
+
+	/**
+	 * Combines the position of an attribute with the hash of its value
+	 */
+	private static int hash(int attribute, int valueHash) {
+		return valueHash * 31 + attribute;
+	}
+
+	/**
+	 * Estimates the memory taken up by the index, not counting the document itself or the
+	 * document index
+	 * @return	The approximate number of bytes used
+	 */
+	public long getMemoryUsage() {
+		return 4L * (entryAttribute.length * 6L + slots.length + slotLast.length);
+	}
+}
@@ -0,0 +1,315 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTMLBatchQuery finds many elements of a document at once, each under a key chosen by the caller
+ * Elements can be asked for by ID, by type and index, or as a cell of a table, and each is found
+ * exactly as loadNewElementById(), loadNewElementByTypeAndIndex() and getTableElements() would
+ * find it
+ *
+ * On a document which is not indexed, every element is found in a single pass through the
+ * document, which stops as soon as the last element asked for has been closed
+ * On an indexed document, each element is looked up in the indexes instead
+ *
+ * A query can be run any number of times, on any number of documents, from any number of threads,
+ * as long as no more elements are added to it while it runs
+ */
+public class HTMLBatchQuery {
+
+	private static final int BY_ID = 0;				//An element found by its name attribute
+	private static final int BY_TYPE_AND_INDEX = 1;	//The n-th element of a type
+	private static final int TABLE_CELL = 2;		//A cell of a table, by row and column
+
+	private ArrayList<Request> requests;	//The elements asked for, in the order they were added
+
+	/**
+	 * Constructs a query which does not ask for any elements yet
+	 */
+	public HTMLBatchQuery() {
+		requests = new ArrayList<>();
+	}
+
+	/**
+	 * Asks for the element with the specified ID
+	 * @param key	The key to return the element under
+	 * @param id	The ID of the element
+	 * @return	This query
+	 */
+	public HTMLBatchQuery byId(String key, String id) {
+		requests.add(new Request(key, BY_ID, id, 0, 0, 0));
+		return this;
+	}
+
+	/**
+	 * Asks for the element of the specified type at the specified index in the document
+	 * @param key	The key to return the element under
+	 * @param type	The type of the element
+	 * @param index	The number of the element; 0 is the first element of the type
+	 * @return	This query
+	 */
+	public HTMLBatchQuery byTypeAndIndex(String key, String type, int index) {
+		requests.add(new Request(key, BY_TYPE_AND_INDEX, type, index, 0, 0));
+		return this;
+	}
+
+	/**
+	 * Asks for a cell of a table, as it would be listed by getTableElements()
+	 * @param key			The key to return the cell under
+	 * @param tableIndex	The number of the table; 0 is the first table
+	 * @param row			The row of the cell; 0 is the first row
+	 * @param column		The column of the cell; 0 is the first cell in the row
+	 * @return	This query
+	 */
+	public HTMLBatchQuery tableCell(String key, int tableIndex, int row, int column) {
+		requests.add(new Request(key, TABLE_CELL, "table", tableIndex, row, column));
+		return this;
+	}
+
+	/**
+	 * Finds every element asked for in a document
+	 * @param document	The document to search
+	 * @return	The elements found, under their keys in the order they were asked for; elements
+	 * 			which were not found are left out
+	 */
+	public Map<String, HTMLElement> run(HTMLDocument document) {
+		if(document.getDocumentIndex() != null)
+			return lookUp(document);
+		return scan(document.getSource());
+	}
+
+	/**
+	 * Finds every element asked for in a document in a single pass through it
+	 * @param HTML	The HTML code of the document
+	 * @return	The elements found, under their keys
+	 */
+	private Map<String, HTMLElement> scan(CharSequence HTML) {
+		int i, remaining;
+		boolean byId;
+		Match[] matches;
+		HTMLTokenizer tokenizer;
+		HTMLParseListener listener;
+		Map<String, HTMLElement> elements;
+
+		matches = new Match[requests.size()];
+		for(i = 0; i < matches.length; i++)
+			matches[i] = new Match(requests.get(i));
+		remaining = matches.length;
+		byId = false;
+		for(Request request : requests)
+			byId |= request.kind == BY_ID;
+
+		tokenizer = new HTMLTokenizer();
+		tokenizer.reset(HTML, 0, HTML.length());
+		while(remaining > 0 && tokenizer.next() != HTMLTokenizer.END_OF_INPUT) {
+			if(tokenizer.getTokenType() == HTMLTokenizer.START_TAG) {
+				for(i = 0; i < matches.length; i++)
+					if(!matches[i].done && matches[i].startTag(tokenizer))
+						remaining--;
+				while(byId && tokenizer.nextAttribute())
+					if(tokenizer.attributeNameEquals("name"))
+						for(i = 0; i < matches.length; i++)
+							if(!matches[i].done && matches[i].nameAttribute(tokenizer))
+								remaining--;
+			}
+			else if(tokenizer.getTokenType() == HTMLTokenizer.END_TAG) {
+				for(i = 0; i < matches.length; i++)
+					if(!matches[i].done && matches[i].endTag(tokenizer))
+						remaining--;
+			}
+		}
+
+		listener = HTMLStringFactory.getParseListener();
+		if(listener != null)
+			listener.documentScanned(tokenizer.getTokenEnd());
+
+		elements = new LinkedHashMap<>();
+		for(i = 0; i < matches.length; i++)
+			if(matches[i].done && matches[i].start >= 0)
+				elements.put(matches[i].request.key, new HTMLElement(HTML, matches[i].start, matches[i].end));
+		return elements;
+	}
+
+	/**
+	 * Finds every element asked for in the indexes of a document
+	 * Each table is only read once, however many of its cells are asked for
+	 * @param document	The indexed document
+	 * @return	The elements found, under their keys
+	 */
+	private Map<String, HTMLElement> lookUp(HTMLDocument document) {
+		ArrayList<ArrayList> rows;
+		HashMap<Integer, ArrayList<ArrayList>> tables;
+		Map<String, HTMLElement> elements;
+
+		tables = new HashMap<>();
+		elements = new LinkedHashMap<>();
+		for(Request request : requests) {
+			try {
+				if(request.kind == BY_ID)
+					elements.put(request.key, document.loadElementById(request.name).getElement());
+				else if(request.kind == BY_TYPE_AND_INDEX)
+					elements.put(request.key, document.loadElementByTypeAndIndex(request.name, request.index).getElement());
+				else {
+					rows = tables.get(request.index);
+					if(rows == null) {
+						rows = document.loadElementByTypeAndIndex("table", request.index).getTableElements();
+						tables.put(request.index, rows);
+					}
+					if(request.row < rows.size() && request.column < rows.get(request.row).size())
+						elements.put(request.key, (HTMLElement) rows.get(request.row).get(request.column));
+				}
+			}
+			catch(HTMLParseException e) {
+				//the element is not in the document; it is left out
+			}
+		}
+		return elements;
+	}
+
+	/**
+	 * Request is a single element asked for
+	 */
+	private static class Request {
+
+		private final String key;		//The key to return the element under
+		private final int kind;			//BY_ID, BY_TYPE_AND_INDEX or TABLE_CELL
+		private final String name;		//The ID, or the type of the element
+		private final int index;		//The number of the element or table among those of its type
+		private final int row, column;	//The location of a table cell
+
+		/**
+		 * Constructs a request
+		 */
+		private Request(String key, int kind, String name, int index, int row, int column) {
+			this.key = key;
+			this.kind = kind;
+			this.name = name;
+			this.index = index;
+			this.row = row;
+			this.column = column;
+		}
+	}
+
+	/**
+	 * Match follows a single request through one pass over a document
+	 * Once the opening tag of the element is found, tags of the same type are counted until the
+	 * matching closing tag, the same way HTMLTokenizer.skipToMatchingEndTag() matches them
+	 */
+	private static class Match {
+
+		private final Request request;	//The element being looked for
+		private String type;			//The type of the element; for a request by ID, null until
+										//the element is found
+		private int start, end;			//The range of the element found; -1 until found
+		private boolean done;			//Whether the element has been closed, or cannot be found
+
+		private int depth;				//The number of elements of the type not yet closed
+		private int count;				//The number of elements of the type found which are not
+										//nested in another element of the type
+		private boolean inTable;		//Whether the pass is inside the table of a TABLE_CELL
+		private int rows, cells;		//The number of rows found in the table, and of cells found
+										//in the current row
+		private int cellStart;			//The index of the last cell opened in the table; -1 for none
+
+		/**
+		 * Constructs a match which has found nothing yet
+		 * @param request	The element to look for
+		 */
+		private Match(Request request) {
+			this.request = request;
+			type = request.kind == BY_ID ? null : request.name;
+			start = -1;
+			end = -1;
+			cellStart = -1;
+		}
+
+		/**
+		 * Reads an opening tag
+		 * @param tokenizer	The tokenizer, on the opening tag
+		 * @return	True if the request has just been resolved
+		 */
+		private boolean startTag(HTMLTokenizer tokenizer) {
+			if(type != null && tokenizer.nameEquals(type)) {
+				if(request.kind != BY_ID && depth == 0 && count++ == request.index) {
+					if(request.kind == BY_TYPE_AND_INDEX)
+						start = tokenizer.getTokenStart();
+					else
+						inTable = true;
+					if(tokenizer.isSelfClosing())
+						return finish(tokenizer.getTokenEnd());
+				}
+				if(!tokenizer.isSelfClosing())
+					depth++;
+			}
+			else if(inTable && tokenizer.nameEquals("tr")) {
+				rows++;
+				cells = 0;
+			}
+			else if(inTable && (tokenizer.nameEquals("td") || tokenizer.nameEquals("th")))
+				cellStart = tokenizer.getTokenStart();
+			return false;
+		}
+
+		/**
+		 * Reads a name attribute of an opening tag, for a request by ID
+		 * @param tokenizer	The tokenizer, on the attribute
+		 * @return	True if the request has just been resolved
+		 */
+		private boolean nameAttribute(HTMLTokenizer tokenizer) {
+			if(request.kind != BY_ID || start >= 0 || !tokenizer.attributeValueEquals(request.name))
+				return false;
+
+			start = tokenizer.getTokenStart();
+			if(tokenizer.isSelfClosing())
+				return finish(tokenizer.getTokenEnd());
+
+			//from here on, count the tags of the element's own type
+			type = tokenizer.getName();
+			depth = 1;
+			return false;
+		}
+
+		/**
+		 * Reads a closing tag
+		 * @param tokenizer	The tokenizer, on the closing tag
+		 * @return	True if the request has just been resolved
+		 */
+		private boolean endTag(HTMLTokenizer tokenizer) {
+			if(inTable && cellStart >= 0 && (tokenizer.nameEquals("td") || tokenizer.nameEquals("th"))) {
+				if(rows == 0)		//a cell outside of any row
+					rows = 1;
+				if(rows - 1 == request.row && cells == request.column) {
+					start = cellStart;
+					end = tokenizer.getTokenEnd();
+				}
+				cells++;
+			}
+
+			if(depth > 0 && tokenizer.nameEquals(type)) {
+				depth--;
+				if(depth == 0 && (start >= 0 || inTable))
+					return finish(request.kind == TABLE_CELL ? end : tokenizer.getTokenEnd());
+			}
+			return false;
+		}
+
+		/**
+		 * Marks the request as resolved
+		 * @param end	The index just past the end of the element, or -1 if it was not found
+		 * @return	True
+		 */
+		private boolean finish(int end) {
+			this.end = end;
+			if(end < 0)
+				start = -1;
+			inTable = false;
+			done = true;
+			return true;
+		}
+	}
+}
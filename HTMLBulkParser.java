@@ -0,0 +1,275 @@
+package big_boiz.antplanner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * HTMLBulkParser parses a stream of pages on many threads at once, running the same extraction
+ * on each page and handing back what it returns
+ *
+ * HTMLBulkParser<String> parser = new HTMLBulkParser<String>(page -> {
+ * 		page.loadNewElementById("price");
+ * 		return page.getElement().getContent();
+ * }).setConcurrency(64);
+ * try(Stream<String> prices = parser.parse(pages)) {
+ * 		prices.forEach(System.out::println);
+ * }
+ *
+ * Each page is parsed on a virtual thread when the JVM has them (Java 21 or later), and otherwise
+ * on a pool of as many threads as the concurrency limit
+ * Pages are taken from the stream only as results are read, and no more than the concurrency limit
+ * are ever taken but not yet read, so a slow reader holds back the whole pipeline instead of
+ * letting parsed pages pile up in memory
+ * Each running extraction borrows an HTMLParseContext from a pool to parse its page with, so the
+ * number of contexts created is bounded by the concurrency limit rather than the number of pages
+ * By default only the tokenizer of the context is reused; with setReused(true) each page is also
+ * indexed into the space of the context, so a long stream of pages is parsed without allocating
+ * new indexes, as long as the extraction keeps nothing which refers back to the page's document
+ *
+ * An exception thrown by the extraction is thrown again when its result is reached; an extraction
+ * which should skip pages it cannot parse has to catch HTMLParseException itself
+ */
+public class HTMLBulkParser<T> {
+
+	private final Function<? super HTMLStringFactory, ? extends T> extractor;	//Run on each page
+	private final ConcurrentLinkedQueue<HTMLParseContext> contexts;	//The contexts not in use
+	private int concurrency;	//The most pages parsed or waiting to be read at once
+	private boolean ordered;	//Whether results are read in the order of the pages
+	private boolean indexed;	//Whether each page is indexed before the extraction is run
+	private boolean reused;		//Whether each page is indexed into the space of its context
+
+	/**
+	 * Constructs a parser which runs the specified extraction on each page
+	 * By default as many pages are parsed at once as there are cores, results are read in the
+	 * order of the pages, and pages are neither indexed nor parsed into reused contexts
+	 * @param extractor	The extraction, given an HTMLStringFactory over each page in turn; it is
+	 * 					called from many threads at once
+	 */
+	public HTMLBulkParser(Function<? super HTMLStringFactory, ? extends T> extractor) {
+		this.extractor = extractor;
+		contexts = new ConcurrentLinkedQueue<>();
+		concurrency = Runtime.getRuntime().availableProcessors();
+		ordered = true;
+		indexed = false;
+		reused = false;
+	}
+
+	/**
+	 * Sets the most pages to parse at once
+	 * Pages whose results have not been read yet count against the limit, which is what holds
+	 * back a fast producer
+	 * @param concurrency	The limit
+	 * @return	This parser
+	 * @throws HTMLParseException	Thrown if the limit is less than 1
+	 */
+	public HTMLBulkParser<T> setConcurrency(int concurrency) throws HTMLParseException {
+		if(concurrency < 1)
+			throw new HTMLParseException("setConcurrency(): The concurrency limit must be at least 1, not " + concurrency);
+		this.concurrency = concurrency;
+		return this;
+	}
+
+	/**
+	 * Sets whether results are read in the order of the pages, or as soon as each is ready
+	 * Reading results as they are ready keeps every thread busy when some pages take much longer
+	 * than others
+	 * @param ordered	True to read results in the order of the pages
+	 * @return	This parser
+	 */
+	public HTMLBulkParser<T> setOrdered(boolean ordered) {
+		this.ordered = ordered;
+		return this;
+	}
+
+	/**
+	 * Sets whether each page is indexed before the extraction is run
+	 * Indexing pays off when the extraction loads many elements from the same page
+	 * @param indexed	True to index each page
+	 * @return	This parser
+	 */
+	public HTMLBulkParser<T> setIndexed(boolean indexed) {
+		this.indexed = indexed;
+		return this;
+	}
+
+	/**
+	 * Sets whether each page is parsed into the reused space of a pooled HTMLParseContext
+	 * The document a page is parsed into can only be queried until the extraction returns, so
+	 * the extraction must not return anything which queries it later, such as its HTMLStringFactory,
+	 * an HTMLScope or an HTMLCursor; HTMLElements and Strings are safe to return
+	 * @param reused	True to parse each page into a reused context
+	 * @return	This parser
+	 */
+	public HTMLBulkParser<T> setReused(boolean reused) {
+		this.reused = reused;
+		return this;
+	}
+
+	/**
+	 * Parses a stream of pages
+	 * The pages are taken from the stream on the thread reading the results, only as fast as the
+	 * results are read; closing the returned stream closes the stream of pages and abandons any
+	 * pages still being parsed
+	 * @param pages	The HTML code of each page, such as Strings or HTMLByteSequences
+	 * @return	The result of the extraction on each page
+	 */
+	public Stream<T> parse(Stream<? extends CharSequence> pages) {
+		Results results;
+
+		results = new Results(pages.iterator());
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results,
+				ordered ? Spliterator.ORDERED : 0), false).onClose(results::close).onClose(pages::close);
+	}
+
+	/**
+	 * Parses a single page and runs the extraction on it, with a context from the pool
+	 * @param page	The HTML code of the page
+	 * @return	The result of the extraction
+	 */
+	private T extract(CharSequence page) {
+		HTMLParseContext context;
+		HTMLDocument document;
+
+		context = contexts.poll();
+		if(context == null)
+			context = new HTMLParseContext();
+		try {
+			if(reused)
+				document = context.parse(page, indexed);
+			else if(indexed)
+				document = new HTMLDocument(new HTMLDocumentIndex(page, context.getTokenizer()));
+			else
+				document = new HTMLDocument(page);
+			return extractor.apply(new HTMLStringFactory(document));
+		}
+		finally {
+			if(reused)
+				context.reset();		//lets go of the page while the context waits in the pool
+			contexts.offer(context);
+		}
+	}
+
+	/**
+	 * Creates the executor pages are parsed on: one virtual thread per page where the JVM has
+	 * virtual threads, or else a fixed pool of daemon threads
+	 * Virtual threads are looked up by reflection, so the library still runs on Java 8
+	 * @return	The executor
+	 */
+	private ExecutorService newExecutor() {
+		Method virtualThreads;
+		AtomicInteger count;
+
+		try {
+			virtualThreads = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) virtualThreads.invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			count = new AtomicInteger();
+			return Executors.newFixedThreadPool(concurrency, task -> {
+				Thread thread;
+
+				thread = new Thread(task, "HTMLBulkParser-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * Results hands out the result of each page, keeping the pipeline full as results are read
+	 */
+	private class Results implements Iterator<T> {
+
+		private final Iterator<? extends CharSequence> pages;	//The pages not yet taken
+		private final ExecutorService executor;					//Runs the extraction on each page
+		private final ArrayDeque<Future<T>> pending;			//The pages taken, in order; used
+																//when results are ordered
+		private final CompletionService<T> completed;			//The pages taken, as they finish;
+																//used when results are not ordered
+		private final int concurrency;	//The most pages taken but not yet read
+		private final boolean ordered;	//Whether results are read in the order of the pages
+		private int inFlight;			//The pages taken but not yet read
+
+		/**
+		 * @param pages	The pages to parse
+		 */
+		Results(Iterator<? extends CharSequence> pages) {
+			this.pages = pages;
+			executor = newExecutor();
+			pending = new ArrayDeque<>();
+			completed = new ExecutorCompletionService<>(executor);
+			concurrency = HTMLBulkParser.this.concurrency;
+			ordered = HTMLBulkParser.this.ordered;
+			inFlight = 0;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while(inFlight < concurrency && pages.hasNext()) {
+				submit(pages.next());
+				inFlight++;
+			}
+			if(inFlight == 0)
+				executor.shutdown();
+			return inFlight > 0;
+		}
+
+		@Override
+		public T next() {
+			Future<T> result;
+
+			if(!hasNext())
+				throw new NoSuchElementException();
+			try {
+				result = ordered ? pending.poll() : completed.take();
+				inFlight--;
+				return result.get();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new HTMLParseException("parse(): Interrupted while waiting for a page");
+			}
+			catch(ExecutionException e) {
+				if(e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				if(e.getCause() instanceof Error)
+					throw (Error) e.getCause();
+				throw new HTMLParseException("parse(): " + e.getCause());
+			}
+		}
+
+		/**
+		 * Starts parsing a page
+		 * @param page	The HTML code of the page
+		 */
+		private void submit(CharSequence page) {
+			if(ordered)
+				pending.add(executor.submit(() -> extract(page)));
+			else
+				completed.submit(() -> extract(page));
+		}
+
+		/**
+		 * Abandons the pages still being parsed
+		 */
+		void close() {
+			executor.shutdownNow();
+		}
+	}
+}
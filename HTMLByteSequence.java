@@ -0,0 +1,240 @@
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * HTMLByteSequence reads the bytes of a UTF-8 or ASCII document as characters, without decoding
+ * or copying them
+ * Each byte is one character, so every index is a byte offset into the document
+ *
+ * All of the markup of an HTML document is ASCII, and every byte of a multi-byte UTF-8 character
+ * is above 127, so tags are found the same way as in the decoded document
+ * Characters outside of ASCII are only decoded when a piece of the document is turned into a
+ * String with toString(), such as the content of an element
+ * A value searched for which is not ASCII, such as an id, is encoded as UTF-8 and compared against
+ * the undecoded bytes
+ *
+ * The bytes are usually a file mapped into memory with map(), so a document of any size costs
+ * almost no heap; a page downloaded as bytes can be read the same way without decoding it first,
+ * taking half the memory of the same page as a String
+ */
+public class HTMLByteSequence implements CharSequence {
+
+	private ByteBuffer bytes;	//The bytes of the document; never moved or changed
+	private int start, end;		//The range of the sequence in bytes
+
+	/**
+	 * Constructs a sequence over all of the remaining bytes of a buffer
+	 * @param bytes	The bytes of the document
+	 */
+	public HTMLByteSequence(ByteBuffer bytes) {
+		this(bytes, bytes.position(), bytes.limit());
+	}
+
+	/**
+	 * Constructs a sequence over an array of bytes, without copying it
+	 * The array must not be changed while the sequence is in use
+	 * @param bytes	The bytes of the document
+	 */
+	public HTMLByteSequence(byte[] bytes) {
+		this(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Constructs a sequence over a range of a buffer
+	 * @param bytes	The bytes of the document
+	 * @param start	The index at which the sequence starts
+	 * @param end	The index just past the end of the sequence
+	 */
+	private HTMLByteSequence(ByteBuffer bytes, int start, int end) {
+		this.bytes = bytes;
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Maps a file into memory as a sequence
+	 * The file is read only as its pages are touched, and the mapping stays valid after this
+	 * method returns, until the sequence is garbage collected
+	 * @param file	The file to map
+	 * @return	The sequence of the bytes of the file
+	 * @throws IOException	Thrown if the file cannot be opened or mapped
+	 * @throws HTMLParseException	Thrown if the file is 2GB or larger
+	 */
+	public static HTMLByteSequence map(Path file) throws IOException, HTMLParseException {
+		long size;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			size = channel.size();
+			if(size > Integer.MAX_VALUE)
+				throw new HTMLParseException("map(): File " + file + " is larger than "
+						+ Integer.MAX_VALUE + " bytes");
+			return new HTMLByteSequence(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+	@Override
+	public int length() {
+		return end - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if(index < 0 || index >= end - start)
+			throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+		return (char) (bytes.get(start + index) & 0xFF);
+	}
+
+	/**
+	 * Finds the next occurrence of a character in a range of the sequence, reading eight bytes
+	 * at a time
+	 * Each word is checked for a byte equal to the character without branching on each byte; the
+	 * check is exact, so the first byte it marks is the character
+	 * @param c		The character to look for
+	 * @param from	The index at which to start looking
+	 * @param to	The index at which to stop looking
+	 * @return	The index of the character, or to if it does not occur in the range
+	 */
+	int indexOf(char c, int from, int to) {
+		int i, last;
+		long pattern, word, found;
+		boolean bigEndian;
+
+		if(c > 0xFF)
+			return to;
+
+		pattern = (c & 0xFFL) * 0x0101010101010101L;
+		bigEndian = bytes.order() == ByteOrder.BIG_ENDIAN;
+		i = start + from;
+		last = start + to;
+		while(i + 8 <= last) {
+			word = bytes.getLong(i) ^ pattern;		//bytes equal to the character become zero
+			found = ~(((word & 0x7F7F7F7F7F7F7F7FL) + 0x7F7F7F7F7F7F7F7FL) | word | 0x7F7F7F7F7F7F7F7FL);
+			if(found != 0)
+				return i - start + (bigEndian ? Long.numberOfLeadingZeros(found) : Long.numberOfTrailingZeros(found)) / 8;
+			i += 8;
+		}
+		while(i < last && (bytes.get(i) & 0xFF) != c)
+			i++;
+		return i - start;
+	}
+
+	/**
+	 * Checks whether a range of the sequence is all ASCII, reading eight bytes at a time
+	 * Such a range reads the same as its decoded characters, one character for each byte
+	 * @param from	The start of the range
+	 * @param to	The end of the range
+	 * @return	True if no byte in the range is above 127
+	 */
+	boolean isAscii(int from, int to) {
+		int i, last;
+
+		i = start + from;
+		last = start + to;
+		while(i + 8 <= last) {
+			if((bytes.getLong(i) & 0x8080808080808080L) != 0)
+				return false;
+			i += 8;
+		}
+		while(i < last)
+			if(bytes.get(i++) < 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Compares a range of the sequence to a String, as though the range were decoded
+	 * ASCII characters are compared byte for byte; the rest of the String is only encoded as UTF-8
+	 * once a character outside of ASCII is reached
+	 * @param from		The start of the range
+	 * @param to		The end of the range
+	 * @param search	The String to compare against
+	 * @return	True if the range holds exactly the UTF-8 encoding of the String
+	 */
+	boolean regionMatches(int from, int to, String search) {
+		int i, length;
+		char c;
+		byte[] encoded;
+
+		length = search.length();
+		for(i = 0; i < length && (c = search.charAt(i)) < 0x80; i++)
+			if(from + i >= to || bytes.get(start + from + i) != c)
+				return false;
+		if(i == length)
+			return to - from == length;
+
+		encoded = search.substring(i).getBytes(StandardCharsets.UTF_8);
+		if(to - from - i != encoded.length)
+			return false;
+		for(length = 0; length < encoded.length; length++)
+			if(bytes.get(start + from + i + length) != encoded[length])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Converts a String into the characters a sequence reads for it, one for each byte of its
+	 * UTF-8 encoding, so that it can be hashed and compared like a range of the sequence
+	 * @param value	The String to convert
+	 * @return	The characters of its UTF-8 encoding; the String itself if it is all ASCII
+	 */
+	static String encode(String value) {
+		int i;
+
+		for(i = 0; i < value.length(); i++)
+			if(value.charAt(i) >= 0x80)
+				return new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+		return value;
+	}
+
+	/**
+	 * Estimates the heap taken up by the bytes of the sequence
+	 * @return	The length of the sequence, or 0 if the bytes are mapped or otherwise outside the heap
+	 */
+	long getMemoryUsage() {
+		return bytes.isDirect() ? 0 : end - start;
+	}
+
+	/**
+	 * @return	A view of the bytes of the sequence, positioned on its range
+	 */
+	ByteBuffer getBytes() {
+		ByteBuffer range;
+
+		range = bytes.duplicate();
+		range.limit(end).position(start);
+		return range;
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to) {
+		if(from < 0 || to > end - start || from > to)
+			throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + (end - start));
+		return new HTMLByteSequence(bytes, start + from, start + to);
+	}
+
+	/**
+	 * Decodes the sequence as UTF-8
+	 * @return	The characters of the sequence as a String
+	 */
+	@Override
+	public String toString() {
+		byte[] copy;
+		ByteBuffer range;
+
+		if(bytes.hasArray())
+			return new String(bytes.array(), bytes.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+
+		copy = new byte[end - start];
+		range = bytes.duplicate();
+		range.limit(end).position(start);
+		range.get(copy);
+		return new String(copy, StandardCharsets.UTF_8);
+	}
+}
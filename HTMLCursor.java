@@ -0,0 +1,165 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+/**
+ * HTMLCursor walks the elements of an indexed document without creating an object for each one
+ * Every element is just its number in the HTMLDocumentIndex, which keeps the elements of the whole
+ * document in a few arrays of ints; the cursor moves from one number to another, so walking a page
+ * of any size creates no garbage beyond the Strings actually asked for
+ *
+ * An element can still be turned into an HTMLElement with toElement() where the rest of the
+ * library expects one
+ *
+ * A cursor moves, so it should only be used by one thread; any number of cursors can share the
+ * same index
+ */
+public class HTMLCursor {
+
+	private final HTMLDocumentIndex index;	//The elements of the document
+	private final CharSequence source;		//The document
+	private final HTMLTokenizer tokenizer;	//Reads the attributes of the current element
+	private int element;					//The number of the current element; -1 if the document
+											//has no elements
+
+	/**
+	 * Constructs a cursor on the first element of a document
+	 * @param index	The index of the document
+	 */
+	public HTMLCursor(HTMLDocumentIndex index) {
+		this.index = index;
+		source = index.getSource();
+		tokenizer = new HTMLTokenizer();
+		element = index.size() > 0 ? 0 : -1;
+	}
+
+	/**
+	 * Moves to the first element nested directly in the current element
+	 * @return	True if the cursor moved; false if the element has no children, in which case the
+	 * 			cursor stays where it is
+	 */
+	public boolean firstChild() {
+		return moveTo(element >= 0 ? index.getFirstChild(element) : -1);
+	}
+
+	/**
+	 * Moves to the next element with the same parent as the current element
+	 * @return	True if the cursor moved; false if this is the last such element
+	 */
+	public boolean nextSibling() {
+		return moveTo(element >= 0 ? index.getNextSibling(element) : -1);
+	}
+
+	/**
+	 * Moves to the element the current element is nested in
+	 * @return	True if the cursor moved; false if the element is not nested in any element
+	 */
+	public boolean parent() {
+		return moveTo(element >= 0 ? index.getParent(element) : -1);
+	}
+
+	/**
+	 * Moves to the next element in document order, which is the next opening tag in the document
+	 * Calling next() until it returns false visits every element, parents before their children
+	 * @return	True if the cursor moved; false if this is the last element
+	 */
+	public boolean next() {
+		return moveTo(element >= 0 && element + 1 < index.size() ? element + 1 : -1);
+	}
+
+	/**
+	 * Moves to the specified element
+	 * @param element	The number of the element in the index, or -1 to stay where the cursor is
+	 * @return	True if the cursor moved
+	 */
+	public boolean moveTo(int element) {
+		if(element < 0)
+			return false;
+		this.element = element;
+		return true;
+	}
+
+	/**
+	 * @return	The number of the current element in the index, or -1 if the document has no elements
+	 */
+	public int getElement() {
+		return element;
+	}
+
+	/**
+	 * @return	The type of the current element, as a number from the index's table of type names
+	 */
+	public int getTagId() {
+		return index.getTag(element);
+	}
+
+	/**
+	 * @return	The type of the current element, such as "table"
+	 */
+	public String getTagName() {
+		return index.getTagNames().getName(index.getTag(element));
+	}
+
+	/**
+	 * Checks the type of the current element without creating a String
+	 * @param type	The type to compare against
+	 * @return	True if the current element is of the type
+	 */
+	public boolean isTag(String type) {
+		return index.getTagNames().find(type) == index.getTag(element);
+	}
+
+	/**
+	 * @return	The index at which the opening tag of the current element starts
+	 */
+	public int getElementStart() {
+		return index.getElementStart(element);
+	}
+
+	/**
+	 * @return	The index just past the end of the current element, or -1 if it is never closed
+	 */
+	public int getElementEnd() {
+		return index.getElementEnd(element);
+	}
+
+	/**
+	 * @return	The index at which the content of the current element starts
+	 */
+	public int getContentStart() {
+		return index.getContentStart(element);
+	}
+
+	/**
+	 * @return	The index at which the content of the current element ends, or -1 if it is never closed
+	 */
+	public int getContentEnd() {
+		return index.getContentEnd(element);
+	}
+
+	/**
+	 * Finds the value of an attribute of the current element
+	 * Only the opening tag of the element is read
+	 * @param attributeName	The name of the attribute
+	 * @return	The value of the attribute, or null if the element does not have the attribute
+	 */
+	public String getAttributeValue(String attributeName) {
+		tokenizer.reset(source, index.getElementStart(element), index.getContentStart(element));
+		tokenizer.next();
+		while(tokenizer.nextAttribute())
+			if(tokenizer.attributeNameEquals(attributeName))
+				return source.subSequence(tokenizer.getAttributeValueStart(), tokenizer.getAttributeValueEnd()).toString();
+		return null;
+	}
+
+	/**
+	 * Creates an HTMLElement for the current element
+	 * @return	The element
+	 * @throws HTMLParseException	Thrown if the element is never closed
+	 */
+	public HTMLElement toElement() throws HTMLParseException {
+		if(index.getElementEnd(element) < 0)
+			throw new HTMLParseException("toElement(): No closing tag found for element of type \"" + getTagName() + "\"");
+		return new HTMLElement(source, index.getElementStart(element), index.getElementEnd(element));
+	}
+}
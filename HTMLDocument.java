@@ -0,0 +1,516 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * HTMLDocument is a parsed HTML page which never changes once constructed, so a single
+ * HTMLDocument can be queried by any number of threads at once without locking
+ *
+ * Elements are found with the load methods, each of which returns an HTMLScope for the element
+ * found; an HTMLScope is just as immutable, and its own load methods search inside the element
+ * Every query uses its own tokenizer, so nothing is shared between calls
+ *
+ * The indexes are built at most once: the document index when the document is constructed with
+ * indexing, and the attribute index the first time an element is loaded by an indexed attribute
+ * Once built, an index is only ever read
+ *
+ * A document parsed with an HTMLParseContext builds its indexes in the space of the context
+ * instead, and can only be queried until the context parses another page or is reset
+ */
+public class HTMLDocument {
+
+	private final CharSequence HTML;				//The HTML code of the document
+	private final String[] indexedAttributes;		//The attributes put in attributeIndex
+	private final HTMLScope root;					//The scope of the entire document
+
+	private volatile HTMLDocumentIndex documentIndex;	//The location of every element in the document;
+														//null until indexed
+	private volatile HTMLAttributeIndex attributeIndex;	//The elements with each indexed attribute
+														//value; built on the first lookup by attribute
+
+	private final HTMLParseContext context;		//The context the indexes are built in; null if the
+												//document builds its own
+	private final int generation;				//The generation of the context the document was parsed in
+
+	/**
+	 * Constructs a document without indexing it
+	 * @param HTML	The HTML code of the document
+	 */
+	public HTMLDocument(CharSequence HTML) {
+		this(HTML, false);
+	}
+
+	/**
+	 * Constructs a document, optionally indexing it
+	 * Indexing reads through the entire document once up front, after which finding an element
+	 * by type and index, or finding the end of any element, no longer rescans the document
+	 * @param HTML		The HTML code of the document
+	 * @param indexed	Whether to index the document
+	 */
+	public HTMLDocument(CharSequence HTML, boolean indexed) {
+		this.HTML = HTML;
+		indexedAttributes = HTMLAttributeIndex.DEFAULT_ATTRIBUTES;
+		root = new HTMLScope(this);
+		context = null;
+		generation = 0;
+		if(indexed)
+			documentIndex = new HTMLDocumentIndex(HTML);
+	}
+
+	/**
+	 * Constructs a document whose indexes are built in the space of a context, optionally
+	 * indexing it
+	 * @param context	The context parsing the document
+	 * @param HTML		The HTML code of the document
+	 * @param indexed	Whether to index the document
+	 */
+	HTMLDocument(HTMLParseContext context, CharSequence HTML, boolean indexed) {
+		this.HTML = HTML;
+		indexedAttributes = HTMLAttributeIndex.DEFAULT_ATTRIBUTES;
+		root = new HTMLScope(this);
+		this.context = context;
+		generation = context.getGeneration();
+		if(indexed)
+			documentIndex = context.indexDocument(HTML);
+	}
+
+	/**
+	 * Constructs a document over a file, without reading the file into a String
+	 * The file is mapped into memory and read as UTF-8; see HTMLByteSequence
+	 * @param file		The HTML file
+	 * @param indexed	Whether to index the document
+	 * @throws IOException	Thrown if the file cannot be opened or mapped
+	 */
+	public HTMLDocument(Path file, boolean indexed) throws IOException {
+		this(HTMLByteSequence.map(file), indexed);
+	}
+
+	/**
+	 * Constructs a document over UTF-8 bytes, without decoding them into a String
+	 * Tags and attributes are matched as bytes, and only the Strings actually retrieved, such as
+	 * the content of an element, are decoded; see HTMLByteSequence
+	 * @param HTML		The HTML code of the document, encoded as UTF-8; must not be changed
+	 * 					while the document is in use
+	 * @param indexed	Whether to index the document
+	 */
+	public HTMLDocument(byte[] HTML, boolean indexed) {
+		this(new HTMLByteSequence(HTML), indexed);
+	}
+
+	/**
+	 * Constructs a document over the remaining UTF-8 bytes of a buffer, without decoding them
+	 * @param HTML		The HTML code of the document, encoded as UTF-8; must not be changed
+	 * 					while the document is in use
+	 * @param indexed	Whether to index the document
+	 */
+	public HTMLDocument(ByteBuffer HTML, boolean indexed) {
+		this(new HTMLByteSequence(HTML), indexed);
+	}
+
+	/**
+	 * Constructs an indexed document from an index which has already been built, such as one
+	 * built with a reused tokenizer
+	 * @param documentIndex	The index of the document
+	 */
+	public HTMLDocument(HTMLDocumentIndex documentIndex) {
+		this(documentIndex.getSource(), HTMLAttributeIndex.DEFAULT_ATTRIBUTES, documentIndex, null);
+	}
+
+	/**
+	 * Constructs a document sharing the HTML and document index of another, but indexing
+	 * different attributes
+	 * @param document			The document to share
+	 * @param indexedAttributes	The attributes to index
+	 */
+	private HTMLDocument(HTMLDocument document, String[] indexedAttributes) {
+		HTML = document.HTML;
+		this.indexedAttributes = indexedAttributes;
+		root = new HTMLScope(this);
+		documentIndex = document.documentIndex;
+		context = document.context;
+		generation = document.generation;
+	}
+
+	/**
+	 * Constructs a document from indexes which have already been built
+	 * @param HTML				The HTML code of the document
+	 * @param indexedAttributes	The attributes put in the attribute index
+	 * @param documentIndex		The document index, or null if the document is not indexed
+	 * @param attributeIndex	The attribute index, or null to build it on the first lookup
+	 */
+	private HTMLDocument(CharSequence HTML, String[] indexedAttributes, HTMLDocumentIndex documentIndex,
+			HTMLAttributeIndex attributeIndex) {
+		this.HTML = HTML;
+		this.indexedAttributes = indexedAttributes;
+		root = new HTMLScope(this);
+		this.documentIndex = documentIndex;
+		this.attributeIndex = attributeIndex;
+		context = null;
+		generation = 0;
+	}
+
+	/**
+	 * Creates a document which also puts the specified attributes in its attribute index, so
+	 * that loadElementByAttribute() can find them without scanning the document
+	 * The document index, if built, is shared with this document
+	 * @param attributeNames	The attributes to index along with id and name
+	 * @return	The new document
+	 */
+	public HTMLDocument withExtraIndexedAttributes(String... attributeNames) {
+		String[] names;
+
+		names = new String[HTMLAttributeIndex.DEFAULT_ATTRIBUTES.length + attributeNames.length];
+		System.arraycopy(HTMLAttributeIndex.DEFAULT_ATTRIBUTES, 0, names, 0, HTMLAttributeIndex.DEFAULT_ATTRIBUTES.length);
+		System.arraycopy(attributeNames, 0, names, HTMLAttributeIndex.DEFAULT_ATTRIBUTES.length, attributeNames.length);
+		return new HTMLDocument(this, names);
+	}
+
+	/**
+	 * Creates the document made by replacing part of the HTML code of this document, which is
+	 * left as it is
+	 * If the edit falls inside the content of an element which can be read apart from the rest of
+	 * the document, such as the text of a table cell or a row added to the end of a table, only
+	 * the new content of that element is tokenized and the indexes of this document are reused
+	 * for everything else. Otherwise the edited document is indexed from scratch, if this one
+	 * was indexed
+	 * @param offset		The index at which the edit starts
+	 * @param removedLength	The number of characters removed at offset
+	 * @param inserted		The text inserted at offset
+	 * @return	The edited document
+	 * @throws HTMLParseException	Thrown if the edit is outside the document, the document is read
+	 * 								as bytes, or the document was parsed with a context which has
+	 * 								since parsed another page or been reset
+	 */
+	public HTMLDocument edit(int offset, int removedLength, CharSequence inserted) throws HTMLParseException {
+		int element, first, delta;
+		CharSequence source;
+		HTMLTokenizer tokenizer;
+		HTMLDocumentIndex index, editedIndex;
+		HTMLAttributeIndex attributes, editedAttributes;
+
+		if(offset < 0 || removedLength < 0 || offset + removedLength > HTML.length())
+			throw new HTMLParseException("edit(): The edit is outside the document");
+		if(HTML instanceof HTMLByteSequence)
+			throw new HTMLParseException("edit(): A document read as bytes cannot be edited");
+
+		source = new StringBuilder(HTML.length() - removedLength + inserted.length())
+				.append(HTML, 0, offset).append(inserted).append(HTML, offset + removedLength, HTML.length())
+				.toString();
+		index = getDocumentIndex();
+		if(index == null)
+			return new HTMLDocument(source, indexedAttributes, null, null);
+
+		delta = inserted.length() - removedLength;
+		tokenizer = new HTMLTokenizer();
+		element = closesOpenQuote(offset + removedLength, inserted) ? -1
+				: index.findEnclosingElement(offset, offset + removedLength, tokenizer);
+		editedIndex = element >= 0 ? index.edit(source, element, delta, tokenizer) : null;
+		if(editedIndex == null)
+			return new HTMLDocument(source, indexedAttributes, new HTMLDocumentIndex(source, tokenizer), null);
+
+		attributes = attributeIndex;
+		editedAttributes = null;
+		if(attributes != null) {
+			first = element + 1;
+			editedAttributes = new HTMLAttributeIndex(attributes, editedIndex, first,
+					index.findFirstElement(index.getContentEnd(element)) - first,
+					editedIndex.findFirstElement(editedIndex.getContentEnd(element)) - first, delta);
+		}
+		return new HTMLDocument(source, indexedAttributes, editedIndex, editedAttributes);
+	}
+
+	/**
+	 * Checks whether inserted text could close a quoted attribute value which an opening tag
+	 * earlier in the document leaves open
+	 * Such a tag is read up to its first '>' only because no matching quote follows it anywhere;
+	 * a quote inserted after it would make the tag reach into the edited content, so the edited
+	 * document has to be indexed from scratch
+	 * @param end		The index just past the end of the text removed
+	 * @param inserted	The text inserted
+	 * @return	True if the inserted text holds a kind of quote which the document no longer holds
+	 * 			anywhere after the edit
+	 */
+	private boolean closesOpenQuote(int end, CharSequence inserted) {
+		int i;
+		char c;
+		boolean doubleQuote, singleQuote;
+
+		doubleQuote = false;
+		singleQuote = false;
+		for(i = 0; i < inserted.length(); i++) {
+			c = inserted.charAt(i);
+			if(c == '"')
+				doubleQuote = true;
+			else if(c == '\'')
+				singleQuote = true;
+		}
+		return doubleQuote && HTMLScanner.indexOf(HTML, '"', end, HTML.length()) == HTML.length()
+				|| singleQuote && HTMLScanner.indexOf(HTML, '\'', end, HTML.length()) == HTML.length();
+	}
+
+	/**
+	 * Retrieves the scope of the entire document, with no element loaded
+	 * @return	The scope of the document
+	 */
+	public HTMLScope getRoot() {
+		return root;
+	}
+
+	/**
+	 * Retrieves the HTML code of the document
+	 * @return	The document
+	 */
+	public CharSequence getSource() {
+		return HTML;
+	}
+
+	/**
+	 * Searches the entire document for the element with the specified ID
+	 * @param id	The ID attribute of the element
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown when an element of the specified ID is not found
+	 */
+	public HTMLScope loadElementById(String id) throws HTMLParseException {
+		return root.loadElementById(id);
+	}
+
+	/**
+	 * Searches the entire document for the first element with the specified value of the
+	 * specified attribute
+	 * @param attributeName	The name of the attribute, such as "id" or "class"
+	 * @param value			The value of the attribute
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown when no element with the value is found
+	 */
+	public HTMLScope loadElementByAttribute(String attributeName, String value) throws HTMLParseException {
+		return root.loadElementByAttribute(attributeName, value);
+	}
+
+	/**
+	 * Searches the entire document for the element of the specified type at the specified index
+	 * @param type	The type of element for which to search the document
+	 * @param index	The number of the element to search for
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown if no element is found at the specified index
+	 */
+	public HTMLScope loadElementByTypeAndIndex(String type, int index) throws HTMLParseException {
+		return root.loadElementByTypeAndIndex(type, index);
+	}
+
+	/**
+	 * Creates a cursor on the first element of the document, for walking the elements without
+	 * creating an HTMLElement for each; the document is indexed first if it has not been
+	 * @return	The cursor
+	 */
+	public HTMLCursor getCursor() {
+		return new HTMLCursor(buildDocumentIndex());
+	}
+
+	/**
+	 * Finds every element in the document which matches a CSS selector
+	 * @param selector	The selector; see HTMLSelector for what is supported
+	 * @return	The matching elements, in document order
+	 * @throws HTMLParseException	Thrown if the selector is not valid or not supported
+	 */
+	public ArrayList<HTMLElement> select(String selector) throws HTMLParseException {
+		return root.select(selector);
+	}
+
+	/**
+	 * Saves the document along with its indexes, so it can be loaded again with load() without
+	 * being parsed
+	 * The indexes are built first if they have not been built yet
+	 * @param file	The file to save to; replaced if it already exists
+	 * @throws IOException	Thrown if the file cannot be written
+	 */
+	public void save(Path file) throws IOException {
+		int i;
+		HTMLDocumentFile.Writer out;
+		HTMLAttributeIndex attributes;
+
+		attributes = getAttributeIndex();
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			out = new HTMLDocumentFile.Writer(channel);
+			out.writeInt(HTMLDocumentFile.MAGIC);
+			out.writeInt(HTMLDocumentFile.VERSION);
+			out.writeInt(HTML instanceof HTMLByteSequence ? HTMLDocumentFile.BYTES : HTMLDocumentFile.CHARACTERS);
+			out.writeInt(HTML.length());
+			if(HTML instanceof HTMLByteSequence)
+				out.writeBytes(((HTMLByteSequence) HTML).getBytes());
+			else
+				out.writeChars(HTML);
+
+			out.writeInt(indexedAttributes.length);
+			for(i = 0; i < indexedAttributes.length; i++)
+				out.writeString(indexedAttributes[i]);
+			buildDocumentIndex().write(out);
+			attributes.write(out);
+			out.flush();
+		}
+	}
+
+	/**
+	 * Loads a document saved with save()
+	 * The file is mapped into memory: the document itself is read straight out of the mapping
+	 * without being copied, and the indexes are copied out in bulk, so nothing is tokenized
+	 * @param file	The saved document
+	 * @return	The document, with its indexes
+	 * @throws IOException	Thrown if the file cannot be opened or mapped
+	 * @throws HTMLParseException	Thrown if the file is not a saved document, was saved by a
+	 * 								different version of the library, or is cut off or damaged
+	 */
+	public static HTMLDocument load(Path file) throws IOException, HTMLParseException {
+		int kind, length, i;
+		long size;
+		ByteBuffer in;
+		CharSequence HTML;
+		String[] indexedAttributes;
+		HTMLDocumentIndex documentIndex;
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			size = channel.size();
+			if(size > Integer.MAX_VALUE)
+				throw new HTMLParseException("load(): File " + file + " is larger than "
+						+ Integer.MAX_VALUE + " bytes");
+			in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		try {
+			if(in.getInt() != HTMLDocumentFile.MAGIC)
+				throw new HTMLParseException("load(): File " + file + " is not a saved document");
+			if(in.getInt() != HTMLDocumentFile.VERSION)
+				throw new HTMLParseException("load(): File " + file + " was saved by a different version");
+			kind = in.getInt();
+			length = in.getInt();
+			if(kind == HTMLDocumentFile.BYTES)
+				HTML = new HTMLByteSequence(HTMLDocumentFile.readBytes(in, length));
+			else
+				HTML = HTMLDocumentFile.readChars(in, length);
+
+			indexedAttributes = new String[in.getInt()];
+			for(i = 0; i < indexedAttributes.length; i++)
+				indexedAttributes[i] = HTMLDocumentFile.readString(in);
+			documentIndex = new HTMLDocumentIndex(HTML, in);
+			return new HTMLDocument(HTML, indexedAttributes, documentIndex, new HTMLAttributeIndex(documentIndex, in));
+		}
+		catch(BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+				| NegativeArraySizeException e) {
+			throw new HTMLParseException("load(): File " + file + " is cut off or damaged");
+		}
+	}
+
+	/**
+	 * Estimates the memory taken up by the document along with whichever indexes have been built
+	 * A document over a mapped file counts only its indexes, as the file is not held in memory, and
+	 * a document over bytes counts one byte for each character
+	 * A loaded document is over a mapped file as well
+	 * @return	The approximate number of bytes used
+	 * @throws HTMLParseException	Thrown if the document was parsed with a context which has since
+	 * 								parsed another page or been reset
+	 */
+	public long getMemoryUsage() throws HTMLParseException {
+		long bytes;
+		HTMLDocumentIndex documentIndex;
+		HTMLAttributeIndex attributeIndex;
+
+		if(HTML instanceof HTMLByteSequence)
+			bytes = ((HTMLByteSequence) HTML).getMemoryUsage();
+		else if(HTML instanceof CharBuffer && ((CharBuffer) HTML).isDirect())
+			bytes = 0;
+		else
+			bytes = 2L * HTML.length();
+		documentIndex = getDocumentIndex();
+		attributeIndex = this.attributeIndex;
+		if(documentIndex != null)
+			bytes += documentIndex.getMemoryUsage();
+		if(attributeIndex != null)
+			bytes += attributeIndex.getMemoryUsage();
+		return bytes;
+	}
+
+	/**
+	 * Retrieves the document index
+	 * @return	The document index, or null if the document has not been indexed
+	 * @throws HTMLParseException	Thrown if the document was parsed with a context which has since
+	 * 								parsed another page or been reset
+	 */
+	HTMLDocumentIndex getDocumentIndex() {
+		if(context != null)
+			context.check(generation);
+		return documentIndex;
+	}
+
+	/**
+	 * Checks whether an attribute is put in the attribute index
+	 * @param attributeName	The name of the attribute
+	 * @return	True if the attribute is indexed
+	 */
+	boolean isIndexedAttribute(String attributeName) {
+		int i;
+
+		for(i = 0; i < indexedAttributes.length; i++)
+			if(indexedAttributes[i].equals(attributeName))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Retrieves the document index, building it if it has not been built yet
+	 * Only the first thread to get here builds the index; any other thread waits for it
+	 * @return	The document index
+	 * @throws HTMLParseException	Thrown if the document was parsed with a context which has since
+	 * 								parsed another page or been reset
+	 */
+	HTMLDocumentIndex buildDocumentIndex() {
+		HTMLDocumentIndex index;
+
+		if(context != null)
+			context.check(generation);
+		index = documentIndex;
+		if(index != null)
+			return index;
+
+		synchronized(this) {
+			if(documentIndex == null)
+				documentIndex = context != null ? context.indexDocument(HTML) : new HTMLDocumentIndex(HTML);
+			return documentIndex;
+		}
+	}
+
+	/**
+	 * Retrieves the attribute index, building it along with the document index if they have
+	 * not been built yet
+	 * Only the first thread to get here builds the indexes; any other thread waits for it
+	 * @return	The attribute index
+	 * @throws HTMLParseException	Thrown if the document was parsed with a context which has since
+	 * 								parsed another page or been reset
+	 */
+	HTMLAttributeIndex getAttributeIndex() {
+		HTMLAttributeIndex index;
+
+		if(context != null)
+			context.check(generation);
+		index = attributeIndex;
+		if(index != null)
+			return index;
+
+		synchronized(this) {
+			if(attributeIndex == null)		//the context only keeps an index of the default attributes
+				attributeIndex = context != null && indexedAttributes == HTMLAttributeIndex.DEFAULT_ATTRIBUTES
+						? context.indexAttributes(buildDocumentIndex())
+						: new HTMLAttributeIndex(buildDocumentIndex(), indexedAttributes);
+			return attributeIndex;
+		}
+	}
+}
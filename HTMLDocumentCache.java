@@ -0,0 +1,212 @@
+package big_boiz.antplanner;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+/**
+ * HTMLDocumentCache keeps parsed documents, along with their document and attribute indexes, so
+ * that a page seen again is queried straight from its indexes instead of being tokenized again
+ *
+ * Documents are found either by their HTML code itself, or by a key chosen by the caller such as
+ * a URL. The cache holds at most a set number of bytes, as estimated by
+ * HTMLDocument.getMemoryUsage(); once full, the least recently used documents are evicted first
+ *
+ * The cache is thread safe. A document is parsed outside the lock, so a slow parse never holds
+ * up lookups of other documents; if two threads miss on the same key at once, both parse it and
+ * the first one stored is kept
+ */
+public class HTMLDocumentCache {
+
+	private final long maxBytes;					//The most bytes the cached documents may use
+	private final LinkedHashMap<Object, Entry> documents;	//The cached documents, least recently
+															//used first
+	private long bytes;								//The bytes used by the cached documents, as
+													//recorded when each was stored
+
+	private long hitCount;							//The number of lookups which found a document
+	private long missCount;							//The number of lookups which parsed a document
+	private long evictionCount;						//The number of documents evicted to make room
+
+	/**
+	 * Constructs an empty cache
+	 * @param maxBytes	The most bytes the cached documents may use, including their indexes
+	 */
+	public HTMLDocumentCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		documents = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Retrieves the document with the specified HTML code, parsing and indexing it if it is not
+	 * in the cache
+	 * The HTML code itself is the key, so finding a cached document compares the code once but
+	 * does not tokenize it
+	 * @param HTML	The HTML code of the document
+	 * @return	The indexed document
+	 */
+	public HTMLDocument get(String HTML) {
+		return get(HTML, () -> HTML);
+	}
+
+	/**
+	 * Retrieves the document stored under a key, parsing and indexing it if it is not in the cache
+	 * @param key		The key of the document, such as its URL
+	 * @param source	Supplies the HTML code of the document; only called on a miss
+	 * @return	The indexed document
+	 */
+	public HTMLDocument get(Object key, Supplier<? extends CharSequence> source) {
+		HTMLDocument document;
+		Entry cached;
+		HTMLParseListener listener;
+
+		listener = HTMLStringFactory.getParseListener();
+		synchronized(this) {
+			cached = documents.get(key);
+			document = cached != null ? cached.document : null;
+			if(document != null)
+				hitCount++;
+			else
+				missCount++;
+		}
+		if(listener != null)
+			listener.cacheLookup(document != null);
+		if(document != null)
+			return document;
+
+		document = new HTMLDocument(source.get(), true);
+		document.getAttributeIndex();
+
+		synchronized(this) {
+			cached = documents.get(key);
+			if(cached != null)
+				return cached.document;
+			store(key, document);
+		}
+		return document;
+	}
+
+	/**
+	 * Stores a document which has already been parsed, such as one loaded with HTMLDocument.load()
+	 * when warming up the cache, replacing any document stored under the same key
+	 * Any index the document does not have yet is built first, outside the lock, the same way as
+	 * for a document parsed by get()
+	 * @param key		The key of the document
+	 * @param document	The document
+	 */
+	public void put(Object key, HTMLDocument document) {
+		document.getAttributeIndex();
+
+		synchronized(this) {
+			invalidate(key);
+			store(key, document);
+		}
+	}
+
+	/**
+	 * Stores a document under a key, evicting the least recently used documents until it fits
+	 * A document larger than the whole cache is not stored
+	 * The size of the document is recorded as it is stored, and the same size is taken off again
+	 * when it is removed, however its own estimate changes in the meantime
+	 * @param key		The key of the document
+	 * @param document	The document
+	 */
+	private void store(Object key, HTMLDocument document) {
+		long size;
+		Iterator<Entry> eldest;
+
+		size = document.getMemoryUsage();
+		if(size > maxBytes)
+			return;
+
+		eldest = documents.values().iterator();
+		while(bytes + size > maxBytes && eldest.hasNext()) {
+			bytes -= eldest.next().size;
+			eldest.remove();
+			evictionCount++;
+		}
+		documents.put(key, new Entry(document, size));
+		bytes += size;
+	}
+
+	/**
+	 * Removes the document stored under a key, if there is one
+	 * @param key	The key of the document, or its HTML code if it was stored by get(String)
+	 */
+	public synchronized void invalidate(Object key) {
+		Entry entry;
+
+		entry = documents.remove(key);
+		if(entry != null)
+			bytes -= entry.size;
+	}
+
+	/**
+	 * Removes every document from the cache
+	 * The hit, miss, and eviction counts are kept
+	 */
+	public synchronized void clear() {
+		documents.clear();
+		bytes = 0;
+	}
+
+	/**
+	 * @return	The number of documents in the cache
+	 */
+	public synchronized int size() {
+		return documents.size();
+	}
+
+	/**
+	 * @return	The estimated number of bytes used by the cached documents
+	 */
+	public synchronized long getMemoryUsage() {
+		return bytes;
+	}
+
+	/**
+	 * @return	The most bytes the cached documents may use
+	 */
+	public long getMaxMemoryUsage() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return	The number of lookups which found the document in the cache
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return	The number of lookups which had to parse the document
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return	The number of documents evicted to make room for others
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * Entry is a cached document along with the bytes it was counted as when stored
+	 */
+	private static final class Entry {
+
+		private final HTMLDocument document;	//The cached document
+		private final long size;				//The bytes added to the total when it was stored
+
+		/**
+		 * @param document	The cached document
+		 * @param size		The bytes it uses
+		 */
+		Entry(HTMLDocument document, long size) {
+			this.document = document;
+			this.size = size;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * HTMLDocumentFile holds what is shared by saving and loading documents with HTMLDocument.save()
+ * and HTMLDocument.load()
+ *
+ * A saved document is laid out as follows, every number being a little endian int:
+ *
+ * MAGIC, VERSION				identify the file
+ * source kind, length			CHARACTERS, followed by length UTF-16 characters, or
+ * 								BYTES, followed by length bytes of an HTMLByteSequence
+ * indexed attributes			a count, then each name as a length and its characters
+ * document index				see HTMLDocumentIndex.write()
+ * attribute index				see HTMLAttributeIndex.write()
+ *
+ * Little endian is the native order of nearly every machine, so the arrays of the indexes are read
+ * back with a straight copy out of the mapped file, and the source is not copied at all
+ */
+final class HTMLDocumentFile {
+
+	static final int MAGIC = 0x444D5448;	//"HTMD" in little endian
+	static final int VERSION = 1;			//The layout of the file; changed whenever the layout changes
+	static final int CHARACTERS = 0;		//The source is saved as UTF-16 characters
+	static final int BYTES = 1;				//The source is saved as the bytes of an HTMLByteSequence
+
+	private static final int BUFFER_SIZE = 1 << 20;	//The bytes gathered before each write to the file
+
+	/**
+	 * Prevents the class from being constructed; all of its methods are static
+	 */
+	private HTMLDocumentFile() {
+	}
+
+	/**
+	 * Reads an array of ints, moving the buffer past them
+	 * @param in	The buffer to read from, in little endian order
+	 * @param count	The number of ints
+	 * @return	The ints
+	 */
+	static int[] readInts(ByteBuffer in, int count) {
+		int[] values;
+
+		values = new int[count];
+		in.asIntBuffer().get(values);
+		in.position(in.position() + 4 * count);
+		return values;
+	}
+
+	/**
+	 * Reads a String written by Writer.writeString()
+	 * @param in	The buffer to read from, in little endian order
+	 * @return	The String
+	 */
+	static String readString(ByteBuffer in) {
+		int length, i;
+		char[] characters;
+
+		length = in.getInt();
+		characters = new char[length];
+		for(i = 0; i < length; i++)
+			characters[i] = in.getChar();
+		return new String(characters);
+	}
+
+	/**
+	 * Takes a view of the characters at the position of a buffer, without copying them, moving the
+	 * buffer past them
+	 * @param in		The buffer to read from
+	 * @param length	The number of characters
+	 * @return	The characters
+	 */
+	static CharBuffer readChars(ByteBuffer in, int length) {
+		ByteBuffer range;
+
+		range = in.duplicate();
+		range.limit(in.position() + 2 * length);
+		in.position(in.position() + 2 * length);
+		return range.slice().order(ByteOrder.LITTLE_ENDIAN).asCharBuffer();
+	}
+
+	/**
+	 * Takes a view of the bytes at the position of a buffer, without copying them, moving the buffer
+	 * past them
+	 * @param in		The buffer to read from
+	 * @param length	The number of bytes
+	 * @return	The bytes
+	 */
+	static ByteBuffer readBytes(ByteBuffer in, int length) {
+		ByteBuffer range;
+
+		range = in.duplicate();
+		range.limit(in.position() + length);
+		in.position(in.position() + length);
+		return range.slice();
+	}
+
+	/**
+	 * Writer gathers the parts of a document into a buffer, writing them to a file as the buffer
+	 * fills up
+	 */
+	static final class Writer {
+
+		private final FileChannel channel;	//The file written to
+		private final ByteBuffer buffer;	//The bytes not yet written
+
+		/**
+		 * @param channel	The file to write to
+		 */
+		Writer(FileChannel channel) {
+			this.channel = channel;
+			buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		/**
+		 * @param value	The int to write
+		 */
+		void writeInt(int value) throws IOException {
+			if(buffer.remaining() < 4)
+				flush();
+			buffer.putInt(value);
+		}
+
+		/**
+		 * Writes the start of an array of ints, a buffer full at a time
+		 * @param values	The array
+		 * @param count		The number of ints to write
+		 */
+		void writeInts(int[] values, int count) throws IOException {
+			int i, length;
+
+			for(i = 0; i < count; i += length) {
+				if(buffer.remaining() < 4)
+					flush();
+				length = Math.min(count - i, buffer.remaining() / 4);
+				buffer.asIntBuffer().put(values, i, length);
+				buffer.position(buffer.position() + 4 * length);
+			}
+		}
+
+		/**
+		 * Writes a sequence of characters, a buffer full at a time
+		 * @param characters	The characters
+		 */
+		void writeChars(CharSequence characters) throws IOException {
+			int i, length;
+
+			for(i = 0; i < characters.length(); i += length) {
+				if(buffer.remaining() < 2)
+					flush();
+				length = Math.min(characters.length() - i, buffer.remaining() / 2);
+				if(characters instanceof String)
+					buffer.asCharBuffer().put((String) characters, i, i + length);
+				else
+					buffer.asCharBuffer().append(characters, i, i + length);
+				buffer.position(buffer.position() + 2 * length);
+			}
+		}
+
+		/**
+		 * Writes a String as its length followed by its characters
+		 * @param value	The String
+		 */
+		void writeString(String value) throws IOException {
+			writeInt(value.length());
+			writeChars(value);
+		}
+
+		/**
+		 * Writes the remaining bytes of a buffer straight to the file
+		 * @param bytes	The bytes
+		 */
+		void writeBytes(ByteBuffer bytes) throws IOException {
+			flush();
+			while(bytes.hasRemaining())
+				channel.write(bytes);
+		}
+
+		/**
+		 * Writes everything gathered so far to the file
+		 */
+		void flush() throws IOException {
+			buffer.flip();
+			while(buffer.hasRemaining())
+				channel.write(buffer);
+			buffer.clear();
+		}
+	}
+}
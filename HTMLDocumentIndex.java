@@ -0,0 +1,834 @@
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * HTMLDocumentIndex records where every element of an HTML document is, in a single pass
+ * over the document
+ * For each element, the index stores the range of its opening tag, the range of its closing
+ * tag, its parent and its type, so finding the end of an element or the n-th element of a
+ * type does not require scanning the document again
+ *
+ * Elements are numbered in the order their opening tags appear in the document
+ * Closing tags are matched the same way the rest of the parser matches them: only tags of the
+ * same type are counted, so an unclosed <p> does not change where its parent ends
+ * A void element, such as <br> or <input>, ends with its opening tag like an element which closes
+ * itself, so the elements after it are its siblings rather than its children
+ */
+public class HTMLDocumentIndex {
+
+	private static final int MIN_RESCAN = 4096;	//The fewest characters findEnclosingElement() may read
+												//again before giving up, however short the document
+
+	private CharSequence source;	//The indexed document
+	private HTMLNameTable tagNames;	//The numbers given to each type of element
+	private int size;				//The number of elements in the document
+
+	private int[] elementStart;		//The index at which the opening tag of each element starts
+	private int[] contentStart;		//The index just past the end of the opening tag of each element
+	private int[] contentEnd;		//The index at which the closing tag of each element starts;
+									//equal to contentStart for elements that close themselves
+	private int[] elementEnd;		//The index just past the end of each element; -1 if never closed
+	private int[] parent;			//The element each element is nested in; -1 for none
+	private int[] tag;				//The type of each element, as a number from tagNames
+	private int[] position;			//The position of each element among the elements nested
+									//directly in its parent; 1 for the first
+	private int[] childCount;		//The number of elements nested directly in each element
+	private int rootCount;			//The number of elements not nested in any element
+	private int maxDepth;			//The deepest nesting of elements found
+	private int[] firstChild;		//The first element nested directly in each element; -1 for none
+	private int[] nextSibling;		//The next element with the same parent as each element; -1 for none
+
+	private int[] tagOffsets;		//Where the elements of each type start in tagElements
+	private int[] tagElements;		//The elements of each type in document order, grouped by type
+
+	private int[] openElements;		//The space build() keeps track of open elements in; only kept
+	private int[] lastOpen;			//between builds by an index which is rebuilt with rebuild(),
+	private int[] previousOpen;		//and null otherwise
+
+	/**
+	 * Constructs an index over an entire HTML document
+	 * @param source	The HTML document to index
+	 */
+	public HTMLDocumentIndex(CharSequence source) {
+		this(source, new HTMLTokenizer());
+	}
+
+	/**
+	 * Constructs an index over an entire HTML document, reusing the specified tokenizer
+	 * @param source	The HTML document to index
+	 * @param tokenizer	The tokenizer to read the document with
+	 */
+	public HTMLDocumentIndex(CharSequence source, HTMLTokenizer tokenizer) {
+		this(source, new HTMLNameTable(), Math.max(16, source.length() / 32));
+		indexDocument(tokenizer);
+	}
+
+	/**
+	 * Constructs an empty index to be rebuilt over document after document with rebuild(), keeping
+	 * the space it has grown to along with the space used while building it
+	 */
+	HTMLDocumentIndex() {
+		this("", new HTMLNameTable(), 16);
+		openElements = new int[64];
+		lastOpen = new int[64];
+		previousOpen = new int[16];
+		buildTagElements();
+		buildSiblings();
+	}
+
+	/**
+	 * Constructs an empty index with room for the specified number of elements
+	 * @param source	The HTML document to index
+	 * @param tagNames	The table to number the types of element with
+	 * @param capacity	The number of elements to make room for
+	 */
+	private HTMLDocumentIndex(CharSequence source, HTMLNameTable tagNames, int capacity) {
+		this.source = source;
+		this.tagNames = tagNames;
+		elementStart = new int[capacity];
+		contentStart = new int[capacity];
+		contentEnd = new int[capacity];
+		elementEnd = new int[capacity];
+		parent = new int[capacity];
+		tag = new int[capacity];
+		position = new int[capacity];
+		childCount = new int[capacity];
+	}
+
+	/**
+	 * Constructs an index saved by write(), copying its arrays straight out of the buffer
+	 * @param source	The HTML document the index was built over
+	 * @param in		The saved index, in little endian order; left just past the end of the index
+	 */
+	HTMLDocumentIndex(CharSequence source, ByteBuffer in) {
+		int types, i;
+		String name;
+
+		this.source = source;
+		tagNames = new HTMLNameTable();
+		types = in.getInt();
+		for(i = 0; i < types; i++) {
+			name = HTMLDocumentFile.readString(in);
+			tagNames.intern(name, 0, name.length());
+		}
+
+		size = in.getInt();
+		rootCount = in.getInt();
+		maxDepth = in.getInt();
+		elementStart = HTMLDocumentFile.readInts(in, size);
+		contentStart = HTMLDocumentFile.readInts(in, size);
+		contentEnd = HTMLDocumentFile.readInts(in, size);
+		elementEnd = HTMLDocumentFile.readInts(in, size);
+		parent = HTMLDocumentFile.readInts(in, size);
+		tag = HTMLDocumentFile.readInts(in, size);
+		position = HTMLDocumentFile.readInts(in, size);
+		childCount = HTMLDocumentFile.readInts(in, size);
+		firstChild = HTMLDocumentFile.readInts(in, size);
+		nextSibling = HTMLDocumentFile.readInts(in, size);
+		tagOffsets = HTMLDocumentFile.readInts(in, types + 1);
+		tagElements = HTMLDocumentFile.readInts(in, size);
+	}
+
+	/**
+	 * Saves the index, to be read back with HTMLDocumentIndex(CharSequence, ByteBuffer)
+	 * The names of the types come first, in the order of their numbers, then the counts, then each
+	 * array of the index in turn
+	 * @param out	The file to save the index to
+	 * @throws IOException	Thrown if the file cannot be written
+	 */
+	void write(HTMLDocumentFile.Writer out) throws IOException {
+		int i;
+
+		out.writeInt(tagNames.size());
+		for(i = 0; i < tagNames.size(); i++)
+			out.writeString(tagNames.getName(i));
+
+		out.writeInt(size);
+		out.writeInt(rootCount);
+		out.writeInt(maxDepth);
+		out.writeInts(elementStart, size);
+		out.writeInts(contentStart, size);
+		out.writeInts(contentEnd, size);
+		out.writeInts(elementEnd, size);
+		out.writeInts(parent, size);
+		out.writeInts(tag, size);
+		out.writeInts(position, size);
+		out.writeInts(childCount, size);
+		out.writeInts(firstChild, size);
+		out.writeInts(nextSibling, size);
+		out.writeInts(tagOffsets, tagNames.size() + 1);
+		out.writeInts(tagElements, size);
+	}
+
+	/**
+	 * Indexes another document in place of the one indexed, reusing every array of the index
+	 * Arrays are only replaced when the new document has more elements or types of element than
+	 * any document indexed before it, so once the index has grown to fit the largest document,
+	 * rebuilding it creates no objects
+	 * Only an index constructed with HTMLDocumentIndex() may be rebuilt
+	 * @param source	The HTML document to index
+	 * @param tokenizer	The tokenizer to read the document with
+	 */
+	void rebuild(CharSequence source, HTMLTokenizer tokenizer) {
+		clear();
+		this.source = source;
+		indexDocument(tokenizer);
+	}
+
+	/**
+	 * Empties the index, letting go of the document indexed while keeping every array of the index
+	 * Nothing is read, so no document is reported as indexed
+	 * Only an index constructed with HTMLDocumentIndex() may be cleared
+	 */
+	void clear() {
+		source = "";
+		tagNames.clear();
+		size = 0;
+		rootCount = 0;
+		maxDepth = 0;
+	}
+
+	/**
+	 * Reads through the entire document, recording every element, then groups and links them
+	 * @param tokenizer	The tokenizer to read the document with
+	 */
+	private void indexDocument(HTMLTokenizer tokenizer) {
+		long start;
+		HTMLParseListener listener;
+
+		listener = HTMLStringFactory.getParseListener();
+		start = listener != null ? System.nanoTime() : 0;
+		build(tokenizer, 0, source.length(), true);
+		buildTagElements();
+		buildSiblings();
+		if(listener != null)
+			listener.documentIndexed(size, maxDepth, source.length(), System.nanoTime() - start);
+	}
+
+	/**
+	 * Indexes the content of a single element on its own, as if the content were the whole document
+	 * This only succeeds if every closing tag in the content closes an element opened in it, and
+	 * no token is cut off by the end of the content
+	 * Elements opened in the content and never closed in it, such as a <p> without a closing tag,
+	 * are left with no end; whether that is how the whole document reads them is up to the caller
+	 * @param source	The HTML document
+	 * @param tagNames	The table to number the types of element with
+	 * @param start		The index at which the content starts
+	 * @param end		The index at which the content ends
+	 * @param tokenizer	The tokenizer to read the content with
+	 * @return	The index of the content, without its elements grouped by type, or null if the
+	 * 			content cannot be tokenized on its own
+	 */
+	private static HTMLDocumentIndex indexContent(CharSequence source, HTMLNameTable tagNames, int start, int end,
+			HTMLTokenizer tokenizer) {
+		HTMLDocumentIndex content;
+
+		content = new HTMLDocumentIndex(source, tagNames, Math.max(16, (end - start) / 32));
+		return content.build(tokenizer, start, end, false) ? content : null;
+	}
+
+	/**
+	 * Reads through a range of the document once, recording every element
+	 * @param tokenizer		The tokenizer to read the document with
+	 * @param start			The index at which to start reading
+	 * @param end			The index at which to stop reading
+	 * @param endOfInput	Whether the range is the whole document; if not, reading stops as soon as
+	 * 						a closing tag or a token turns out to reach outside the range
+	 * @return	True if the range was read to the end; always true for the whole document
+	 */
+	private boolean build(HTMLTokenizer tokenizer, int start, int end, boolean endOfInput) {
+		int element, type, depth, i;
+		int[] openElements,		//openElements: the elements not yet closed, outermost first
+				lastOpen,		//lastOpen:		for each type, the last element of that type not yet closed
+				previousOpen;	//previousOpen:	for each element, the element of the same type that was
+								//				open before it
+
+		depth = 0;
+		if(this.openElements != null) {
+			openElements = this.openElements;
+			lastOpen = this.lastOpen;
+			previousOpen = this.previousOpen;
+			for(i = 0; i < lastOpen.length; i++)
+				lastOpen[i] = 0;
+		}
+		else {
+			openElements = new int[64];
+			lastOpen = new int[64];
+			previousOpen = new int[elementStart.length];
+		}
+
+		tokenizer.reset(source, start, end);
+		if(!endOfInput)
+			tokenizer.refill(source, start, end, false);
+		while(tokenizer.next() != HTMLTokenizer.END_OF_INPUT) {
+			if(tokenizer.getTokenType() == HTMLTokenizer.INCOMPLETE)
+				return false;		//a token runs on past the end of the range
+			else if(tokenizer.getTokenType() == HTMLTokenizer.START_TAG) {
+				if(size == elementStart.length) {
+					growElements(size * 2);
+					previousOpen = HTMLNameTable.grow(previousOpen, size * 2);
+				}
+
+				element = size++;
+				type = tagNames.intern(source, tokenizer.getNameStart(), tokenizer.getNameEnd());
+				elementStart[element] = tokenizer.getTokenStart();
+				contentStart[element] = tokenizer.getTokenEnd();
+				tag[element] = type;
+				parent[element] = depth > 0 ? openElements[depth - 1] : -1;
+				position[element] = depth > 0 ? ++childCount[parent[element]] : ++rootCount;
+				childCount[element] = 0;		//left over from the last document if rebuilt
+
+				if(tokenizer.isSelfClosing()) {
+					contentEnd[element] = contentStart[element];
+					elementEnd[element] = contentStart[element];
+				}
+				else {
+					contentEnd[element] = -1;
+					elementEnd[element] = -1;
+
+					if(type >= lastOpen.length)
+						lastOpen = growOpen(lastOpen, type + 1);
+					previousOpen[element] = lastOpen[type] - 1;
+					lastOpen[type] = element + 1;
+
+					if(depth == openElements.length)
+						openElements = HTMLNameTable.grow(openElements, depth * 2);
+					openElements[depth++] = element;
+					if(depth > maxDepth)
+						maxDepth = depth;
+				}
+			}
+			else if(tokenizer.getTokenType() == HTMLTokenizer.END_TAG) {
+				type = tagNames.find(source, tokenizer.getNameStart(), tokenizer.getNameEnd());
+				if(type < 0 || type >= lastOpen.length || lastOpen[type] == 0) {
+					if(!endOfInput)
+						return false;	//the tag may close an element outside the range
+					continue;		//a closing tag with no opening tag
+				}
+
+				element = lastOpen[type] - 1;
+				lastOpen[type] = previousOpen[element] + 1;
+				contentEnd[element] = tokenizer.getTokenStart();
+				elementEnd[element] = tokenizer.getTokenEnd();
+
+				//elements opened inside this one and never closed end here as far as
+				//nesting is concerned
+				for(i = depth - 1; i >= 0; i--)
+					if(openElements[i] == element) {
+						depth = i;
+						break;
+					}
+			}
+		}
+
+		if(this.openElements != null) {		//kept, as grown, for the next rebuild
+			this.openElements = openElements;
+			this.lastOpen = lastOpen;
+			this.previousOpen = previousOpen;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Groups the elements by type, keeping each group in document order
+	 * Each type is counted two places along in tagOffsets, so that after adding up the counts the
+	 * entry one place along is where the type starts; it is then moved along as the elements of
+	 * the type are placed, ending up where the next type starts, with no other array needed
+	 */
+	private void buildTagElements() {
+		int i, types;
+
+		types = tagNames.size();
+		if(tagOffsets == null || tagOffsets.length < types + 2)
+			tagOffsets = new int[types + 2];
+		else
+			for(i = 0; i < types + 2; i++)
+				tagOffsets[i] = 0;
+		if(tagElements == null || tagElements.length < size)
+			tagElements = new int[size];
+
+		for(i = 0; i < size; i++)
+			tagOffsets[tag[i] + 2]++;
+		for(i = 2; i < types + 2; i++)
+			tagOffsets[i] += tagOffsets[i - 1];
+		for(i = 0; i < size; i++)
+			tagElements[tagOffsets[tag[i] + 1]++] = i;
+	}
+
+	/**
+	 * Links each element to its first child and its next sibling, so the elements can be walked
+	 * as a tree without searching
+	 * The elements are visited last to first, so each element's children are all linked before
+	 * the element itself is linked to its parent
+	 */
+	private void buildSiblings() {
+		int i, firstRoot;
+
+		if(firstChild == null || firstChild.length < size) {
+			firstChild = new int[size];
+			nextSibling = new int[size];
+		}
+		for(i = 0; i < size; i++)
+			firstChild[i] = -1;
+
+		firstRoot = -1;
+		for(i = size - 1; i >= 0; i--) {
+			if(parent[i] >= 0) {
+				nextSibling[i] = firstChild[parent[i]];
+				firstChild[parent[i]] = i;
+			}
+			else {
+				nextSibling[i] = firstRoot;
+				firstRoot = i;
+			}
+		}
+	}
+
+	/**
+	 * Makes room for more elements
+	 * @param capacity	The number of elements to make room for
+	 */
+	private void growElements(int capacity) {
+		elementStart = HTMLNameTable.grow(elementStart, capacity);
+		contentStart = HTMLNameTable.grow(contentStart, capacity);
+		contentEnd = HTMLNameTable.grow(contentEnd, capacity);
+		elementEnd = HTMLNameTable.grow(elementEnd, capacity);
+		parent = HTMLNameTable.grow(parent, capacity);
+		tag = HTMLNameTable.grow(tag, capacity);
+		position = HTMLNameTable.grow(position, capacity);
+		childCount = HTMLNameTable.grow(childCount, capacity);
+	}
+
+	/**
+	 * Makes room for more types in the table of open elements
+	 */
+	private static int[] growOpen(int[] lastOpen, int types) {
+		return HTMLNameTable.grow(lastOpen, Math.max(types, lastOpen.length * 2));
+	}
+
+	/**
+	 * Finds the element whose opening tag starts at the specified index
+	 * @param start	The index of the opening tag in the document
+	 * @return	The number of the element, or -1 if no element starts there
+	 */
+	public int findElement(int start) {
+		int low, high, middle;
+
+		low = 0;
+		high = size - 1;
+		while(low <= high) {
+			middle = (low + high) >>> 1;
+			if(elementStart[middle] < start)
+				low = middle + 1;
+			else if(elementStart[middle] > start)
+				high = middle - 1;
+			else
+				return middle;
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the first element whose opening tag starts at or after the specified index
+	 * @param start	The index in the document
+	 * @return	The number of the element, or size() if no element starts there or later
+	 */
+	public int findFirstElement(int start) {
+		int low, high, middle;
+
+		low = 0;
+		high = size;
+		while(low < high) {
+			middle = (low + high) >>> 1;
+			if(elementStart[middle] < start)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the element of the specified type at the specified index in a range of the document
+	 * Only elements which are not nested inside another element of the same type in the range
+	 * are counted, the same way HTMLStringFactory.loadElementByTypeAndIndex() counts them
+	 * @param type	The type of element to search for
+	 * @param index	The number of the element to search for; 0 is the first element
+	 * @param start	The start of the range to search in
+	 * @param end	The end of the range to search in
+	 * @return	The number of the element, or -(count + 1) if the range holds only count
+	 * 			elements of the type
+	 */
+	public int findElement(String type, int index, int start, int end) {
+		int id, position, last, element, count;
+
+		id = tagNames.find(type);
+		if(id < 0)
+			return -1;
+
+		last = tagOffsets[id + 1];
+		position = firstAtOrAfter(tagOffsets[id], last, start);
+		count = 0;
+		while(position < last) {
+			element = tagElements[position];
+			if(elementStart[element] >= end)
+				break;
+			if(count == index)
+				return element;
+			count++;
+
+			if(elementEnd[element] < 0 || elementEnd[element] > end)
+				break;		//every later element of the type is nested inside this one
+			position = firstAtOrAfter(position + 1, last, elementEnd[element]);
+		}
+		return -(count + 1);
+	}
+
+	/**
+	 * Finds the first element in a group of tagElements whose opening tag starts at or
+	 * after the specified index
+	 * @return	The position of the element in tagElements, or to if there is none
+	 */
+	private int firstAtOrAfter(int from, int to, int start) {
+		int middle;
+
+		while(from < to) {
+			middle = (from + to) >>> 1;
+			if(elementStart[tagElements[middle]] < start)
+				from = middle + 1;
+			else
+				to = middle;
+		}
+		return from;
+	}
+
+	/**
+	 * Finds the innermost element whose content holds the whole of a range of the document, and
+	 * whose content reads the same on its own as it does in the document; see indexContent()
+	 * The content of such an element can be replaced without changing how anything outside the
+	 * element is read
+	 * Elements whose content closes an element opened outside of it are passed over using the
+	 * index alone; the content of the first one which does not is read again to make sure. The
+	 * content read again, added up over every element tried, may not exceed a quarter of the
+	 * document, after which indexing the edited document from scratch is cheaper
+	 * @param start		The start of the range
+	 * @param end		The end of the range
+	 * @param tokenizer	The tokenizer to read the content with
+	 * @return	The number of the element, or -1 if no element holds the range that way
+	 */
+	int findEnclosingElement(int start, int end, HTMLTokenizer tokenizer) {
+		int element, budget, length;
+		String name;
+
+		budget = Math.max(MIN_RESCAN, source.length() / 4);
+		element = findFirstElement(start + 1) - 1;
+		while(element >= 0) {
+			name = tagNames.getName(tag[element]);
+			if(contentStart[element] <= start && end <= contentEnd[element]
+					&& elementEnd[element] > contentEnd[element]		//not an element that closes itself
+					&& !name.equalsIgnoreCase("script") && !name.equalsIgnoreCase("style")) {
+				length = contentEnd[element] - contentStart[element];
+				if(length > budget)
+					return -1;		//every element further out holds even more content
+				budget -= length;
+				if(isBalanced(element) && readsAlone(element, tokenizer))
+					return element;
+			}
+			element = parent[element];
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks, using the index alone, that no element opened in the content of an element is closed
+	 * after the content
+	 * @param element	The element
+	 * @return	True if every element opened in the content is closed in it, or never closed
+	 */
+	private boolean isBalanced(int element) {
+		int i, after;
+
+		after = findFirstElement(contentEnd[element]);
+		for(i = element + 1; i < after; i++)
+			if(elementEnd[i] > contentEnd[element])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Reads the content of an element again on its own, checking that it finds the same elements,
+	 * closed by the same closing tags, as the index does
+	 * This catches what the index cannot show, such as a closing tag in the content which closes
+	 * an element opened before it
+	 * @param element	The element
+	 * @param tokenizer	The tokenizer to read the content with
+	 * @return	True if the content reads the same on its own
+	 */
+	private boolean readsAlone(int element, HTMLTokenizer tokenizer) {
+		int first, i;
+		HTMLDocumentIndex content;
+
+		content = indexContent(source, new HTMLNameTable(), contentStart[element], contentEnd[element], tokenizer);
+		first = element + 1;
+		if(content == null || content.size != findFirstElement(contentEnd[element]) - first)
+			return false;
+		for(i = 0; i < content.size; i++)
+			if(content.elementStart[i] != elementStart[first + i] || content.contentEnd[i] != contentEnd[first + i]
+					|| content.elementEnd[i] != elementEnd[first + i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Creates the index of a document made by replacing the content of one element, reusing
+	 * this index for everything outside the element
+	 * Only the new content is tokenized; the rest of the index is copied, with the elements after
+	 * the content renumbered and their locations moved by the change in length
+	 * @param source	The edited document
+	 * @param element	The element whose content changed, as found by findEnclosingElement()
+	 * @param delta		The change in the length of the document
+	 * @param tokenizer	The tokenizer to read the new content with
+	 * @return	The new index, or null if the new content cannot be tokenized on its own, in which
+	 * 			case the edited document must be indexed from scratch
+	 */
+	HTMLDocumentIndex edit(CharSequence source, int element, int delta, HTMLTokenizer tokenizer) {
+		int first, after, shift, oldEnd, i, j;
+		boolean[] leftOpen;
+		HTMLNameTable names;
+		HTMLDocumentIndex content, edited;
+
+		names = new HTMLNameTable();
+		for(i = 0; i < tagNames.size(); i++)
+			names.intern(tagNames.getName(i), 0, tagNames.getName(i).length());
+
+		oldEnd = contentEnd[element];
+		content = indexContent(source, names, contentStart[element], oldEnd + delta, tokenizer);
+		if(content == null)
+			return null;
+
+		first = element + 1;
+		after = findFirstElement(oldEnd);
+
+		//an element the new content leaves open could be closed by a closing tag after the element,
+		//unless the old content left an element of the same type open as well, which shows that no
+		//closing tag after the element reaches that far
+		leftOpen = new boolean[tagNames.size()];
+		for(i = first; i < after; i++)
+			if(elementEnd[i] < 0)
+				leftOpen[tag[i]] = true;
+		for(j = 0; j < content.size; j++)
+			if(content.elementEnd[j] < 0 && (content.tag[j] >= leftOpen.length || !leftOpen[content.tag[j]]))
+				return null;
+
+		shift = content.size - (after - first);
+		edited = new HTMLDocumentIndex(source, names, Math.max(16, size + shift));
+		edited.size = size + shift;
+		edited.rootCount = rootCount;
+		edited.maxDepth = Math.max(maxDepth, depthOf(element) + content.maxDepth);
+
+		//the element and everything before it keep their numbers
+		for(i = 0; i < first; i++) {
+			edited.elementStart[i] = elementStart[i];
+			edited.contentStart[i] = contentStart[i];
+			edited.contentEnd[i] = move(contentEnd[i], oldEnd, delta);
+			edited.elementEnd[i] = move(elementEnd[i], oldEnd, delta);
+			edited.parent[i] = parent[i];
+			edited.tag[i] = tag[i];
+			edited.position[i] = position[i];
+			edited.childCount[i] = childCount[i];
+		}
+		edited.childCount[element] = content.rootCount;
+
+		//the new content, already at its place in the edited document
+		for(j = 0; j < content.size; j++) {
+			i = first + j;
+			edited.elementStart[i] = content.elementStart[j];
+			edited.contentStart[i] = content.contentStart[j];
+			edited.contentEnd[i] = content.contentEnd[j];
+			edited.elementEnd[i] = content.elementEnd[j];
+			edited.parent[i] = content.parent[j] < 0 ? element : content.parent[j] + first;
+			edited.tag[i] = content.tag[j];
+			edited.position[i] = content.position[j];
+			edited.childCount[i] = content.childCount[j];
+		}
+
+		//everything after the content moves by the change in length
+		for(j = after; j < size; j++) {
+			i = j + shift;
+			edited.elementStart[i] = elementStart[j] + delta;
+			edited.contentStart[i] = contentStart[j] + delta;
+			edited.contentEnd[i] = move(contentEnd[j], oldEnd, delta);
+			edited.elementEnd[i] = move(elementEnd[j], oldEnd, delta);
+			edited.parent[i] = parent[j] < first ? parent[j] : parent[j] + shift;
+			edited.tag[i] = tag[j];
+			edited.position[i] = position[j];
+			edited.childCount[i] = childCount[j];
+		}
+
+		edited.buildTagElements();
+		edited.buildSiblings();
+		return edited;
+	}
+
+	/**
+	 * Counts the elements an element is nested in, along with the element itself
+	 * @param element	The element
+	 * @return	The depth of the element; 1 for an element not nested in any other
+	 */
+	private int depthOf(int element) {
+		int depth;
+
+		for(depth = 0; element >= 0; depth++)
+			element = parent[element];
+		return depth;
+	}
+
+	/**
+	 * Moves an index in the document if it comes at or after the end of an edit
+	 * @param index	The index, or -1 for none
+	 * @param end	The end of the edit, before the edit was made
+	 * @param delta	The change in the length of the document
+	 * @return	The index in the edited document
+	 */
+	private static int move(int index, int end, int delta) {
+		return index >= end ? index + delta : index;
+	}
+
+	/**
+	 * Retrieves the indexed document
+	 * @return	The document
+	 */
+	public CharSequence getSource() {
+		return source;
+	}
+
+	/**
+	 * Retrieves the table of element types found in the document
+	 * @return	The table of type names
+	 */
+	public HTMLNameTable getTagNames() {
+		return tagNames;
+	}
+
+	/**
+	 * Retrieves the number of elements in the document
+	 * @return	The number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return	The index at which the opening tag of the element starts
+	 */
+	public int getElementStart(int element) {
+		return elementStart[element];
+	}
+
+	/**
+	 * @return	The index just past the end of the opening tag of the element
+	 */
+	public int getContentStart(int element) {
+		return contentStart[element];
+	}
+
+	/**
+	 * @return	The index at which the closing tag of the element starts, or -1 if never closed
+	 */
+	public int getContentEnd(int element) {
+		return contentEnd[element];
+	}
+
+	/**
+	 * @return	The index just past the end of the element, or -1 if never closed
+	 */
+	public int getElementEnd(int element) {
+		return elementEnd[element];
+	}
+
+	/**
+	 * @return	The element the element is nested in, or -1 if it is not nested
+	 */
+	public int getParent(int element) {
+		return parent[element];
+	}
+
+	/**
+	 * @return	The position of the element among the elements nested directly in its parent;
+	 * 			1 for the first
+	 */
+	public int getPosition(int element) {
+		return position[element];
+	}
+
+	/**
+	 * @return	The number of elements nested directly in the element's parent, or in no element if
+	 * 			it is not nested
+	 */
+	public int getSiblingCount(int element) {
+		return parent[element] >= 0 ? childCount[parent[element]] : rootCount;
+	}
+
+	/**
+	 * Retrieves the deepest nesting of elements in the document
+	 * After an edit, the depth may be that of an element which has since been removed
+	 * @return	The number of elements nested in one another at the deepest point; 0 if the
+	 * 			document has no elements
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * @return	The first element nested directly in the element, or -1 if it has none
+	 */
+	public int getFirstChild(int element) {
+		return firstChild[element];
+	}
+
+	/**
+	 * @return	The next element nested directly in the element's parent, or in no element if it is
+	 * 			not nested; -1 if it is the last
+	 */
+	public int getNextSibling(int element) {
+		return nextSibling[element];
+	}
+
+	/**
+	 * @return	The type of the element, as a number from getTagNames()
+	 */
+	public int getTag(int element) {
+		return tag[element];
+	}
+
+	/**
+	 * Retrieves the number of elements of the specified type
+	 * @param type	The number of the type from getTagNames()
+	 * @return	The number of elements of the type
+	 */
+	public int getTagCount(int type) {
+		return tagOffsets[type + 1] - tagOffsets[type];
+	}
+
+	/**
+	 * Retrieves an element by its position among all elements of the same type
+	 * @param type		The number of the type from getTagNames()
+	 * @param ordinal	The position of the element among elements of the type; 0 is the first
+	 * @return	The number of the element
+	 */
+	public int getTagElement(int type, int ordinal) {
+		return tagElements[tagOffsets[type] + ordinal];
+	}
+
+	/**
+	 * Estimates the memory taken up by the index, not counting the document itself
+	 * @return	The approximate number of bytes used
+	 */
+	public long getMemoryUsage() {
+		return 4L * (elementStart.length * 8L + firstChild.length * 2L + tagOffsets.length + tagElements.length)
+				+ tagNames.getMemoryUsage();
+	}
+}
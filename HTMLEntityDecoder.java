@@ -0,0 +1,183 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLEntityDecoder replaces character references, such as &amp; or &#233;, with the
+ * characters they stand for, in a single pass over the text
+ *
+ * Every named entity of HTML 4.01 is decoded, along with &apos;, and both decimal and
+ * hexadecimal numeric references
+ * Entity names are looked up in an HTMLNameTable built once when the class is loaded, so no
+ * name is copied out of the text to be looked up
+ * A reference is only decoded if it ends with a semicolon; anything else is left as it is
+ *
+ * Text without any '&' is returned untouched, without being copied
+ */
+public class HTMLEntityDecoder {
+
+	private static final int MAX_REFERENCE_LENGTH = 32;		//The longest reference looked for, after '&'
+
+	private static final String ENTITIES =		//Every named entity and the character it stands for
+			"quot=34,amp=38,lt=60,gt=62,nbsp=160,iexcl=161,cent=162,pound=163,curren=164,yen=165,"
+			+ "brvbar=166,sect=167,uml=168,copy=169,ordf=170,laquo=171,not=172,shy=173,reg=174,"
+			+ "macr=175,deg=176,plusmn=177,sup2=178,sup3=179,acute=180,micro=181,para=182,middot=183,"
+			+ "cedil=184,sup1=185,ordm=186,raquo=187,frac14=188,frac12=189,frac34=190,iquest=191,"
+			+ "Agrave=192,Aacute=193,Acirc=194,Atilde=195,Auml=196,Aring=197,AElig=198,Ccedil=199,"
+			+ "Egrave=200,Eacute=201,Ecirc=202,Euml=203,Igrave=204,Iacute=205,Icirc=206,Iuml=207,"
+			+ "ETH=208,Ntilde=209,Ograve=210,Oacute=211,Ocirc=212,Otilde=213,Ouml=214,times=215,"
+			+ "Oslash=216,Ugrave=217,Uacute=218,Ucirc=219,Uuml=220,Yacute=221,THORN=222,szlig=223,"
+			+ "agrave=224,aacute=225,acirc=226,atilde=227,auml=228,aring=229,aelig=230,ccedil=231,"
+			+ "egrave=232,eacute=233,ecirc=234,euml=235,igrave=236,iacute=237,icirc=238,iuml=239,"
+			+ "eth=240,ntilde=241,ograve=242,oacute=243,ocirc=244,otilde=245,ouml=246,divide=247,"
+			+ "oslash=248,ugrave=249,uacute=250,ucirc=251,uuml=252,yacute=253,thorn=254,yuml=255,"
+			+ "OElig=338,oelig=339,Scaron=352,scaron=353,Yuml=376,fnof=402,circ=710,tilde=732,"
+			+ "Alpha=913,Beta=914,Gamma=915,Delta=916,Epsilon=917,Zeta=918,Eta=919,Theta=920,Iota=921,"
+			+ "Kappa=922,Lambda=923,Mu=924,Nu=925,Xi=926,Omicron=927,Pi=928,Rho=929,Sigma=931,Tau=932,"
+			+ "Upsilon=933,Phi=934,Chi=935,Psi=936,Omega=937,alpha=945,beta=946,gamma=947,delta=948,"
+			+ "epsilon=949,zeta=950,eta=951,theta=952,iota=953,kappa=954,lambda=955,mu=956,nu=957,"
+			+ "xi=958,omicron=959,pi=960,rho=961,sigmaf=962,sigma=963,tau=964,upsilon=965,phi=966,"
+			+ "chi=967,psi=968,omega=969,thetasym=977,upsih=978,piv=982,ensp=8194,emsp=8195,"
+			+ "thinsp=8201,zwnj=8204,zwj=8205,lrm=8206,rlm=8207,ndash=8211,mdash=8212,lsquo=8216,"
+			+ "rsquo=8217,sbquo=8218,ldquo=8220,rdquo=8221,bdquo=8222,dagger=8224,Dagger=8225,"
+			+ "bull=8226,hellip=8230,permil=8240,prime=8242,Prime=8243,lsaquo=8249,rsaquo=8250,"
+			+ "oline=8254,frasl=8260,euro=8364,image=8465,weierp=8472,real=8476,trade=8482,"
+			+ "alefsym=8501,larr=8592,uarr=8593,rarr=8594,darr=8595,harr=8596,crarr=8629,lArr=8656,"
+			+ "uArr=8657,rArr=8658,dArr=8659,hArr=8660,forall=8704,part=8706,exist=8707,empty=8709,"
+			+ "nabla=8711,isin=8712,notin=8713,ni=8715,prod=8719,sum=8721,minus=8722,lowast=8727,"
+			+ "radic=8730,prop=8733,infin=8734,ang=8736,and=8743,or=8744,cap=8745,cup=8746,int=8747,"
+			+ "there4=8756,sim=8764,cong=8773,asymp=8776,ne=8800,equiv=8801,le=8804,ge=8805,sub=8834,"
+			+ "sup=8835,nsub=8836,sube=8838,supe=8839,oplus=8853,otimes=8855,perp=8869,sdot=8901,"
+			+ "lceil=8968,rceil=8969,lfloor=8970,rfloor=8971,lang=9001,rang=9002,loz=9674,spades=9824,"
+			+ "clubs=9827,hearts=9829,diams=9830,apos=39";
+
+	private static final HTMLNameTable names;	//The numbers given to each entity name
+	private static final int[] characters;		//The character each entity stands for, by number
+
+	static {
+		int i, separator;
+		String[] entities;
+
+		entities = ENTITIES.split(",");
+		names = new HTMLNameTable();
+		characters = new int[entities.length];
+		for(i = 0; i < entities.length; i++) {
+			separator = entities[i].indexOf('=');
+			characters[names.intern(entities[i], 0, separator)] = Integer.parseInt(entities[i].substring(separator + 1));
+		}
+	}
+
+	/**
+	 * Prevents the decoder from being constructed; all of its methods are static
+	 */
+	private HTMLEntityDecoder() {
+	}
+
+	/**
+	 * Decodes every character reference in the text
+	 * @param text	The text to decode
+	 * @return	The decoded text, or the same String if it does not contain any '&'
+	 */
+	public static String decode(String text) {
+		return decode(text, false);
+	}
+
+	/**
+	 * Decodes every character reference in the text
+	 * HTMLElement.getContent() has always removed &nbsp; instead of decoding it to a
+	 * non-breaking space, and decodes in legacy mode to keep doing so
+	 * @param text		The text to decode
+	 * @param legacy	Whether to remove &nbsp; rather than decode it
+	 * @return	The decoded text, or the same String if it does not contain any '&'
+	 */
+	public static String decode(String text, boolean legacy) {
+		int i, next, length;
+		StringBuilder decoded;
+
+		i = text.indexOf('&');
+		if(i < 0)
+			return text;
+
+		length = text.length();
+		decoded = new StringBuilder(length);
+		decoded.append(text, 0, i);
+		while(i < length) {
+			i = decodeReference(text, i, legacy, decoded);
+			next = text.indexOf('&', i);
+			if(next < 0)
+				next = length;
+			decoded.append(text, i, next);
+			i = next;
+		}
+		return decoded.toString();
+	}
+
+	/**
+	 * Decodes the character reference starting at an '&'
+	 * If there is no valid reference there, the '&' is kept as it is
+	 * @param text		The text being decoded
+	 * @param start		The index of the '&'
+	 * @param legacy	Whether to remove &nbsp; rather than decode it
+	 * @param decoded	The decoded text to add the character to
+	 * @return	The index just past the end of the reference, or just past the '&' if there is none
+	 */
+	private static int decodeReference(String text, int start, boolean legacy, StringBuilder decoded) {
+		int end, limit, entity, character;
+
+		limit = Math.min(text.length(), start + 1 + MAX_REFERENCE_LENGTH);
+		end = start + 1;
+		while(end < limit && text.charAt(end) != ';' && text.charAt(end) != '&')
+			end++;
+		if(end == limit || text.charAt(end) != ';' || end == start + 1) {
+			decoded.append('&');
+			return start + 1;
+		}
+
+		if(text.charAt(start + 1) == '#')
+			character = parseNumber(text, start + 2, end);
+		else {
+			entity = names.find(text, start + 1, end);
+			character = entity < 0 ? -1 : characters[entity];
+		}
+
+		if(character < 0) {
+			decoded.append('&');
+			return start + 1;
+		}
+		if(!(legacy && character == 160))
+			decoded.appendCodePoint(character);
+		return end + 1;
+	}
+
+	/**
+	 * Reads the number of a numeric character reference, such as 233 or x00E9
+	 * Numbers outside of Unicode, surrogates and 0 stand for the replacement character
+	 * @param text	The text being decoded
+	 * @param start	The index just past the '#'
+	 * @param end	The index of the ';'
+	 * @return	The character, or -1 if the number is not valid
+	 */
+	private static int parseNumber(String text, int start, int end) {
+		int i, radix, digit;
+		long value;
+
+		radix = 10;
+		if(start < end && (text.charAt(start) == 'x' || text.charAt(start) == 'X')) {
+			radix = 16;
+			start++;
+		}
+		if(start == end)
+			return -1;
+
+		value = 0;
+		for(i = start; i < end; i++) {
+			digit = text.charAt(i) < 128 ? Character.digit(text.charAt(i), radix) : -1;
+			if(digit < 0)
+				return -1;
+			value = Math.min(value * radix + digit, Integer.MAX_VALUE);
+		}
+
+		if(value == 0 || value > Character.MAX_CODE_POINT
+				|| value >= Character.MIN_SURROGATE && value <= Character.MAX_SURROGATE)
+			return 0xFFFD;
+		return (int) value;
+	}
+}
@@ -0,0 +1,240 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLNameTable gives each distinct name, such as a tag name, a small number
+ * Names are looked up straight from a range of the document, so finding the number
+ * of a name that is already in the table does not create any Strings
+ *
+ * The table is not thread safe while names are being added; once filled, it can
+ * be read from any number of threads
+ */
+public class HTMLNameTable {
+
+	private static final int INITIAL_CAPACITY = 64;	//The initial number of names with room; always a power of 2
+
+	private char[] characters;		//The characters of every name, one after another
+	private int characterCount;		//The number of characters used in characters
+	private int[] nameOffsets;		//The index in characters at which each name starts
+	private int[] nameLengths;		//The length of each name
+	private int[] nameHashes;		//The hash of each name
+	private String[] names;			//Each name as a String; filled in when first requested
+	private int size;				//The number of names in the table
+
+	private int[] slots;			//Open addressing table of name numbers + 1; 0 marks an empty slot
+
+	/**
+	 * Constructs an empty instance of the HTMLNameTable
+	 */
+	public HTMLNameTable() {
+		characters = new char[INITIAL_CAPACITY * 8];
+		nameOffsets = new int[INITIAL_CAPACITY];
+		nameLengths = new int[INITIAL_CAPACITY];
+		nameHashes = new int[INITIAL_CAPACITY];
+		names = new String[INITIAL_CAPACITY];
+		slots = new int[INITIAL_CAPACITY * 2];
+	}
+
+	/**
+	 * Finds the number of a name, adding the name to the table if it is not there yet
+	 * @param source	The document containing the name
+	 * @param start		The index at which the name starts
+	 * @param end		The index just past the end of the name
+	 * @return	The number of the name
+	 */
+	public int intern(CharSequence source, int start, int end) {
+		int hash, slot, id;
+
+		hash = hash(source, start, end);
+		slot = findSlot(source, start, end, hash);
+		if(slots[slot] != 0)
+			return slots[slot] - 1;
+
+		id = add(source, start, end, hash);
+		slots[slot] = id + 1;
+		if(size * 2 > slots.length)
+			rehash();
+		return id;
+	}
+
+	/**
+	 * Finds the number of a name without adding it to the table
+	 * @param source	The document containing the name
+	 * @param start		The index at which the name starts
+	 * @param end		The index just past the end of the name
+	 * @return	The number of the name, or -1 if the name is not in the table
+	 */
+	public int find(CharSequence source, int start, int end) {
+		return slots[findSlot(source, start, end, hash(source, start, end))] - 1;
+	}
+
+	/**
+	 * Finds the number of a name without adding it to the table
+	 * @param name	The name to look for
+	 * @return	The number of the name, or -1 if the name is not in the table
+	 */
+	public int find(String name) {
+		return slots[findSlot(name, 0, name.length(), name.hashCode())] - 1;
+	}
+
+	/**
+	 * Retrieves a name from the table
+	 * @param id	The number of the name
+	 * @return	The name
+	 */
+	public String getName(int id) {
+		if(names[id] == null)
+			names[id] = new String(characters, nameOffsets[id], nameLengths[id]);
+		return names[id];
+	}
+
+	/**
+	 * Retrieves the number of names in the table
+	 * @return	The number of names
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes every name from the table, keeping the space already allocated
+	 */
+	public void clear() {
+		int i;
+
+		for(i = 0; i < slots.length; i++)
+			slots[i] = 0;
+		for(i = 0; i < size; i++)
+			names[i] = null;
+		size = 0;
+		characterCount = 0;
+	}
+
+	/**
+	 * Finds the slot holding a name, or the empty slot where the name belongs
+	 * @return	The index of the slot
+	 */
+	private int findSlot(CharSequence source, int start, int end, int hash) {
+		int slot, id, mask;
+
+		mask = slots.length - 1;
+		slot = mix(hash) & mask;
+		while(slots[slot] != 0) {
+			id = slots[slot] - 1;
+			if(nameHashes[id] == hash && matches(id, source, start, end))
+				break;
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Checks whether a name in the table is the same as a range of a document
+	 * @return	True if the characters match
+	 */
+	private boolean matches(int id, CharSequence source, int start, int end) {
+		int i, offset;
+
+		if(nameLengths[id] != end - start)
+			return false;
+		offset = nameOffsets[id];
+		for(i = start; i < end; i++)
+			if(characters[offset++] != source.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Copies a name into the table
+	 * @return	The number given to the name
+	 */
+	private int add(CharSequence source, int start, int end, int hash) {
+		int i, id;
+		char[] newCharacters;
+		String[] newNames;
+
+		if(size == nameOffsets.length) {
+			nameOffsets = grow(nameOffsets, size * 2);
+			nameLengths = grow(nameLengths, size * 2);
+			nameHashes = grow(nameHashes, size * 2);
+			newNames = new String[size * 2];
+			System.arraycopy(names, 0, newNames, 0, size);
+			names = newNames;
+		}
+		if(characterCount + end - start > characters.length) {
+			newCharacters = new char[Math.max(characters.length * 2, characterCount + end - start)];
+			System.arraycopy(characters, 0, newCharacters, 0, characterCount);
+			characters = newCharacters;
+		}
+
+		id = size++;
+		nameOffsets[id] = characterCount;
+		nameLengths[id] = end - start;
+		nameHashes[id] = hash;
+		for(i = start; i < end; i++)
+			characters[characterCount++] = source.charAt(i);
+		return id;
+	}
+
+	/**
+	 * Doubles the number of slots in the table
+	 */
+	private void rehash() {
+		int i, slot, mask;
+
+		slots = new int[slots.length * 2];
+		mask = slots.length - 1;
+		for(i = 0; i < size; i++) {
+			slot = mix(nameHashes[i]) & mask;
+			while(slots[slot] != 0)
+				slot = (slot + 1) & mask;
+			slots[slot] = i + 1;
+		}
+	}
+
+	/**
+	 * Computes the hash of a range of characters, the same way String.hashCode() does,
+	 * so a String and a range holding the same characters have the same hash
+	 * @param source	The document containing the range
+	 * @param start		The start of the range
+	 * @param end		The end of the range
+	 * @return	The hash of the characters in the range
+	 */
+	public static int hash(CharSequence source, int start, int end) {
+		int i, hash;
+
+		hash = 0;
+		for(i = start; i < end; i++)
+			hash = 31 * hash + source.charAt(i);
+		return hash;
+	}
+
+	/**
+	 * Spreads the bits of a hash so that similar names do not crowd the same slots
+	 */
+	static int mix(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Copies an array into a new array of the specified length
+	 * @param array		The array to copy
+	 * @param length	The length of the new array
+	 * @return	The new array
+	 */
+	static int[] grow(int[] array, int length) {
+		int[] newArray;
+
+		newArray = new int[length];
+		System.arraycopy(array, 0, newArray, 0, Math.min(array.length, length));
+		return newArray;
+	}
+
+	/**
+	 * Estimates the memory taken up by the table
+	 * @return	The approximate number of bytes used
+	 */
+	public long getMemoryUsage() {
+		return 2L * characters.length + 4L * (nameOffsets.length * 4L + slots.length);
+	}
+}
@@ -0,0 +1,129 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLParseContext parses page after page into the same space, so a worker which handles one page
+ * at a time stops allocating for its indexes once the context has grown to fit the largest page
+ *
+ * HTMLParseContext context = new HTMLParseContext();
+ * for(String page : pages) {
+ * 		HTMLDocument document = context.parse(page, true);
+ * 		prices.add(document.loadElementById("price").getElement().getContent());
+ * }
+ *
+ * The context owns everything which would otherwise be created again for each page: the
+ * tokenizer, the table of tag names, the arrays of the document index and the attribute index,
+ * and the space used while building them. None of them are replaced between pages; they are
+ * cleared and filled in again, and an array is only ever replaced by a larger one
+ *
+ * A document parsed with a context can only be queried until the context parses another page or
+ * is reset; querying it after that throws HTMLParseException. HTMLElements and Strings taken from
+ * the document stay valid, since they only refer to the page itself
+ * A context should only be used by one thread at a time; give each worker its own
+ */
+public class HTMLParseContext {
+
+	private final HTMLTokenizer tokenizer;				//Reads every page, and the opening tags of its elements
+	private final HTMLDocumentIndex documentIndex;		//Rebuilt over each page which is indexed
+	private HTMLAttributeIndex attributeIndex;			//Rebuilt over each page looked up by attribute;
+														//null until the first such page
+	private boolean attributesIndexed;		//Whether attributeIndex holds the current page
+	private int generation;					//The number of times the context has been reset; a
+											//document only uses the indexes of its own generation
+
+	/**
+	 * Constructs a context with room for a small page, which grows as larger pages are parsed
+	 */
+	public HTMLParseContext() {
+		tokenizer = new HTMLTokenizer();
+		documentIndex = new HTMLDocumentIndex();
+		attributeIndex = null;
+		attributesIndexed = false;
+		generation = 0;
+	}
+
+	/**
+	 * Parses a page into the context, in place of the page parsed before it
+	 * The document returned replaces the last one parsed, which can no longer be queried
+	 * @param HTML		The HTML code of the page
+	 * @param indexed	Whether to index the page up front; a page which is not indexed is still
+	 * 					indexed in the context the first time it is looked up by id or name
+	 * @return	The document, valid until the context parses another page or is reset
+	 */
+	public HTMLDocument parse(CharSequence HTML, boolean indexed) {
+		reset();
+		return new HTMLDocument(this, HTML, indexed);
+	}
+
+	/**
+	 * Lets go of the page parsed last, keeping all of the space the context has grown to
+	 * The document of the page can no longer be queried afterwards
+	 */
+	public void reset() {
+		generation++;
+		documentIndex.clear();
+		if(attributesIndexed) {
+			attributeIndex.rebuild(documentIndex, tokenizer);
+			attributesIndexed = false;
+		}
+	}
+
+	/**
+	 * Estimates the memory taken up by the context, which is the memory needed by the largest page
+	 * parsed with it so far
+	 * @return	The approximate number of bytes used
+	 */
+	public long getMemoryUsage() {
+		return documentIndex.getMemoryUsage() + (attributeIndex != null ? attributeIndex.getMemoryUsage() : 0);
+	}
+
+	/**
+	 * Indexes the elements of the current page
+	 * @param HTML	The HTML code of the page
+	 * @return	The index of the page, held by the context
+	 */
+	HTMLDocumentIndex indexDocument(CharSequence HTML) {
+		documentIndex.rebuild(HTML, tokenizer);
+		return documentIndex;
+	}
+
+	/**
+	 * Indexes the id and name attributes of the current page
+	 * @param documentIndex	The index of the page, returned by indexDocument()
+	 * @return	The attribute index of the page, held by the context
+	 */
+	HTMLAttributeIndex indexAttributes(HTMLDocumentIndex documentIndex) {
+		if(attributeIndex == null)
+			attributeIndex = new HTMLAttributeIndex(documentIndex);
+		else
+			attributeIndex.rebuild(documentIndex, tokenizer);
+		attributesIndexed = true;
+		return attributeIndex;
+	}
+
+	/**
+	 * Retrieves the generation of the current page
+	 * @return	The number of times the context has been reset
+	 */
+	int getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Checks that a document still owns the indexes of the context
+	 * @param generation	The generation the document was parsed in
+	 * @throws HTMLParseException	Thrown if the context has parsed another page or been reset
+	 * 								since the document was parsed
+	 */
+	void check(int generation) throws HTMLParseException {
+		if(generation != this.generation)
+			throw new HTMLParseException("parse(): The document was replaced by a later page parsed "
+					+ "with the same HTMLParseContext");
+	}
+
+	/**
+	 * @return	The tokenizer of the context
+	 */
+	HTMLTokenizer getTokenizer() {
+		return tokenizer;
+	}
+}
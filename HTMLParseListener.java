@@ -0,0 +1,71 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLParseListener is told where the parser spends its time, so that slow or unusual pages can be
+ * found in production
+ * Every method does nothing by default, so a listener only overrides the events it needs
+ *
+ * A listener is installed for the whole library with HTMLStringFactory.setParseListener(); while
+ * none is installed, the only cost left in the parser is checking for one
+ * Events are reported from whichever thread did the work, so a listener must be thread safe
+ * HTMLParseMetrics is a listener which simply adds everything up
+ */
+public interface HTMLParseListener {
+
+	/**
+	 * Called when a public method of HTMLStringFactory returns or throws
+	 * @param method	The name of the method, such as "loadElementById"
+	 * @param nanos		The time the method took, in nanoseconds
+	 */
+	default void methodCompleted(String method, long nanos) {
+	}
+
+	/**
+	 * Called after a range of a document has been read through while searching it
+	 * For a mapped file each character is one byte
+	 * @param characters	The number of characters read
+	 */
+	default void documentScanned(long characters) {
+	}
+
+	/**
+	 * Called after a document has been indexed
+	 * @param elements		The number of elements found
+	 * @param maxDepth		The deepest nesting of elements found
+	 * @param characters	The length of the document
+	 * @param nanos			The time indexing took, in nanoseconds
+	 */
+	default void documentIndexed(int elements, int maxDepth, long characters, long nanos) {
+	}
+
+	/**
+	 * Called when a search is answered from the indexes of a document instead of by reading
+	 * through the document
+	 */
+	default void indexHit() {
+	}
+
+	/**
+	 * Called when an HTMLDocumentCache is asked for a document
+	 * @param hit	Whether the document was already in the cache
+	 */
+	default void cacheLookup(boolean hit) {
+	}
+
+	/**
+	 * Called when an HTMLElement is constructed
+	 * An element only records where it is until something about it is requested, so elements
+	 * created but never parsed cost close to nothing
+	 */
+	default void elementCreated() {
+	}
+
+	/**
+	 * Called when an HTMLElement parses part of itself for the first time: its attributes, its
+	 * content or its children
+	 * The difference between the elements created and the parts parsed shows how much work was
+	 * avoided by parsing elements only as they are requested
+	 */
+	default void elementParsed() {
+	}
+}
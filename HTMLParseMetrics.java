@@ -0,0 +1,218 @@
+package big_boiz.antplanner;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTMLParseMetrics adds up everything reported to an HTMLParseListener
+ * Counters are striped across threads, so recording an event does not make threads wait for
+ * each other
+ *
+ * HTMLParseMetrics metrics = new HTMLParseMetrics();
+ * HTMLStringFactory.setParseListener(metrics);
+ * ...
+ * System.out.println(metrics);
+ */
+public class HTMLParseMetrics implements HTMLParseListener {
+
+	private final LongAdder charactersScanned = new LongAdder();	//The characters read while searching
+	private final LongAdder documentsIndexed = new LongAdder();		//The documents indexed
+	private final LongAdder charactersIndexed = new LongAdder();	//The characters of the documents indexed
+	private final LongAdder indexNanos = new LongAdder();			//The time spent indexing
+	private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);	//The deepest nesting
+																				//in any document
+	private final LongAdder indexHits = new LongAdder();			//The searches answered by an index
+	private final LongAdder cacheHits = new LongAdder();			//The documents found in a cache
+	private final LongAdder cacheMisses = new LongAdder();			//The documents not found in a cache
+	private final LongAdder elementsCreated = new LongAdder();		//The HTMLElements constructed
+	private final LongAdder elementsParsed = new LongAdder();		//The parts of HTMLElements parsed
+
+	private final ConcurrentHashMap<String, LongAdder[]> methods = new ConcurrentHashMap<>();	//The
+					//number of calls and the total time of each method, by the name of the method
+
+	@Override
+	public void methodCompleted(String method, long nanos) {
+		LongAdder[] totals;
+
+		totals = methods.get(method);
+		if(totals == null)
+			totals = methods.computeIfAbsent(method, name -> new LongAdder[] {new LongAdder(), new LongAdder()});
+		totals[0].increment();
+		totals[1].add(nanos);
+	}
+
+	@Override
+	public void documentScanned(long characters) {
+		charactersScanned.add(characters);
+	}
+
+	@Override
+	public void documentIndexed(int elements, int maxDepth, long characters, long nanos) {
+		documentsIndexed.increment();
+		charactersIndexed.add(characters);
+		indexNanos.add(nanos);
+		this.maxDepth.accumulate(maxDepth);
+	}
+
+	@Override
+	public void indexHit() {
+		indexHits.increment();
+	}
+
+	@Override
+	public void cacheLookup(boolean hit) {
+		if(hit)
+			cacheHits.increment();
+		else
+			cacheMisses.increment();
+	}
+
+	@Override
+	public void elementCreated() {
+		elementsCreated.increment();
+	}
+
+	@Override
+	public void elementParsed() {
+		elementsParsed.increment();
+	}
+
+	/**
+	 * @return	The number of characters read while searching documents, not counting indexing
+	 */
+	public long getCharactersScanned() {
+		return charactersScanned.sum();
+	}
+
+	/**
+	 * @return	The number of documents indexed
+	 */
+	public long getDocumentsIndexed() {
+		return documentsIndexed.sum();
+	}
+
+	/**
+	 * @return	The total length of the documents indexed
+	 */
+	public long getCharactersIndexed() {
+		return charactersIndexed.sum();
+	}
+
+	/**
+	 * @return	The total time spent indexing documents, in nanoseconds
+	 */
+	public long getIndexNanos() {
+		return indexNanos.sum();
+	}
+
+	/**
+	 * @return	The deepest nesting of elements in any document indexed
+	 */
+	public long getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	/**
+	 * @return	The number of searches answered from an index
+	 */
+	public long getIndexHits() {
+		return indexHits.sum();
+	}
+
+	/**
+	 * @return	The number of documents found in an HTMLDocumentCache
+	 */
+	public long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	/**
+	 * @return	The number of documents which an HTMLDocumentCache had to parse
+	 */
+	public long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	/**
+	 * @return	The number of HTMLElements constructed
+	 */
+	public long getElementsCreated() {
+		return elementsCreated.sum();
+	}
+
+	/**
+	 * @return	The number of times an HTMLElement parsed its attributes, content or children
+	 */
+	public long getElementsParsed() {
+		return elementsParsed.sum();
+	}
+
+	/**
+	 * Retrieves the number of calls to a method
+	 * @param method	The name of the method, such as "loadElementById"
+	 * @return	The number of calls
+	 */
+	public long getCallCount(String method) {
+		LongAdder[] totals;
+
+		totals = methods.get(method);
+		return totals == null ? 0 : totals[0].sum();
+	}
+
+	/**
+	 * Retrieves the total time spent in a method
+	 * @param method	The name of the method, such as "loadElementById"
+	 * @return	The total time, in nanoseconds
+	 */
+	public long getCallNanos(String method) {
+		LongAdder[] totals;
+
+		totals = methods.get(method);
+		return totals == null ? 0 : totals[1].sum();
+	}
+
+	/**
+	 * Sets every counter back to zero
+	 * Events recorded while resetting may or may not be kept
+	 */
+	public void reset() {
+		charactersScanned.reset();
+		documentsIndexed.reset();
+		charactersIndexed.reset();
+		indexNanos.reset();
+		maxDepth.reset();
+		indexHits.reset();
+		cacheHits.reset();
+		cacheMisses.reset();
+		elementsCreated.reset();
+		elementsParsed.reset();
+		methods.clear();
+	}
+
+	/**
+	 * Lists every counter, along with the calls and average time of each method
+	 * @return	The counters, one per line
+	 */
+	@Override
+	public String toString() {
+		StringBuilder report;
+
+		report = new StringBuilder();
+		report.append("characters scanned: ").append(getCharactersScanned()).append('\n');
+		report.append("documents indexed: ").append(getDocumentsIndexed())
+				.append(" (").append(getCharactersIndexed()).append(" characters, ")
+				.append(getIndexNanos() / 1000000).append(" ms, max depth ").append(getMaxDepth()).append(")\n");
+		report.append("index hits: ").append(getIndexHits()).append('\n');
+		report.append("cache hits: ").append(getCacheHits()).append(", misses: ").append(getCacheMisses()).append('\n');
+		report.append("elements created: ").append(getElementsCreated())
+				.append(", parsed: ").append(getElementsParsed()).append('\n');
+		for(Map.Entry<String, LongAdder[]> method : new TreeMap<>(methods).entrySet())
+			report.append(method.getKey()).append(": ").append(method.getValue()[0].sum()).append(" calls, ")
+					.append(method.getValue()[1].sum() / Math.max(1, method.getValue()[0].sum()) / 1000)
+					.append(" us average\n");
+		return report.toString();
+	}
+}
@@ -0,0 +1,171 @@
+package big_boiz.antplanner;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.CharBuffer;
+
+/**
+ * HTMLScanner finds the next structural character of a document, such as '<' or '>', without
+ * stepping through the characters in between one at a time
+ * Most of a text heavy page is not markup, so the tokenizer spends most of its time looking for
+ * the next '<'; these searches are handed to whatever bulk search the document supports:
+ *
+ * String			String.indexOf(), which the JVM compiles to vector instructions; on Java 21 or
+ * 					later it is told where the range ends, and before that any match past the
+ * 					end of the range is thrown away
+ * HTMLByteSequence	a search through eight bytes at a time
+ * CharBuffer		a loop over the array behind the buffer, when it has one
+ *
+ * Any other CharSequence is searched one character at a time with charAt(), which always gives
+ * the same result as the bulk searches
+ */
+final class HTMLScanner {
+
+	private static final int BULK_LENGTH = 16;	//The shortest range searched with String.indexOf();
+												//shorter ranges are quicker to step through
+
+	private static final MethodHandle INDEX_OF_CHAR = findIndexOf(int.class);		//String.indexOf(int, int, int)
+	private static final MethodHandle INDEX_OF_STRING = findIndexOf(String.class);	//and indexOf(String, int, int),
+												//which stop at the end of a range; null before Java 21
+
+	/**
+	 * Prevents the scanner from being constructed; all of its methods are static
+	 */
+	private HTMLScanner() {
+	}
+
+	/**
+	 * Finds the next occurrence of a character in a range of a document
+	 * Before Java 21, String.indexOf() cannot be told where to stop, so for a String it may read
+	 * past the end of the range up to the next occurrence of the character; since the characters
+	 * searched for are markup, the next one is rarely far away
+	 * @param source	The document to search in
+	 * @param c			The character to look for
+	 * @param from		The index at which to start looking
+	 * @param to		The index at which to stop looking
+	 * @return	The index of the character, or to if it does not occur in the range
+	 */
+	static int indexOf(CharSequence source, char c, int from, int to) {
+		int i, offset;
+		char[] array;
+		CharBuffer buffer;
+
+		if(to - from >= BULK_LENGTH) {
+			if(source instanceof String) {
+				i = indexOf((String) source, c, from, to);
+				return i < 0 || i > to ? to : i;
+			}
+			if(source instanceof HTMLByteSequence)
+				return ((HTMLByteSequence) source).indexOf(c, from, to);
+			if(source instanceof CharBuffer && ((CharBuffer) source).hasArray()) {
+				buffer = (CharBuffer) source;
+				array = buffer.array();
+				offset = buffer.arrayOffset() + buffer.position();
+				for(i = from + offset; i < to + offset; i++)
+					if(array[i] == c)
+						return i - offset;
+				return to;
+			}
+		}
+		return scalarIndexOf(source, c, from, to);
+	}
+
+	/**
+	 * Finds the next occurrence of a String which lies entirely inside a range of a document
+	 * Like indexOf() for a character, this may read past the end of the range before Java 21
+	 * @param source	The document to search in
+	 * @param search	The String to look for
+	 * @param from		The index at which to start looking
+	 * @param to		The index at which to stop looking
+	 * @return	The index at which the String starts, or to if it does not occur in the range
+	 */
+	static int indexOf(CharSequence source, String search, int from, int to) {
+		int i;
+
+		if(source instanceof String && to - from >= BULK_LENGTH) {
+			i = indexOf((String) source, search, from, to);
+			return i < 0 || i + search.length() > to ? to : i;
+		}
+
+		i = from;
+		while((i = indexOf(source, search.charAt(0), i, to)) < to) {
+			if(HTMLTokenizer.startsWith(source, i, to, search))
+				return i;
+			i++;
+		}
+		return to;
+	}
+
+	/**
+	 * Searches a range of a String for a character with String.indexOf(), stopping at the end of
+	 * the range where the JVM allows it
+	 * @param source	The String to search in
+	 * @param c			The character to look for
+	 * @param from		The index at which to start looking
+	 * @param to		The index at which to stop looking
+	 * @return	The index of the character, or -1 or an index past to if it does not occur in the range
+	 */
+	private static int indexOf(String source, char c, int from, int to) {
+		if(INDEX_OF_CHAR == null)
+			return source.indexOf(c, from);
+		try {
+			return (int) INDEX_OF_CHAR.invokeExact(source, (int) c, from, to);
+		}
+		catch(Throwable e) {		//the range is always inside the String
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Searches a range of a String for a String with String.indexOf(), stopping at the end of the
+	 * range where the JVM allows it
+	 * @param source	The String to search in
+	 * @param search	The String to look for
+	 * @param from		The index at which to start looking
+	 * @param to		The index at which to stop looking
+	 * @return	The index at which the String starts, or -1 or an index past to - search.length()
+	 * 			if it does not occur in the range
+	 */
+	private static int indexOf(String source, String search, int from, int to) {
+		if(INDEX_OF_STRING == null)
+			return source.indexOf(search, from);
+		try {
+			return (int) INDEX_OF_STRING.invokeExact(source, search, from, to);
+		}
+		catch(Throwable e) {		//the range is always inside the String
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Looks up the String.indexOf() which searches a range, added in Java 21
+	 * The method is looked up at run time, so the library still runs on Java 8
+	 * @param searched	The type searched for: int for a character, or String
+	 * @return	The method, or null if the JVM does not have it
+	 */
+	private static MethodHandle findIndexOf(Class<?> searched) {
+		try {
+			return MethodHandles.publicLookup().findVirtual(String.class, "indexOf",
+					MethodType.methodType(int.class, searched, int.class, int.class));
+		}
+		catch(ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the next occurrence of a character by reading one character at a time
+	 * This is the search every bulk search must agree with
+	 * @param source	The document to search in
+	 * @param c			The character to look for
+	 * @param from		The index at which to start looking
+	 * @param to		The index at which to stop looking
+	 * @return	The index of the character, or to if it does not occur in the range
+	 */
+	static int scalarIndexOf(CharSequence source, char c, int from, int to) {
+		while(from < to && source.charAt(from) != c)
+			from++;
+		return from;
+	}
+}
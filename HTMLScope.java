@@ -0,0 +1,543 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * HTMLScope is a loaded element of an HTMLDocument, along with the part of the document which
+ * further searches look in
+ * The scope of the document itself has no element loaded, and searches the entire document
+ *
+ * An HTMLScope never changes: each load method returns a new scope for the element it finds,
+ * searching only inside this scope, so scopes can be kept, shared between threads, and searched
+ * from any number of times
+ */
+public class HTMLScope {
+
+	private final HTMLDocument document;		//The document the scope is in
+	private final CharSequence HTML;			//The HTML code of the document
+
+	private final int queryStart, queryEnd;		//The part of the document searched by the load
+												//methods
+	private final String elementType;			//The title of the loaded element; null if no
+												//element is loaded
+	private final int elementStartIndex, elementEndIndex;	//The range of the entire loaded element
+	private final int contentStartIndex, contentEndIndex;	//The range of the content in between the
+															//tags of the loaded element
+
+	/**
+	 * Constructs the scope of an entire document, with no element loaded
+	 * @param document	The document
+	 */
+	HTMLScope(HTMLDocument document) {
+		this(document, 0, document.getSource().length(), null, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Constructs the scope of an element
+	 * @param document		The document the element is in
+	 * @param queryStart	The start of the part of the document searched from this scope
+	 * @param queryEnd		The end of the part of the document searched from this scope
+	 * @param elementType	The title of the element
+	 * @param elementStart	The index at which the element starts
+	 * @param elementEnd	The index just past the end of the element
+	 * @param contentStart	The index at which the content of the element starts
+	 * @param contentEnd	The index at which the content of the element ends
+	 */
+	HTMLScope(HTMLDocument document, int queryStart, int queryEnd, String elementType,
+			int elementStart, int elementEnd, int contentStart, int contentEnd) {
+		this.document = document;
+		HTML = document.getSource();
+		this.queryStart = queryStart;
+		this.queryEnd = queryEnd;
+		this.elementType = elementType;
+		elementStartIndex = elementStart;
+		elementEndIndex = elementEnd;
+		contentStartIndex = contentStart;
+		contentEndIndex = contentEnd;
+	}
+
+	/**
+	 * Finds the end of an element, along with the range of its content, and creates its scope
+	 * @param startIndex	The starting index of the element
+	 * @param type			The title of the element
+	 * @return	The scope of the element, which searches the whole element
+	 * @throws HTMLParseException	Thrown if the element is never closed in this scope
+	 */
+	private HTMLScope loadEndIndex(int startIndex, String type) throws HTMLParseException {
+		int element, contentStart, contentEnd, endIndex;
+		HTMLTokenizer tokenizer;
+		HTMLDocumentIndex documentIndex;
+		HTMLParseListener listener;
+
+		listener = HTMLStringFactory.getParseListener();
+		documentIndex = document.getDocumentIndex();
+		if(documentIndex != null && (element = documentIndex.findElement(startIndex)) >= 0) {
+			contentStart = documentIndex.getContentStart(element);
+			contentEnd = documentIndex.getContentEnd(element);
+			endIndex = documentIndex.getElementEnd(element);
+			if(listener != null)
+				listener.indexHit();
+		}
+		else {
+			tokenizer = new HTMLTokenizer();
+			tokenizer.reset(HTML, startIndex, queryEnd);
+			tokenizer.next();
+			contentStart = tokenizer.getTokenEnd();
+
+			if(tokenizer.isSelfClosing()) {
+				contentEnd = contentStart;
+				endIndex = contentStart;
+			}
+			else if(tokenizer.skipToMatchingEndTag()) {
+				contentEnd = tokenizer.getTokenStart();
+				endIndex = tokenizer.getTokenEnd();
+			}
+			else {
+				contentEnd = -1;
+				endIndex = -1;
+			}
+			if(listener != null)
+				listener.documentScanned(tokenizer.getTokenEnd() - startIndex);
+		}
+
+		if(endIndex < 0 || endIndex > queryEnd)
+			throw new HTMLParseException("loadEndIndex(): No closing tag found for element of type \"" + type + "\"");
+
+		return new HTMLScope(document, startIndex, endIndex, type, startIndex, endIndex, contentStart, contentEnd);
+	}
+
+	/**
+	 * Searches this scope for the element with the specified ID
+	 * @param id	The ID attribute of the element
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown when an element of the specified ID is not found
+	 *								in this scope
+	 */
+	public HTMLScope loadElementById(String id) throws HTMLParseException {
+		HTMLScope scope;
+
+		scope = loadElementByAttributeValue("name", id);
+		if(scope == null)
+			throw new HTMLParseException("loadElementById(): No match found for: " + id);
+		return scope;
+	}
+
+	/**
+	 * Searches this scope for the first element with the specified value of the specified attribute
+	 * @param attributeName	The name of the attribute, such as "id" or "class"
+	 * @param value			The value of the attribute
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown when no element with the value is found in this scope
+	 */
+	public HTMLScope loadElementByAttribute(String attributeName, String value) throws HTMLParseException {
+		HTMLScope scope;
+
+		scope = loadElementByAttributeValue(attributeName, value);
+		if(scope == null)
+			throw new HTMLParseException("loadElementByAttribute(): No match found for: "
+					+ attributeName + "=\"" + value + "\"");
+		return scope;
+	}
+
+	/**
+	 * Finds the first element in this scope with the specified attribute value
+	 * Indexed attributes are looked up in the attribute index of the document; any other
+	 * attribute is searched for by scanning this scope
+	 * @param attributeName	The name of the attribute
+	 * @param value			The value of the attribute
+	 * @return	The scope of the element, or null if none was found
+	 * @throws HTMLParseException	Thrown if the element found is never closed
+	 */
+	private HTMLScope loadElementByAttributeValue(String attributeName, String value) throws HTMLParseException {
+		int startIndex, element;
+		String type;
+		HTMLTokenizer tokenizer;
+		HTMLAttributeIndex attributeIndex;
+		HTMLDocumentIndex documentIndex;
+		HTMLParseListener listener;
+
+		startIndex = -1;
+		type = null;
+		listener = HTMLStringFactory.getParseListener();
+
+		if(document.isIndexedAttribute(attributeName)) {
+			attributeIndex = document.getAttributeIndex();
+			documentIndex = document.getDocumentIndex();
+			element = attributeIndex.findElement(attributeName, value, queryStart, queryEnd);
+			if(element >= 0) {
+				startIndex = documentIndex.getElementStart(element);
+				type = documentIndex.getTagNames().getName(documentIndex.getTag(element));
+			}
+			if(listener != null)
+				listener.indexHit();
+		}
+		else {
+			tokenizer = new HTMLTokenizer();
+			tokenizer.reset(HTML, queryStart, queryEnd);
+			while(startIndex < 0 && tokenizer.next() != HTMLTokenizer.END_OF_INPUT) {
+				if(tokenizer.getTokenType() == HTMLTokenizer.START_TAG) {
+					while(tokenizer.nextAttribute())
+						if(tokenizer.attributeNameEquals(attributeName) && tokenizer.attributeValueEquals(value)) {
+							startIndex = tokenizer.getTokenStart();
+							type = tokenizer.getName();
+							break;
+						}
+				}
+			}
+			if(listener != null)
+				listener.documentScanned(tokenizer.getTokenEnd() - queryStart);
+		}
+
+		if(startIndex < 0)
+			return null;
+
+		return loadEndIndex(startIndex, type);
+	}
+
+	/**
+	 * Searches this scope for the element of the specified type at the specified index
+	 * Index of 0 indicates the first element of the type in this scope
+	 * When the loaded element is itself of the specified type, only its content is searched
+	 * @param type	The type of element for which to search
+	 * @param index	The number of the element to search for
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown if no element is found at the specified index
+	 */
+	public HTMLScope loadElementByTypeAndIndex(String type, int index) throws HTMLParseException {
+		return narrowTo(type).findByTypeAndIndex(type, index);
+	}
+
+	/**
+	 * Narrows the part of the document searched to the content of the loaded element, if the
+	 * element is of the specified type
+	 * @param type	The type of element about to be searched for
+	 * @return	The narrowed scope, or this scope if the loaded element is of a different type
+	 */
+	HTMLScope narrowTo(String type) {
+		if(elementType == null || !elementType.equals(type))
+			return this;
+		return new HTMLScope(document, contentStartIndex, contentEndIndex, elementType,
+				elementStartIndex, elementEndIndex, contentStartIndex, contentEndIndex);
+	}
+
+	/**
+	 * Searches the part of the document searched by this scope for the element of the specified
+	 * type at the specified index
+	 * @param type	The type of element for which to search
+	 * @param index	The number of the element to search for
+	 * @return	The scope of the element
+	 * @throws HTMLParseException	Thrown if no element is found at the specified index
+	 */
+	private HTMLScope findByTypeAndIndex(String type, int index) throws HTMLParseException {
+		int record, numElements, startIndex, element;
+		String errMessage;
+		HTMLTokenizer tokenizer;
+		HTMLDocumentIndex documentIndex;
+		HTMLParseListener listener;
+
+		record = 0;
+		numElements = -1;
+		startIndex = -1;
+		listener = HTMLStringFactory.getParseListener();
+
+		documentIndex = document.getDocumentIndex();
+		if(documentIndex != null) {
+			element = documentIndex.findElement(type, index, queryStart, queryEnd);
+			if(element >= 0) {
+				numElements = index;
+				startIndex = documentIndex.getElementStart(element);
+			}
+			else
+				numElements = -element - 2;
+			if(listener != null)
+				listener.indexHit();
+		}
+		else {
+			tokenizer = new HTMLTokenizer();
+			tokenizer.reset(HTML, queryStart, queryEnd);
+			while(numElements < index && tokenizer.next() != HTMLTokenizer.END_OF_INPUT) {
+				if(tokenizer.getTokenType() == HTMLTokenizer.START_TAG && tokenizer.nameEquals(type)) {
+					if(record == 0) {
+						numElements++;
+						startIndex = tokenizer.getTokenStart();
+					}
+					if(!tokenizer.isSelfClosing())
+						record++;
+				}
+				else if(tokenizer.getTokenType() == HTMLTokenizer.END_TAG && tokenizer.nameEquals(type)
+						&& record > 0)
+					record--;
+			}
+			if(listener != null)
+				listener.documentScanned(tokenizer.getTokenEnd() - queryStart);
+		}
+
+		if(numElements != index) {
+			errMessage = "loadElementByTypeAndIndex(): Index out of bounds";
+			errMessage += "\nElement of type \"" + type + "\" at index \"" + index + "\" not found";
+			errMessage += "\nMaximum number of elements of current type: " + numElements;
+			throw new HTMLParseException(errMessage);
+		}
+
+		return loadEndIndex(startIndex, type);
+	}
+
+	/**
+	 * Finds every element in this scope which matches a CSS selector, such as
+	 * "table.report tr > td:nth-child(3)"
+	 * The document is indexed the first time a selector is used, after which each selector
+	 * is matched in a single pass over the elements in this scope
+	 * @param selector	The selector; see HTMLSelector for what is supported
+	 * @return	The matching elements, in document order
+	 * @throws HTMLParseException	Thrown if the selector is not valid or not supported
+	 */
+	public ArrayList<HTMLElement> select(String selector) throws HTMLParseException {
+		return select(HTMLSelector.compile(selector));
+	}
+
+	/**
+	 * Finds every element in this scope which matches a compiled CSS selector
+	 * @param selector	The compiled selector
+	 * @return	The matching elements, in document order
+	 */
+	public ArrayList<HTMLElement> select(HTMLSelector selector) {
+		int i;
+		int[] matches;
+		HTMLDocumentIndex documentIndex;
+		ArrayList<HTMLElement> elements;
+
+		documentIndex = document.buildDocumentIndex();
+		matches = selector.evaluate(documentIndex, queryStart, queryEnd);
+		elements = new ArrayList<>(matches.length);
+		for(i = 0; i < matches.length; i++)
+			elements.add(new HTMLElement(HTML, documentIndex.getElementStart(matches[i]),
+					documentIndex.getElementEnd(matches[i])));
+		return elements;
+	}
+
+	/**
+	 * Retrieves all the elements displayed in the loaded drop-down list
+	 * @return	2 lists, one containing all of the options of the drop-down list, and the second
+	 * 			of all of the values of all of the options of the list
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public ArrayList[] getDropDownItemsAndValues() throws HTMLParseException {
+		HTMLSelectHandler handler;
+
+		if(elementType == null)
+			throw new HTMLParseException("getDropDownItems(): No element loaded");
+
+		if(!elementType.equals("select"))
+			throw new HTMLParseException("getDropDownItems(): Element is not of type \"select\"");
+
+		handler = new HTMLSelectHandler(HTML, null);
+		HTMLStreamParser.parse(HTML, contentStartIndex, contentEndIndex, handler);
+		return handler.getItemsAndValues();
+	}
+
+	/**
+	 * Finds the option of the loaded drop-down list with the specified value
+	 * The list is only read up to the end of the option found, and no other option is parsed
+	 * @param value	The value attribute of the option; an option without a value attribute is
+	 * 				matched by its text instead
+	 * @return	The option
+	 * @throws HTMLParseException	Thrown if no element has been loaded, if the loaded element is
+	 * 								not of the correct type, or if no option has the value
+	 */
+	public HTMLElement getDropDownOption(String value) throws HTMLParseException {
+		HTMLSelectHandler handler;
+
+		if(elementType == null)
+			throw new HTMLParseException("getDropDownOption(): No element loaded");
+
+		if(!elementType.equals("select"))
+			throw new HTMLParseException("getDropDownOption(): Element is not of type \"select\"");
+
+		handler = new HTMLSelectHandler(HTML, null).setOptionValue(value);
+		HTMLStreamParser.parse(HTML, contentStartIndex, contentEndIndex, handler);
+		if(handler.getOption() == null)
+			throw new HTMLParseException("getDropDownOption(): No option found with value: " + value);
+		return handler.getOption();
+	}
+
+	/**
+	 * Retrieves all the elements displayed in the loaded table
+	 * @return	A list of all of the rows in the table in, each row containing the individual
+	 * 			HTMLElement for each table cell
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public ArrayList<ArrayList> getTableElements() throws HTMLParseException {
+		return getTableElements(-1, null);
+	}
+
+	/**
+	 * Retrieves the first rows of the loaded table, the same as the first rows of
+	 * getTableElements()
+	 * The table is only read up to the start of the row after the last one returned
+	 * @param maxRows	The most rows to retrieve
+	 * @return	A list of the rows, each row containing the individual HTMLElement for each cell
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public ArrayList<ArrayList> getTableElements(int maxRows) throws HTMLParseException {
+		return getTableElements(maxRows, null);
+	}
+
+	/**
+	 * Retrieves the rows of the loaded table up to and including the first row which passes the
+	 * specified test, the same as the first rows of getTableElements()
+	 * The table is only read up to the start of the row after the last one returned
+	 * @param lastRow	The test, given the cells of each row once the row is complete
+	 * @return	A list of the rows, each row containing the individual HTMLElement for each cell; every
+	 * 			row of the table if no row passes the test
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public ArrayList<ArrayList> getTableElementsUntil(Predicate<? super ArrayList<HTMLElement>> lastRow)
+			throws HTMLParseException {
+		return getTableElements(-1, lastRow);
+	}
+
+	/**
+	 * Retrieves the rows of the loaded table, stopping early as soon as the last row wanted is known
+	 * @param maxRows	The most rows to retrieve, or -1 for no limit
+	 * @param lastRow	The test picking out the last row to retrieve, or null
+	 * @return	A list of the rows
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	private ArrayList<ArrayList> getTableElements(int maxRows, Predicate<? super ArrayList<HTMLElement>> lastRow)
+			throws HTMLParseException {
+		HTMLTableHandler handler;
+
+		if(elementType == null)
+			throw new HTMLParseException("getTableElements(): No element loaded");
+
+		if(!elementType.equals("table"))
+			throw new HTMLParseException("getTableElements(): Loaded element not of type \"table\"");
+
+		handler = new HTMLTableHandler(HTML, -1).setMaxRows(maxRows).setLastRow(lastRow);
+		HTMLStreamParser.parse(HTML, contentStartIndex, contentEndIndex, handler);
+		return handler.getTableRows();
+	}
+
+	/**
+	 * Iterates over the rows of the loaded table one at a time, without collecting them
+	 * Only the rows of the table itself are read; a table nested in a cell stays in that cell
+	 * @return	An iterator of the rows, which reuses one HTMLTableRow for every row
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public HTMLTableRowIterator getTableRows() throws HTMLParseException {
+		if(elementType == null)
+			throw new HTMLParseException("getTableRows(): No element loaded");
+
+		if(!elementType.equals("table"))
+			throw new HTMLParseException("getTableRows(): Loaded element not of type \"table\"");
+
+		return new HTMLTableRowIterator(HTML, contentStartIndex, contentEndIndex);
+	}
+
+	/**
+	 * Streams the rows of the loaded table one at a time, without collecting them
+	 * @return	A sequential Stream of the rows, which reuses one HTMLTableRow for every row
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public Stream<HTMLTableRow> getTableRowStream() throws HTMLParseException {
+		return getTableRows().stream();
+	}
+
+	/**
+	 * Converts the part of the document searched by this scope into an HTMLElement object
+	 * @return	The converted HTMLElement object
+	 */
+	public HTMLElement getElement() {
+		return new HTMLElement(HTML, queryStart, queryEnd);
+	}
+
+	/**
+	 * Converts the part of the document searched by this scope into an HTMLElement object,
+	 * parsing the entire tree of elements inside it up front
+	 * When parsing in parallel, the children of large elements are parsed at the same time on
+	 * the common ForkJoinPool; the tree is the same either way
+	 * @param parallel	Whether to parse in parallel
+	 * @return	The converted HTMLElement object, with every element inside it already parsed
+	 * @throws HTMLParseException	Thrown if the element is never closed
+	 */
+	public HTMLElement getElement(boolean parallel) throws HTMLParseException {
+		HTMLElement element;
+
+		element = getElement();
+		if(parallel)
+			HTMLTreeBuilder.build(element, ForkJoinPool.commonPool());
+		else
+			HTMLTreeBuilder.build(element);
+		return element;
+	}
+
+	/**
+	 * Retrieves the document the scope is in
+	 * @return	The document
+	 */
+	public HTMLDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * @return	The start of the part of the document searched by the load methods
+	 */
+	public int getQueryStart() {
+		return queryStart;
+	}
+
+	/**
+	 * @return	The end of the part of the document searched by the load methods
+	 */
+	public int getQueryEnd() {
+		return queryEnd;
+	}
+
+	/**
+	 * Retrieves the title of the loaded element
+	 * @return	The type of the element, or null if no element is loaded
+	 */
+	public String getElementType() {
+		return elementType;
+	}
+
+	/**
+	 * @return	The index in the document at which the loaded element starts
+	 */
+	public int getElementStart() {
+		return elementStartIndex;
+	}
+
+	/**
+	 * @return	The index in the document just past the end of the loaded element
+	 */
+	public int getElementEnd() {
+		return elementEndIndex;
+	}
+
+	/**
+	 * @return	The index in the document at which the content of the loaded element starts
+	 */
+	public int getContentStart() {
+		return contentStartIndex;
+	}
+
+	/**
+	 * @return	The index in the document at which the content of the loaded element ends
+	 */
+	public int getContentEnd() {
+		return contentEndIndex;
+	}
+}
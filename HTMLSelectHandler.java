@@ -0,0 +1,196 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayList;
+
+/**
+ * HTMLSelectHandler collects the options of a drop-down list from an HTMLStreamParser, the same
+ * way HTMLStringFactory.getDropDownItemsAndValues() lists them
+ * The handler is finished as soon as the drop-down list is closed, or, when looking for a single
+ * option by its value, as soon as that option is closed
+ *
+ * When parsing a document in memory, the options are views into the document; when parsing a
+ * stream, the markup of each option is copied as it goes by
+ */
+public class HTMLSelectHandler implements HTMLStreamHandler {
+
+	private CharSequence source;	//The document being parsed, if it is in memory; null for a stream
+	private String selectName;		//The name attribute of the drop-down list to collect; null to
+									//collect the options of the first list closed
+
+	private boolean inSelect;		//Whether the parser is inside the drop-down list being collected
+	private boolean pendingSelect;	//Whether the attributes of a <select> tag are being read
+	private boolean finished;		//Whether the drop-down list being collected has been closed
+	private String optionValue;		//The value of the only option to collect; null to collect
+									//every option
+	private boolean optionHasValue;	//Whether the open option has a value attribute
+	private boolean optionMatches;	//Whether the value attribute of the open option is optionValue
+	private boolean pendingOption;	//Whether the attributes of an <option> tag are being read
+
+	private ArrayList<HTMLElement> DropDownItems;	//The options collected so far
+	private long optionStart;						//The offset of the open option; -1 for none
+	private StringBuilder optionMarkup;				//The markup of the open option, when reading a stream
+
+	/**
+	 * Constructs a handler which collects the options in the stream up to the first </select>
+	 */
+	public HTMLSelectHandler() {
+		this(null, null);
+	}
+
+	/**
+	 * Constructs a handler which collects the options of the drop-down list with the specified name
+	 * @param selectName	The name attribute of the drop-down list
+	 */
+	public HTMLSelectHandler(String selectName) {
+		this(null, selectName);
+	}
+
+	/**
+	 * Constructs a handler for a parser over a document in memory
+	 * @param source		The document being parsed
+	 * @param selectName	The name attribute of the drop-down list, or null to collect the options
+	 * 						up to the first </select>
+	 */
+	HTMLSelectHandler(CharSequence source, String selectName) {
+		this.source = source;
+		this.selectName = selectName;
+		inSelect = selectName == null;
+		optionStart = -1;
+		DropDownItems = new ArrayList<>();
+	}
+
+	@Override
+	public void startTag(CharSequence name, CharSequence token, long offset, boolean selfClosing) {
+		pendingSelect = selectName != null && !inSelect && !selfClosing
+				&& HTMLTokenizer.regionMatches(name, 0, name.length(), "select");
+		pendingOption = false;
+		if(!inSelect)
+			return;
+
+		if(HTMLTokenizer.regionMatches(name, 0, name.length(), "option")) {
+			pendingOption = true;
+			optionHasValue = false;
+			optionMatches = false;
+			optionStart = offset;
+			if(source == null)
+				optionMarkup = new StringBuilder();
+		}
+		capture(token);
+	}
+
+	@Override
+	public void attribute(CharSequence name, CharSequence value) {
+		if(pendingSelect && HTMLTokenizer.regionMatches(name, 0, name.length(), "name")
+				&& HTMLTokenizer.regionMatches(value, 0, value.length(), selectName)) {
+			inSelect = true;
+			pendingSelect = false;
+		}
+		if(pendingOption && optionValue != null && HTMLTokenizer.regionMatches(name, 0, name.length(), "value")) {
+			optionHasValue = true;
+			optionMatches = HTMLTokenizer.regionMatches(value, 0, value.length(), optionValue);
+		}
+	}
+
+	@Override
+	public void endTag(CharSequence name, CharSequence token, long offset) {
+		HTMLElement item;
+
+		pendingSelect = false;
+		pendingOption = false;
+		if(!inSelect)
+			return;
+
+		if(HTMLTokenizer.regionMatches(name, 0, name.length(), "select")) {
+			inSelect = false;
+			finished = true;
+			return;
+		}
+
+		capture(token);
+		if(optionStart >= 0 && HTMLTokenizer.regionMatches(name, 0, name.length(), "option")) {
+			if(optionValue == null || !optionHasValue || optionMatches) {
+				if(source != null)
+					item = new HTMLElement(source, (int) optionStart, (int) offset + token.length());
+				else
+					item = new HTMLElement(optionMarkup.toString());
+				if(optionValue == null)
+					DropDownItems.add(item);
+				else if(optionMatches || item.getContent().trim().equals(optionValue)) {
+					DropDownItems.add(item);
+					finished = true;
+				}
+			}
+			optionStart = -1;
+			optionMarkup = null;
+		}
+	}
+
+	@Override
+	public void text(CharSequence text, long offset) {
+		pendingSelect = false;
+		pendingOption = false;
+		capture(text);
+	}
+
+	@Override
+	public void comment(CharSequence token, long offset) {
+		pendingSelect = false;
+		pendingOption = false;
+		capture(token);
+	}
+
+	/**
+	 * Copies markup belonging to the open option, when reading a stream
+	 * @param token	The markup to copy
+	 */
+	private void capture(CharSequence token) {
+		if(optionMarkup != null)
+			optionMarkup.append(token);
+	}
+
+	@Override
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Looks for a single option by its value instead of collecting every option, stopping as soon
+	 * as the option is closed
+	 * @param optionValue	The value of the option, or null to collect every option; an option
+	 * 						without a value attribute is matched by its text instead
+	 * @return	This handler
+	 */
+	public HTMLSelectHandler setOptionValue(String optionValue) {
+		this.optionValue = optionValue;
+		return this;
+	}
+
+	/**
+	 * Retrieves the option found when looking for a single option by its value
+	 * @return	The option, or null if no option has the value
+	 */
+	public HTMLElement getOption() {
+		return optionValue != null && !DropDownItems.isEmpty() ? DropDownItems.get(0) : null;
+	}
+
+	/**
+	 * Retrieves the options collected
+	 * @return	2 lists, one containing all of the options of the drop-down list, and the second
+	 * 			of all of the values of all of the options of the list
+	 */
+	public ArrayList[] getItemsAndValues() {
+		ArrayList<String> DropDownStrings;
+		ArrayList[] itemValuePairs = new ArrayList[2];
+
+		DropDownStrings = new ArrayList<>();
+		for(HTMLElement in : DropDownItems)
+			DropDownStrings.add(in.getContent());
+
+		itemValuePairs[0] = DropDownStrings;
+		itemValuePairs[1] = DropDownItems;
+
+		return itemValuePairs;
+	}
+}
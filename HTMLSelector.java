@@ -0,0 +1,551 @@
+package big_boiz.antplanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTMLSelector is a CSS selector compiled once, so it can be matched against any number of
+ * documents without being parsed again
+ * A selector is matched in a single pass over the elements of a document index, checking each
+ * element from the rightmost part of the selector outwards through its parents
+ *
+ * The supported selectors are:
+ * type, *, #id, .class, [attribute], [attribute=value], :first-child, :last-child,
+ * :nth-child(an+b), as well as descendant (space) and child (>) combinators, and lists of
+ * selectors separated by commas
+ * Type names and attribute names are matched exactly, the same way tags are matched everywhere
+ * else in the parser
+ *
+ * An HTMLSelector never changes once compiled, so it can be shared between threads; compile()
+ * keeps the selectors it has compiled, so the same selector is only ever parsed once
+ */
+public class HTMLSelector {
+
+	private static final int NONE = 0;			//The combinators before each compound selector
+	private static final int DESCENDANT = 1;
+	private static final int CHILD = 2;
+
+	private static final int MAX_CACHED = 256;	//The most compiled selectors kept by compile()
+	private static final ConcurrentHashMap<String, HTMLSelector> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * Compound is a single part of a selector, such as "td.cell:nth-child(2)", matched against
+	 * one element
+	 */
+	private static class Compound {
+		private int combinator;				//How the compound is joined to the one before it
+		private String type;				//The type of element; null for any type
+		private String id;					//The id attribute; null for any
+		private ArrayList<String> classes = new ArrayList<>();				//The classes the element
+																			//must have
+		private ArrayList<String> attributeNames = new ArrayList<>();		//The attributes the element
+		private ArrayList<String> attributeValues = new ArrayList<>();		//must have, and their values;
+																			//null for any value
+		private boolean nth;				//Whether the position of the element is checked
+		private int nthA, nthB;				//The positions matched: an+b for some n >= 0
+		private boolean last;				//Whether the element must be the last of its siblings
+	}
+
+	private final String selector;			//The selector as written
+	private final Compound[][] groups;			//The selectors separated by commas, each a chain of
+											//compounds from left to right
+
+	/**
+	 * Compiles a selector
+	 * @param selector	The selector
+	 * @throws HTMLParseException	Thrown if the selector is not valid or not supported
+	 */
+	private HTMLSelector(String selector) throws HTMLParseException {
+		this.selector = selector;
+		groups = new SelectorParser(selector).parse();
+	}
+
+	/**
+	 * Compiles a selector, reusing the compiled selector if the same selector has been compiled
+	 * before
+	 * @param selector	The selector, such as "table.report tr > td:nth-child(3)"
+	 * @return	The compiled selector
+	 * @throws HTMLParseException	Thrown if the selector is not valid or not supported
+	 */
+	public static HTMLSelector compile(String selector) throws HTMLParseException {
+		HTMLSelector compiled;
+
+		compiled = cache.get(selector);
+		if(compiled == null) {
+			compiled = new HTMLSelector(selector);
+			if(cache.size() >= MAX_CACHED)
+				cache.clear();
+			cache.put(selector, compiled);
+		}
+		return compiled;
+	}
+
+	/**
+	 * Finds every element in a range of a document which matches the selector
+	 * Only elements which are closed and lie entirely inside the range are matched, but the
+	 * parents they are matched against may be outside of it
+	 * @param index	The index of the document
+	 * @param start	The start of the range
+	 * @param end	The end of the range
+	 * @return	The numbers of the matching elements, in document order
+	 */
+	int[] evaluate(HTMLDocumentIndex index, int start, int end) {
+		int element, count, i;
+		int[] matches, types;
+		CharSequence source;
+		HTMLTokenizer tokenizer;
+
+		source = index.getSource();
+		tokenizer = new HTMLTokenizer();
+		types = new int[groups.length];
+		for(i = 0; i < groups.length; i++)
+			types[i] = resolveType(index, groups[i][groups[i].length - 1]);
+
+		matches = new int[16];
+		count = 0;
+		for(element = index.findFirstElement(start); element < index.size(); element++) {
+			if(index.getElementStart(element) >= end)
+				break;
+			if(index.getElementEnd(element) < 0 || index.getElementEnd(element) > end)
+				continue;
+
+			for(i = 0; i < groups.length; i++) {
+				if(types[i] == -2 || types[i] >= 0 && types[i] != index.getTag(element))
+					continue;		//quick check of the rightmost type before anything else
+				if(matches(index, source, tokenizer, groups[i], groups[i].length - 1, element)) {
+					if(count == matches.length)
+						matches = HTMLNameTable.grow(matches, count * 2);
+					matches[count++] = element;
+					break;
+				}
+			}
+		}
+
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * Finds the number of the type of a compound in a document
+	 * @return	The number of the type, -1 for any type, or -2 if the type is not in the document
+	 */
+	private static int resolveType(HTMLDocumentIndex index, Compound compound) {
+		int type;
+
+		if(compound.type == null)
+			return -1;
+		type = index.getTagNames().find(compound.type);
+		return type < 0 ? -2 : type;
+	}
+
+	/**
+	 * Checks whether an element matches a chain of compounds, up to and including the specified one
+	 * The chain is split at its descendant combinators into runs of compounds joined by child
+	 * combinators, each of which is matched against an element and the parents above it
+	 * Each run is matched at the nearest ancestor where the whole run matches, and never tried again
+	 * further up: a match further up leaves only some of the same ancestors for the rest of the
+	 * chain, so if the rest fails above the nearest match it fails above every other
+	 * Each ancestor is therefore tried at most once for each run, and nothing is backtracked
+	 * @param chain		The compounds of the selector
+	 * @param last		The position in chain of the compound the element must match
+	 * @param element	The element
+	 * @return	True if the element matches
+	 */
+	private static boolean matches(HTMLDocumentIndex index, CharSequence source, HTMLTokenizer tokenizer,
+			Compound[] chain, int last, int element) {
+		int first, top;
+
+		first = runStart(chain, last);
+		top = matchesRun(index, source, tokenizer, chain, first, last, element);
+		while(top >= 0 && first > 0) {
+			last = first - 1;		//joined to the run just matched by a descendant combinator
+			first = runStart(chain, last);
+			for(element = index.getParent(top), top = -1; element >= 0 && top < 0; element = index.getParent(element))
+				top = matchesRun(index, source, tokenizer, chain, first, last, element);
+		}
+		return top >= 0;
+	}
+
+	/**
+	 * Finds the first compound of the run of compounds joined by child combinators which ends
+	 * with the specified compound
+	 * @param chain	The compounds of the selector
+	 * @param last	The position in chain of the last compound of the run
+	 * @return	The position in chain of the first compound of the run
+	 */
+	private static int runStart(Compound[] chain, int last) {
+		while(last > 0 && chain[last].combinator == CHILD)
+			last--;
+		return last;
+	}
+
+	/**
+	 * Checks whether an element matches the last compound of a run, its parent the compound before
+	 * that, and so on up to the first compound of the run
+	 * @param chain		The compounds of the selector
+	 * @param first		The position in chain of the first compound of the run
+	 * @param last		The position in chain of the last compound of the run
+	 * @param element	The element to match the last compound against
+	 * @return	The element which matched the first compound, or -1 if the run does not match
+	 */
+	private static int matchesRun(HTMLDocumentIndex index, CharSequence source, HTMLTokenizer tokenizer,
+			Compound[] chain, int first, int last, int element) {
+		int i;
+
+		for(i = last; i >= first; i--) {
+			if(element < 0 || !matchesCompound(index, source, tokenizer, chain[i], element))
+				return -1;
+			if(i > first)
+				element = index.getParent(element);
+		}
+		return element;
+	}
+
+	/**
+	 * Checks whether an element matches a single compound
+	 * The opening tag of the element is only read if the type and position match
+	 * @param compound	The compound
+	 * @param element	The element
+	 * @return	True if the element matches
+	 */
+	private static boolean matchesCompound(HTMLDocumentIndex index, CharSequence source,
+			HTMLTokenizer tokenizer, Compound compound, int element) {
+		int position, i;
+		boolean[] found;
+
+		if(compound.type != null && !compound.type.equals(index.getTagNames().getName(index.getTag(element))))
+			return false;
+
+		position = index.getPosition(element);
+		if(compound.nth && !matchesPosition(compound.nthA, compound.nthB, position))
+			return false;
+		if(compound.last && position != index.getSiblingCount(element))
+			return false;
+
+		if(compound.id == null && compound.classes.isEmpty() && compound.attributeNames.isEmpty())
+			return true;
+
+		found = new boolean[compound.attributeNames.size() + compound.classes.size() + 1];
+		tokenizer.reset(source, index.getElementStart(element), index.getContentStart(element));
+		tokenizer.next();
+		while(tokenizer.nextAttribute()) {
+			if(compound.id != null && tokenizer.attributeNameEquals("id")
+					&& tokenizer.attributeValueEquals(compound.id))
+				found[0] = true;
+
+			if(tokenizer.attributeNameEquals("class"))
+				for(i = 0; i < compound.classes.size(); i++)
+					if(hasClass(source, tokenizer.getAttributeValueStart(), tokenizer.getAttributeValueEnd(),
+							compound.classes.get(i)))
+						found[1 + i] = true;
+
+			for(i = 0; i < compound.attributeNames.size(); i++)
+				if(tokenizer.attributeNameEquals(compound.attributeNames.get(i))
+						&& (compound.attributeValues.get(i) == null
+							|| tokenizer.attributeValueEquals(compound.attributeValues.get(i))))
+					found[1 + compound.classes.size() + i] = true;
+		}
+
+		if(compound.id == null)
+			found[0] = true;
+		for(i = 0; i < found.length; i++)
+			if(!found[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Checks whether a position is an+b for some n >= 0
+	 */
+	private static boolean matchesPosition(int a, int b, int position) {
+		if(a == 0)
+			return position == b;
+		return (position - b) % a == 0 && (position - b) / a >= 0;
+	}
+
+	/**
+	 * Checks whether a class attribute holds the specified class among its space separated classes
+	 * @param source	The document
+	 * @param start		The start of the value of the class attribute
+	 * @param end		The end of the value of the class attribute
+	 * @param name		The class
+	 * @return	True if the class is found
+	 */
+	private static boolean hasClass(CharSequence source, int start, int end, String name) {
+		int i, j;
+
+		i = start;
+		while(i < end) {
+			while(i < end && HTMLTokenizer.isSpace(source.charAt(i)))
+				i++;
+			j = i;
+			while(j < end && !HTMLTokenizer.isSpace(source.charAt(j)))
+				j++;
+			if(j > i && HTMLTokenizer.regionMatches(source, i, j, name))
+				return true;
+			i = j;
+		}
+		return false;
+	}
+
+	/**
+	 * @return	The selector as written
+	 */
+	@Override
+	public String toString() {
+		return selector;
+	}
+
+	/**
+	 * SelectorParser reads a selector into its chains of compounds
+	 */
+	private static class SelectorParser {
+		private String selector;	//The selector being read
+		private int position;		//The position of the next character to read
+
+		/**
+		 * Constructs a parser of a selector
+		 * @param selector	The selector
+		 */
+		private SelectorParser(String selector) {
+			this.selector = selector;
+		}
+
+		/**
+		 * Reads the whole selector
+		 * @return	The selectors separated by commas, each a chain of compounds
+		 * @throws HTMLParseException	Thrown if the selector is not valid or not supported
+		 */
+		private Compound[][] parse() throws HTMLParseException {
+			ArrayList<Compound[]> groups;
+			ArrayList<Compound> chain;
+			Compound compound;
+			int combinator;
+			boolean space;
+
+			groups = new ArrayList<>();
+			chain = new ArrayList<>();
+			combinator = NONE;
+			skipSpaces();
+			while(true) {
+				compound = readCompound();
+				compound.combinator = combinator;
+				chain.add(compound);
+
+				space = skipSpaces();
+				if(position == selector.length() || selector.charAt(position) == ',') {
+					groups.add(chain.toArray(new Compound[chain.size()]));
+					if(position == selector.length())
+						break;
+					position++;
+					skipSpaces();
+					chain = new ArrayList<>();
+					combinator = NONE;
+				}
+				else if(selector.charAt(position) == '>') {
+					position++;
+					skipSpaces();
+					combinator = CHILD;
+				}
+				else if(space)
+					combinator = DESCENDANT;
+				else
+					throw error();
+			}
+			return groups.toArray(new Compound[groups.size()][]);
+		}
+
+		/**
+		 * Reads a single compound, such as "td.cell:first-child"
+		 * @return	The compound
+		 * @throws HTMLParseException	Thrown if the compound is not valid or not supported
+		 */
+		private Compound readCompound() throws HTMLParseException {
+			Compound compound;
+			String name;
+			char c;
+			int start;
+
+			compound = new Compound();
+			start = position;
+			if(position < selector.length() && selector.charAt(position) == '*')
+				position++;
+			else if(position < selector.length() && isNameChar(selector.charAt(position)))
+				compound.type = readName();
+
+			while(position < selector.length()) {
+				c = selector.charAt(position);
+				if(c == '#') {
+					position++;
+					compound.id = readName();
+				}
+				else if(c == '.') {
+					position++;
+					compound.classes.add(readName());
+				}
+				else if(c == '[') {
+					position++;
+					readAttribute(compound);
+				}
+				else if(c == ':') {
+					position++;
+					name = readName();
+					if(name.equals("first-child")) {
+						compound.nth = true;
+						compound.nthA = 0;
+						compound.nthB = 1;
+					}
+					else if(name.equals("last-child"))
+						compound.last = true;
+					else if(name.equals("nth-child")) {
+						expect('(');
+						readNth(compound);
+						expect(')');
+					}
+					else
+						throw new HTMLParseException("compile(): Unsupported pseudo-class \":" + name
+								+ "\" in \"" + selector + "\"");
+				}
+				else
+					break;
+			}
+
+			if(position == start)
+				throw error();
+			return compound;
+		}
+
+		/**
+		 * Reads an attribute selector, after its opening '['
+		 * @param compound	The compound to add the attribute to
+		 * @throws HTMLParseException	Thrown if the attribute selector is not valid
+		 */
+		private void readAttribute(Compound compound) throws HTMLParseException {
+			String name, value;
+			char quote;
+			int start;
+
+			skipSpaces();
+			name = readName();
+			skipSpaces();
+			value = null;
+			if(position < selector.length() && selector.charAt(position) == '=') {
+				position++;
+				skipSpaces();
+				if(position < selector.length() && (selector.charAt(position) == '"' || selector.charAt(position) == '\'')) {
+					quote = selector.charAt(position++);
+					start = position;
+					while(position < selector.length() && selector.charAt(position) != quote)
+						position++;
+					if(position == selector.length())
+						throw error();
+					value = selector.substring(start, position++);
+				}
+				else
+					value = readName();
+				skipSpaces();
+			}
+			expect(']');
+			compound.attributeNames.add(name);
+			compound.attributeValues.add(value);
+		}
+
+		/**
+		 * Reads the argument of :nth-child(), which is a number, odd, even, or an+b
+		 * @param compound	The compound to set the position of
+		 * @throws HTMLParseException	Thrown if the argument is not valid
+		 */
+		private void readNth(Compound compound) throws HTMLParseException {
+			String argument;
+			int start, n;
+
+			start = position;
+			while(position < selector.length() && selector.charAt(position) != ')')
+				position++;
+			argument = selector.substring(start, position).replace(" ", "");
+			compound.nth = true;
+
+			try {
+				if(argument.equals("odd")) {
+					compound.nthA = 2;
+					compound.nthB = 1;
+				}
+				else if(argument.equals("even")) {
+					compound.nthA = 2;
+					compound.nthB = 0;
+				}
+				else if((n = argument.indexOf('n')) >= 0) {
+					compound.nthA = n == 0 ? 1 : argument.substring(0, n).equals("-") ? -1
+							: argument.substring(0, n).equals("+") ? 1 : Integer.parseInt(argument.substring(0, n));
+					compound.nthB = n == argument.length() - 1 ? 0
+							: Integer.parseInt(argument.substring(argument.charAt(n + 1) == '+' ? n + 2 : n + 1));
+				}
+				else {
+					compound.nthA = 0;
+					compound.nthB = Integer.parseInt(argument);
+				}
+			}
+			catch(NumberFormatException e) {
+				throw new HTMLParseException("compile(): Invalid argument \"" + argument
+						+ "\" to :nth-child() in \"" + selector + "\"");
+			}
+		}
+
+		/**
+		 * Reads a name, such as a type, class or attribute
+		 * @return	The name
+		 * @throws HTMLParseException	Thrown if there is no name at the current position
+		 */
+		private String readName() throws HTMLParseException {
+			int start;
+
+			start = position;
+			while(position < selector.length() && isNameChar(selector.charAt(position)))
+				position++;
+			if(position == start)
+				throw error();
+			return selector.substring(start, position);
+		}
+
+		/**
+		 * Reads the specified character
+		 * @throws HTMLParseException	Thrown if the next character is different
+		 */
+		private void expect(char c) throws HTMLParseException {
+			if(position == selector.length() || selector.charAt(position) != c)
+				throw error();
+			position++;
+		}
+
+		/**
+		 * Skips over spaces
+		 * @return	True if any spaces were skipped
+		 */
+		private boolean skipSpaces() {
+			int start;
+
+			start = position;
+			while(position < selector.length() && HTMLTokenizer.isSpace(selector.charAt(position)))
+				position++;
+			return position > start;
+		}
+
+		/**
+		 * Checks whether a character can be part of a name
+		 */
+		private static boolean isNameChar(char c) {
+			return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+					|| c == '-' || c == '_' || c > 127;
+		}
+
+		/**
+		 * Creates the exception for an unexpected character at the current position
+		 */
+		private HTMLParseException error() {
+			if(position == selector.length())
+				return new HTMLParseException("compile(): Unexpected end of selector \"" + selector + "\"");
+			return new HTMLParseException("compile(): Unexpected character '" + selector.charAt(position)
+					+ "' at position " + position + " in \"" + selector + "\"");
+		}
+	}
+}
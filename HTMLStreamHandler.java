@@ -0,0 +1,78 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLStreamHandler receives the pieces of a document from an HTMLStreamParser as they are read
+ * Every method does nothing by default, so a handler only overrides the events it needs
+ *
+ * The CharSequences passed to a handler are views into the parser's buffer, which are only
+ * valid until the method returns; call toString() on any of them that must be kept
+ * Offsets are counted in characters from the start of the stream
+ */
+public interface HTMLStreamHandler {
+
+	/**
+	 * Called for each opening tag; the attributes of the tag follow as calls to attribute()
+	 * @param name			The name of the tag
+	 * @param token			The entire opening tag
+	 * @param offset		The offset of the tag in the stream
+	 * @param selfClosing	Whether the tag ends in "/>"
+	 */
+	default void startTag(CharSequence name, CharSequence token, long offset, boolean selfClosing) {
+	}
+
+	/**
+	 * Called for each attribute of the last opening tag
+	 * @param name		The name of the attribute
+	 * @param value		The value of the attribute, without quotes
+	 */
+	default void attribute(CharSequence name, CharSequence value) {
+	}
+
+	/**
+	 * Called for each closing tag
+	 * @param name		The name of the tag
+	 * @param token		The entire closing tag
+	 * @param offset	The offset of the tag in the stream
+	 */
+	default void endTag(CharSequence name, CharSequence token, long offset) {
+	}
+
+	/**
+	 * Called for text in between tags
+	 * Long runs of text may be split across several calls
+	 * @param text		The text
+	 * @param offset	The offset of the text in the stream
+	 */
+	default void text(CharSequence text, long offset) {
+	}
+
+	/**
+	 * Called for each comment
+	 * @param token		The entire comment, including "<!--" and "-->"
+	 * @param offset	The offset of the comment in the stream
+	 */
+	default void comment(CharSequence token, long offset) {
+	}
+
+	/**
+	 * Called for each declaration or processing instruction, such as <!DOCTYPE html>
+	 * @param token		The entire declaration
+	 * @param offset	The offset of the declaration in the stream
+	 */
+	default void declaration(CharSequence token, long offset) {
+	}
+
+	/**
+	 * Called once the end of the stream is reached, or once the handler is finished
+	 */
+	default void endDocument() {
+	}
+
+	/**
+	 * Checked after every event; once true, the parser stops reading the stream
+	 * @return	True if the handler does not need the rest of the stream
+	 */
+	default boolean isFinished() {
+		return false;
+	}
+}
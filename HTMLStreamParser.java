@@ -0,0 +1,282 @@
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * HTMLStreamParser reads an HTML document a piece at a time, so documents far larger than the
+ * available memory can be processed
+ * Only a bounded buffer of the document is held at once; the buffer grows only when a single
+ * tag does not fit in it, up to a maximum token size
+ *
+ * The parser can be used in two ways:
+ * Pull:  call next() for each token and read it with the get methods
+ * Push:  call parse() with an HTMLStreamHandler, which is called back for each token
+ *
+ * The parser does not close the Reader or channel it reads from
+ */
+public class HTMLStreamParser {
+
+	public static final int DEFAULT_BUFFER_SIZE = 8192;			//The initial size of the buffer
+	public static final int DEFAULT_MAX_TOKEN_SIZE = 1 << 20;	//The largest tag or comment allowed
+
+	private Reader reader;				//The stream being read; null when parsing a document in memory
+	private char[] buffer;				//The piece of the stream currently held
+	private int bufferLength;			//The number of characters in buffer
+	private long bufferOffset;			//The offset in the stream of the first character in buffer
+	private boolean endOfInput;			//Whether the end of the stream has been read into buffer
+	private int maxTokenSize;			//The largest the buffer may grow to
+
+	private CharSequence source;		//The characters being tokenized: buffer, or the document
+	private HTMLTokenizer tokenizer;	//Splits source into tokens
+
+	private HTMLTextView name, token, attributeName, attributeValue;	//Reused views of the current token
+
+	/**
+	 * Constructs a parser which reads from a stream of characters
+	 * @param reader	The stream to read
+	 */
+	public HTMLStreamParser(Reader reader) {
+		this(reader, DEFAULT_BUFFER_SIZE, DEFAULT_MAX_TOKEN_SIZE);
+	}
+
+	/**
+	 * Constructs a parser which reads from a stream of characters
+	 * @param reader		The stream to read
+	 * @param bufferSize	The initial size of the buffer
+	 * @param maxTokenSize	The largest size the buffer may grow to for a single tag or comment
+	 */
+	public HTMLStreamParser(Reader reader, int bufferSize, int maxTokenSize) {
+		this.reader = reader;
+		this.maxTokenSize = Math.max(bufferSize, maxTokenSize);
+		buffer = new char[bufferSize];
+		source = CharBuffer.wrap(buffer);
+		tokenizer = new HTMLTokenizer();
+		tokenizer.refill(source, 0, 0, false);
+		createViews();
+	}
+
+	/**
+	 * Constructs a parser which reads from a channel of bytes
+	 * @param channel	The channel to read
+	 * @param charset	The character encoding of the bytes
+	 */
+	public HTMLStreamParser(ReadableByteChannel channel, Charset charset) {
+		this(Channels.newReader(channel, charset.newDecoder(), -1));
+	}
+
+	/**
+	 * Constructs a parser over a range of a document already in memory
+	 * Nothing is copied; offsets reported by the parser are indices into the document
+	 * @param source	The document
+	 * @param start		The index at which to start parsing
+	 * @param end		The index at which to stop parsing
+	 */
+	public HTMLStreamParser(CharSequence source, int start, int end) {
+		this.source = source;
+		endOfInput = true;
+		tokenizer = new HTMLTokenizer();
+		tokenizer.reset(source, start, end);
+		createViews();
+	}
+
+	/**
+	 * Creates the views handed out for the current token
+	 */
+	private void createViews() {
+		name = new HTMLTextView();
+		token = new HTMLTextView();
+		attributeName = new HTMLTextView();
+		attributeValue = new HTMLTextView();
+	}
+
+	/**
+	 * Reads the next token in the stream, reading more of the stream as needed
+	 * @return	The type of the token, as one of the HTMLTokenizer constants; END_OF_INPUT once
+	 * 			the whole stream has been read
+	 * @throws IOException	Thrown if the stream cannot be read
+	 * @throws HTMLParseException	Thrown if a single tag or comment is larger than the
+	 * 								maximum token size
+	 */
+	public int next() throws IOException, HTMLParseException {
+		int type;
+
+		while((type = tokenizer.next()) == HTMLTokenizer.INCOMPLETE
+				|| (type == HTMLTokenizer.END_OF_INPUT && !endOfInput))
+			fill();
+		return type;
+	}
+
+	/**
+	 * Reads the stream, calling the handler back for each token, until the stream ends or the
+	 * handler is finished
+	 * @param handler	The handler to call back
+	 * @throws IOException	Thrown if the stream cannot be read
+	 * @throws HTMLParseException	Thrown if a single tag or comment is larger than the
+	 * 								maximum token size
+	 */
+	public void parse(HTMLStreamHandler handler) throws IOException, HTMLParseException {
+		int type;
+		long start;
+		HTMLParseListener listener;
+
+		start = getEndOffset();
+		while(!handler.isFinished() && (type = next()) != HTMLTokenizer.END_OF_INPUT) {
+			if(type == HTMLTokenizer.START_TAG) {
+				handler.startTag(getName(), getToken(), getOffset(), isSelfClosing());
+				while(nextAttribute())
+					handler.attribute(getAttributeName(), getAttributeValue());
+			}
+			else if(type == HTMLTokenizer.END_TAG)
+				handler.endTag(getName(), getToken(), getOffset());
+			else if(type == HTMLTokenizer.TEXT)
+				handler.text(getToken(), getOffset());
+			else if(type == HTMLTokenizer.COMMENT)
+				handler.comment(getToken(), getOffset());
+			else if(type == HTMLTokenizer.DECLARATION)
+				handler.declaration(getToken(), getOffset());
+		}
+		handler.endDocument();
+
+		listener = HTMLStringFactory.getParseListener();
+		if(listener != null)
+			listener.documentScanned(getEndOffset() - start);
+	}
+
+	/**
+	 * Parses a range of a document already in memory, calling the handler back for each token
+	 * @param source	The document
+	 * @param start		The index at which to start parsing
+	 * @param end		The index at which to stop parsing
+	 * @param handler	The handler to call back
+	 */
+	public static void parse(CharSequence source, int start, int end, HTMLStreamHandler handler) {
+		try {
+			new HTMLStreamParser(source, start, end).parse(handler);
+		}
+		catch(IOException e) {
+			throw new HTMLParseException("parse(): " + e.getMessage());	//never thrown in memory
+		}
+	}
+
+	/**
+	 * Moves the unread part of the buffer to the front and reads more of the stream after it
+	 * @throws IOException	Thrown if the stream cannot be read
+	 * @throws HTMLParseException	Thrown if the buffer is full of a single token and cannot grow
+	 */
+	private void fill() throws IOException, HTMLParseException {
+		int start, read;
+		char[] newBuffer;
+
+		start = tokenizer.getTokenStart();
+		System.arraycopy(buffer, start, buffer, 0, bufferLength - start);
+		bufferLength -= start;
+		bufferOffset += start;
+
+		if(bufferLength == buffer.length) {
+			if(buffer.length >= maxTokenSize)
+				throw new HTMLParseException("next(): Token at offset " + bufferOffset
+						+ " is larger than the maximum of " + maxTokenSize + " characters");
+			newBuffer = new char[(int) Math.min((long) buffer.length * 2, maxTokenSize)];
+			System.arraycopy(buffer, 0, newBuffer, 0, bufferLength);
+			buffer = newBuffer;
+			source = CharBuffer.wrap(buffer);
+		}
+
+		read = reader.read(buffer, bufferLength, buffer.length - bufferLength);
+		if(read < 0)
+			endOfInput = true;
+		else
+			bufferLength += read;
+		tokenizer.refill(source, 0, bufferLength, endOfInput);
+	}
+
+	/**
+	 * Moves on to the next attribute of the current opening tag
+	 * @return	True if there is another attribute
+	 */
+	public boolean nextAttribute() {
+		return tokenizer.nextAttribute();
+	}
+
+	/**
+	 * Retrieves the type of the current token
+	 * @return	The type, as one of the HTMLTokenizer constants
+	 */
+	public int getTokenType() {
+		return tokenizer.getTokenType();
+	}
+
+	/**
+	 * Retrieves the name of the current tag
+	 * @return	A view of the name, valid until the next call to next()
+	 */
+	public HTMLTextView getName() {
+		name.set(source, tokenizer.getNameStart(), tokenizer.getNameEnd());
+		return name;
+	}
+
+	/**
+	 * Retrieves the entire current token, such as the whole opening tag or the text
+	 * @return	A view of the token, valid until the next call to next()
+	 */
+	public HTMLTextView getToken() {
+		token.set(source, tokenizer.getTokenStart(), tokenizer.getTokenEnd());
+		return token;
+	}
+
+	/**
+	 * Retrieves the name of the current attribute
+	 * @return	A view of the name, valid until the next call to nextAttribute() or next()
+	 */
+	public HTMLTextView getAttributeName() {
+		attributeName.set(source, tokenizer.getAttributeNameStart(), tokenizer.getAttributeNameEnd());
+		return attributeName;
+	}
+
+	/**
+	 * Retrieves the value of the current attribute
+	 * @return	A view of the value, valid until the next call to nextAttribute() or next()
+	 */
+	public HTMLTextView getAttributeValue() {
+		attributeValue.set(source, tokenizer.getAttributeValueStart(), tokenizer.getAttributeValueEnd());
+		return attributeValue;
+	}
+
+	/**
+	 * Checks whether the name of the current tag is the specified name
+	 * @param tagName	The name to compare against
+	 * @return	True if the names are the same
+	 */
+	public boolean nameEquals(String tagName) {
+		return tokenizer.nameEquals(tagName);
+	}
+
+	/**
+	 * Checks whether the current opening tag closes itself, such as <br/>
+	 * @return	True if the tag ends in "/>"
+	 */
+	public boolean isSelfClosing() {
+		return tokenizer.isSelfClosing();
+	}
+
+	/**
+	 * Retrieves the offset of the current token in the stream
+	 * @return	The number of characters in the stream before the token
+	 */
+	public long getOffset() {
+		return bufferOffset + tokenizer.getTokenStart();
+	}
+
+	/**
+	 * Retrieves the offset just past the end of the current token in the stream
+	 * @return	The number of characters in the stream up to the end of the token
+	 */
+	public long getEndOffset() {
+		return bufferOffset + tokenizer.getTokenEnd();
+	}
+}
@@ -1,598 +1,858 @@
-package big_boiz.antplanner;
-
-import java.util.ArrayList;
-
-/**
- * HTMLStringFactory helper class handles HTML pages
- * Provides an interface to retrieve HTML elements in the page
- *
- * Created by Saumil Shah
- */
-public class HTMLStringFactory {
-
-    /**
-     * HTMLElement class makes up a single element in the HTML page provided
-     * Provides an interface to retrieve attributes of the element
-     *
-     * Created by Saumil Shah
-     */
-	public class HTMLElement {
-		private String Title, Content;          //Title: the type of element
-                                                //Content: the contents in between the element tags
-		private ArrayList<String> AttributeList;    //The list of attributes of the element
-                                                    //Located in the opening tag of the element
-
-		private ArrayList<HTMLElement> ChildElementList;	//The list of child elements
-
-        /**
-         * Constructs an instance of a single HTMLElement
-         *
-         * @param item    The String element retrieved from the HTML document
-         */
-		public HTMLElement(String item) {
-			AttributeList = new ArrayList<>();
-			ChildElementList = new ArrayList<>();
-			findTitle(item);
-			findContent(item, Title);
-			findChildElements();
-			findAttributes(item);
-		}
-
-        /**
-         * Cleans the content of the HTML element i.e. replaces all the special character
-         * entities with the actual special characters
-         */
-		private void cleanContent() {
-			String[] codes = {"&nbsp;", "&amp;"};
-			String[] substitutions = {"", "&"};
-
-			int i;
-			
-			if(Content != null) {
-				for(i = 0; i < codes.length; i++)
-					Content = Content.replaceAll(codes[i], substitutions[i]);
-			}
-		}
-
-        /**
-         * Finds the title of the HTML element, which is the name of the type of element
-         * @param item    The entire HTML element
-         */
-		private void findTitle(String item) {
-			int i, length;
-
-			length = item.length();
-			i = 0;
-
-			while(i < length && item.charAt(i) != '>' && item.charAt(i) != ' ')
-				i++;
-			Title = item.substring(1, i);
-		}
-
-        /**
-         * Finds the content of the element, which is the information in between
-         * the two item title tags
-         * @param item    		The entire HTML element
-         * @param elementTitle	The title of the current element
-         */
-		private void findContent(String item, String elementTitle) {
-			int i, j, record,
-					length, startLength, endLength;
-			String startSearch, endSearch;
-
-			i = 1;
-			record = 1;
-			length = item.length();
-			
-			while(i < length && item.charAt(i) != '>')
-				i++;
-
-            if(item.charAt(i-1) == '/')
-                Content = null;
-            else {
-            	startSearch = "<" + elementTitle;
-                endSearch = "</" + elementTitle + ">";
-                startLength = startSearch.length();
-                endLength = endSearch.length();
-                j = ++i;
-
-				while (record != 0) {
-					if (item.substring(i, i + endLength).equals(endSearch))
-						record--;
-					else if (item.substring(i, i + startLength).equals(startSearch))
-						record++;
-					i++;
-				}
-
-                Content = item.substring(j, i-1);
-                cleanContent();
-            }
-		}
-
-		/**
-		 * Finds the child elements of the element
-		 * Requires that Content be found first
-		 */
-		private void findChildElements() {
-			int i, j,								//i:		index for parsing item
-													//j:		placeholder for i
-					count,							//count:	counts the number of childElement
-													//			tags that appear inside an element
-					contentLength;					//contentLength: length of the entire element's
-													//				 content
-			boolean step1, step2, step3, step4;		//step1:	find tag opener: '<'
-													//step2:	find end of tag name
-													//step3:	find end of tag: '>'
-													//step4:	find end of element
-			String startWord, endWord;				//startWord: the opening tag of a child element
-													//endWord: the closing tag of the child element
-			HTMLElement htmlElement;		//an HTMLElement to add to the list of child elements
-
-			i = 0;
-			j = -1;
-			count = -1;
-			step1 = true;
-			step2 = false;
-			step3 = false;
-			step4 = false;
-			startWord = null;
-			endWord = null;
-
-			if(Content != null) {
-				contentLength = Content.length();
-				while(i < contentLength) {
-					if(step1 && Content.charAt(i) == '<') {	//finding tag opener
-						step1 = false;
-						step2 = true;
-						j = i;
-					}
-					if(step2)								//finding end of tag name
-						if(Content.charAt(i) == ' ' || Content.charAt(i) == '>' || Content.charAt(i) == '/') {
-							startWord = "<" + Content.substring(j+1, i);
-							endWord = "</" + Content.substring(j+1, i) + ">";
-							count = 1;
-							step2 = false;
-							step3 = true;
-						}
-					if(step3 && Content.charAt(i) == '>') {	//finding end of tag
-						if(Content.charAt(i-1) == '/') {
-							htmlElement = new HTMLElement(Content.substring(j, i+1));
-							ChildElementList.add(htmlElement);
-							count = -1;
-							step1 = true;
-						}
-						else
-							step4 = true;
-						step3 = false;
-					}
-					if(step4) {								//finding end of element
-						if (i + startWord.length() <= Content.length() &&
-								Content.substring(i, i + startWord.length()).equals(startWord))
-							count++;
-						else if (i + endWord.length() <= Content.length() &&
-								Content.substring(i, i + endWord.length()).equals(endWord))
-							count--;
-						if (count == 0) {
-							htmlElement = new HTMLElement(Content.substring(j, i + endWord.length()));
-							ChildElementList.add(htmlElement);
-							count = -1;
-							step4 = false;
-							step1 = true;
-						}
-					}
-
-					i++;
-				}
-			}
-		}
-
-        /**
-         * Finds the attributes associated with the HTML element
-         * These attributes are the items inside the header element title tag,
-         * which generally include the style, format, layout, and other
-         * general aspects of the HTML element
-         * @param item    The entire HTML element
-         */
-		private void findAttributes(String item) {
-			int i, j,
-					length;
-            boolean record;
-			String attribute;
-
-			i = 0;
-			j = -1;
-            record = false;
-			length = item.length();
-			while(i < length && item.charAt(i) != ' ' && item.charAt(i) != '>')
-				i++;
-
-			while(i < length && item.charAt(i) != '>') {
-				if(item.charAt(i) != ' ' && j < 0)
-					j = i;
-				else if(j >= 0 && item.charAt(i) == '\"' && !record)
-					record = true;
-				else if(j >= 0 && item.charAt(i) == '\"' && record) {
-					attribute = item.substring(j, i+1);
-					AttributeList.add(attribute);
-					j = -1;
-					record = false;
-				}
-
-				i++;
-			}
-		}
-
-        /**
-         * Retrieves the title of the HTML element
-         * @return  The title of the element
-         */
-		public String getTitle() {
-			return Title;
-		}
-
-        /**
-         * Retrieves the content inside of the HTML element
-         * This content can include text or other HTML elements
-         * @return  The content in the HTML element
-         */
-		public String getContent() {
-			return Content;
-		}
-
-		/**
-		 * Retrieves the child elements inside of the HTML element
-		 * @return  The child elements of the HTML element
-		 */
-		public ArrayList<HTMLElement> getChildElementList() {
-			return ChildElementList;
-		}
-
-        /**
-         * Finds the attribute specified by attributeName and returns the value associated
-         * with this attribute
-         * @param attributeName    The attribute to find
-         * @return  The value associated with the attribute
-         */
-		public String getAttributeValue(String attributeName) {
-			int i, length;
-			String current;
-
-			length = attributeName.length();
-			for(i = 0; i < AttributeList.size(); i++) {
-				current = AttributeList.get(i);
-				if(length < current.length() &&
-                        current.substring(0, length).equals(attributeName))
-                    return current.substring(length + 2, current.length() - 1);
-			}
-			return null;
-		}
-	}
-
-	private String HTML, query;     //HTML: the HTML document which intialized the HTMLStringFactory
-                                    //      class
-                                    //query: the current focus in the entire HTML document; this
-                                    //       focus can be the entire HTML document, or a particular
-                                    //       element inside the HTML document
-
-	private int elementStartIndex, elementEndIndex; //elementStartIndexx: The starting index of the
-                                                    //                    current element in the
-                                                    //                    entire HTMl
-                                                    //elementEndIndex:    The ending index of the
-                                                    //                    current element in the
-                                                    //                    entire HTMl
-	private String elementType; //The title of the current element
-
-    /**
-     * Constructs an instance of the HTMLStringFactory
-     * @param HTML    The HTML code of the document
-     */
-	public HTMLStringFactory(String HTML) {
-		this.HTML = HTML;
-		query = HTML;
-	}
-
-    /**
-     * Loads the ending index of the HTML element
-     * @param startIndex    The starting index of the element in question
-     * @param type          The title of the current element
-     */
-	private void loadEndIndex(int startIndex, String type) {
-		int i, HTMLLength,
-				length, startElementLength, numStartElement;
-		String search, secondarySearch, startElement;
-
-		search = "/" + type + ">";
-		secondarySearch = "/>";
-		startElement = "<" + type;
-		length = search.length();
-		startElementLength = startElement.length();
-		numStartElement = 1;
-		HTMLLength = query.length();
-		i = startIndex + startElementLength;
-
-		while(query.charAt(i) != '>')
-            i++;
-        if(query.charAt(i-1) == '/') {
-            search = secondarySearch;;
-            length = search.length();
-        }
-
-		while(numStartElement > 0) {
-			if(query.substring(i, i + startElementLength).equals(startElement))
-				numStartElement++;
-
-			else if(i+length <= HTMLLength && query.substring(i, i + length).equals(search))
-				numStartElement--;
-
-			i++;
-		}
-
-        elementEndIndex = i + length - 1;
-	}
-
-	/**
-     * Loads an element by parsing the current query, searching for the specified ID
-     *
-     * @param id    The ID attribute of the element
-     * @throws HTMLParseException   Thrown when an element of the specified ID is not found
-     *                              in the current query
-     */
-	public void loadElementById(String id)  throws HTMLParseException {
-		int i,
-				HTMLLength, length;
-		String search;
-
-		i = 0;
-		search = "name=\""+id+"\"";
-		length = search.length();
-		HTMLLength = query.length();
-
-		while(i+length <= HTMLLength && !query.substring(i, i+length).equals(search))
-			i++;
-		if(i+length <= HTMLLength) {
-			while(query.charAt(i) != '<')
-				i--;
-			elementStartIndex = i;
-
-			while(query.charAt(i) != ' ')
-				i++;
-			elementType = query.substring(elementStartIndex+1, i);
-
-			loadEndIndex(elementStartIndex, elementType);
-
-            query = HTML.substring(elementStartIndex, elementEndIndex);
-		}
-		else
-			throw new HTMLParseException("loadElementById(): No match found for: " + id);
-			//System.out.println("loadElementById(): No match found for: " + id);
-	}
-
-	/**
-     * Resets the query to the entire HTML and then searches for the element with the specified ID
-     * @param id    The
-     * @throws HTMLParseException   Thrown when an element of the specified ID is not found in the
-     *                              entire document
-     */
-    public void loadNewElementById(String id) throws HTMLParseException {
-        query = HTML;
-        elementType = null;
-        elementStartIndex = 0;
-        elementEndIndex = 0;
-        loadElementById(id);
-    }
-
-    /**
-     * Loads an element by parsing the current query, searching for an element of the specified
-     * type at the specified index
-     * Index of 0 indicates the first element of the type in the document
-     * @param type	The type of element for which to search the document
-     * @param index	The number of the element to search for
-     * @throws HTMLParseException	Thrown if no element is found at the specified index
-     */
-	public void loadElementByTypeAndIndex(String type, int index) throws HTMLParseException {
-		int i, record,
-				queryLength, numElements,
-				length, endLength;
-		String search, endSearch, errMessage;
-		HTMLElement element;
-		
-		if(elementType != null && elementType.equals(type)) {
-			element = new HTMLElement(query);
-			query = element.getContent();
-		}
-
-		i = 0;
-		record = 0;
-		search = "<" + type;
-		endSearch = "</" + type + ">";
-		length = search.length();
-		endLength = endSearch.length();
-		queryLength = query.length();
-		numElements = -1;
-
-		while(i+length <= queryLength && i+endLength <= queryLength
-				&& numElements < index) {
-			if(query.substring(i, i+length).equals(search)) {
-				if(record == 0)
-					numElements++;
-				record++;
-			}
-			else if(query.substring(i, i+endLength).equals(endSearch))
-				record--;
-			
-			/* if(query.substring(i, i+length).equals(search))
-				numElements++; */
-			i++;
-		}
-		//if(i+length <= HTMLLength) {
-		if(numElements == index) {
-			elementStartIndex = --i;
-
-			while(query.charAt(i) != ' ' && query.charAt(i) != '>')
-				i++;
-			elementType = query.substring(elementStartIndex+1, i);
-
-			loadEndIndex(elementStartIndex, elementType);
-
-            query = query.substring(elementStartIndex, elementEndIndex);
-		}
-		else {
-			errMessage = "loadElementByTypeAndIndex(): Index out of bounds";
-			errMessage += "\nElement of type \"" + type + "\" at index \"" + index + "\" not found";
-			errMessage += "\nMaximum number of elements of current type: " + numElements;
-			throw new HTMLParseException(errMessage);
-			/* System.out.println("loadElementByTypeAndIndex(): Index out of bounds");
-			System.out.println("Element of type \"" + type + "\" at index \"" + index + "\" not found");
-			System.out.println("Maximum number of elements of current type: " + numElements);
-
-			return false; */
-		}
-
-	}
-
-	/**
-	 * Resets the query to the entire HTML and then searches for the element with the specified type
-	 * at the specified index
-	 * @param type	The type of element for which to search the document
-	 * @param index	The number of the element to search for
-	 * @throws HTMLParseException	Thrown if no element is found at the specified index
-	 */
-    public void loadNewElementByTypeAndIndex(String type, int index) throws HTMLParseException {
-        query = HTML;
-        elementType = null;
-        elementStartIndex = 0;
-        elementEndIndex = 0;
-        loadElementByTypeAndIndex(type, index);
-    }
-
-    /**
-     * Parses through the current query and retrieves all the elements displayed in the drop-down list
-     * @return	2 lists, one containing all of the options of the drop-down list, and the second
-     * 			of all of the values of all of the options of the list
-     * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
-     * 								is not of the correct type
-     */
-    public ArrayList[] getDropDownItemsAndValues() throws HTMLParseException {
-        int i, j,
-                elementLength, endWordLength, startKeyWordLength, endKeyWordLength;
-        String element, startWord, endWord, startKeyWord, endKeyWord;
-        HTMLElement item;
-        ArrayList<HTMLElement> DropDownItems;
-        ArrayList<String> DropDownStrings;
-
-        //element = HTML.substring(elementStartIndex, elementEndIndex);
-        element = query;
-        startWord = "select";
-        endWord = "</select>";
-        startKeyWord = "<option";
-        endKeyWord = "</option>";
-        endWordLength = endWord.length();
-        startKeyWordLength = startKeyWord.length();
-        endKeyWordLength = endKeyWord.length();
-        DropDownItems = new ArrayList<>();
-        DropDownStrings = new ArrayList<>();
-        ArrayList[] itemValuePairs = new ArrayList[2];
-
-        if(elementType == null)
-        	throw new HTMLParseException("getDropDownItems(): No element loaded");
-
-        if(!elementType.equals(startWord))
-        	throw new HTMLParseException("getDropDownItems(): Element is not of type \"select\"");
-
-        i = 0;
-        j = -1;
-        elementLength = element.length();
-        while(i+endWordLength < elementLength && !element.substring(i, i+endWordLength).equals(endWord)) {
-            if(element.substring(i, i+startKeyWordLength).equals(startKeyWord))
-                j = i;
-            else if(element.substring(i, i+endKeyWordLength).equals(endKeyWord)) {
-                item = new HTMLElement(element.substring(j, i+endKeyWordLength));
-                DropDownItems.add(item);
-                j = -1;
-            }
-
-            i++;
-        }
-        for(HTMLElement in : DropDownItems)
-            DropDownStrings.add(in.getContent());
-
-        itemValuePairs[0] = DropDownStrings;
-        itemValuePairs[1] = DropDownItems;
-
-        return itemValuePairs;
-    }
-
-    /**
-     * Parses through the current query and retrieves all the elements displayed in the table
-     * @return	A list of all of the rows in the table in, each row containing the individual
-	 * 			HTMLElement for each table cell
-     * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
-     * 								is not of the correct type
-     */
-	public ArrayList<ArrayList> getTableElements() throws HTMLParseException {
-		int i, j,
-				elementLength, endWordLength,
-				startKeyWordLength, startCellWordLength, endCellWordLength;
-		String element, endWord,
-				startKeyWord, startCellWord_1, startCellWord_2,
-				endCellWord_1, endCellWord_2;
-		HTMLElement item;
-		ArrayList<ArrayList> tableRows;
-		ArrayList<HTMLElement> singleTableRow;
-		ArrayList<String> singleTableRowString;
-
-		element = query;
-		endWord = "</table>";
-		startKeyWord = "<tr";
-		startCellWord_1 = "<td";
-		endCellWord_1 = "</td>";
-		startCellWord_2 = "<th";
-		endCellWord_2 = "</th>";
-		elementLength = element.length();
-		endWordLength = endWord.length();
-		startKeyWordLength = startKeyWord.length();
-		startCellWordLength = startCellWord_1.length();
-		endCellWordLength = endCellWord_1.length();
-		tableRows = new ArrayList<>();
-		singleTableRow = null;
-		singleTableRowString = null;
-
-		i = 0;
-		j = -1;
-
-		if(elementType == null)
-			throw new HTMLParseException("getTableElements(): No element loaded");
-
-		if(!elementType.equals("table"))
-			throw new HTMLParseException("getTableElements(): Loaded element not of type \"table\"");
-
-		while(i+endWordLength < elementLength) {
-			if(element.substring(i, i+startKeyWordLength).equals(startKeyWord)) {
-				singleTableRow = new ArrayList<>();
-				singleTableRowString = new ArrayList<>();
-				tableRows.add(singleTableRow);
-			}
-
-			else if(element.substring(i, i+startCellWordLength).equals(startCellWord_1) ||
-					element.substring(i, i+startCellWordLength).equals(startCellWord_2))
-				j = i;
-			else if(element.substring(i, i+endCellWordLength).equals(endCellWord_1) ||
-					element.substring(i, i+endCellWordLength).equals(endCellWord_2)) {
-				item = new HTMLElement(element.substring(j, i+endCellWordLength));
-				singleTableRow.add(item);
-				singleTableRowString.add(item.getContent());
-			}
-
-			i++;
-		}
-		return tableRows;
-	}
-
-	/**
-	 * Converts the string query into an HTMLElement object
-	 * @return	The converted HTMLElement object
-	 */
-    public HTMLElement getElement() {
-        return new HTMLElement(query);
-    }
-}
\ No newline at end of file
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * HTMLStringFactory helper class handles HTML pages
+ * Provides an interface to retrieve HTML elements in the page
+ *
+ * Created by Saumil Shah
+ */
+public class HTMLStringFactory {
+
+    /**
+     * HTMLElement class makes up a single element in the HTML page provided
+     * Provides an interface to retrieve attributes of the element
+     *
+     * An HTMLElement only holds the range of the element in the document it was found in;
+     * its content, attributes and child elements are parsed the first time they are requested,
+     * so elements that are never looked at cost close to nothing
+     * An HTMLElement should not be shared between threads until it has been fully parsed
+     *
+     * Created by Saumil Shah
+     */
+	public static class HTMLElement {
+		private static final int ATTRIBUTE_FIELDS = 5;	//The number of ints stored for each attribute
+		private static final int NAME_HASH = 0, NAME_START = 1, NAME_END = 2,	//The position of each
+				VALUE_START = 3, VALUE_END = 4;									//field of an attribute
+
+		private CharSequence Source;            //The document containing the element
+		private int elementStart, elementEnd;   //The range of the entire element in Source
+		private int titleStart, titleEnd;       //The range of the title in Source
+		private int contentStart, contentEnd;   //The range of the content in Source; contentStart is
+                                                //-1 until found, and contentEnd is -1 if the element
+                                                //closes itself
+
+		private String Title, Content;          //Title: the type of element
+                                                //Content: the contents in between the element tags
+                                                //Both are null until first requested
+		private int[] Attributes;           //The attributes of the element, located in its opening tag,
+                                            //as ATTRIBUTE_FIELDS ints each: the hash of the name,
+                                            //then the ranges of the name and value in Source
+                                            //null until first requested
+		private String[] AttributeValues;   //The values of the attributes, copied the first time
+                                            //each is requested
+
+		private ArrayList<HTMLElement> ChildElementList;	//The list of child elements
+
+        /**
+         * Constructs an instance of a single HTMLElement
+         *
+         * @param item    The String element retrieved from the HTML document
+         * @throws HTMLParseException   Thrown if the item does not contain an opening tag
+         */
+		public HTMLElement(String item) throws HTMLParseException {
+			this(item, 0, item.length());
+		}
+
+        /**
+         * Constructs an instance of a single HTMLElement from a range of a document, without
+         * copying any part of the document
+         *
+         * @param source    The HTML document containing the element
+         * @param start     The index at which the element starts
+         * @param end       The index just past the end of the element
+         * @throws HTMLParseException   Thrown if the range does not contain an opening tag
+         */
+		public HTMLElement(CharSequence source, int start, int end) throws HTMLParseException {
+			HTMLParseListener listener;
+
+			Source = source;
+			elementEnd = end;
+			contentStart = -1;
+			findTitle(new HTMLTokenizer(), start);
+
+			listener = HTMLStringFactory.listener;
+			if(listener != null)
+				listener.elementCreated();
+		}
+
+        /**
+         * Constructs an instance of a single HTMLElement whose tags have already been found
+         *
+         * @param source        The HTML document containing the element
+         * @param tokenizer     A tokenizer on the opening tag of the element
+         * @param contentEnd    The index at which the closing tag of the element starts, or -1 if
+         *                      the element closes itself
+         * @param end           The index just past the end of the element
+         */
+		HTMLElement(CharSequence source, HTMLTokenizer tokenizer, int contentEnd, int end) {
+			HTMLParseListener listener;
+
+			Source = source;
+			elementStart = tokenizer.getTokenStart();
+			elementEnd = end;
+			titleStart = tokenizer.getNameStart();
+			titleEnd = tokenizer.getNameEnd();
+			contentStart = tokenizer.getTokenEnd();
+			this.contentEnd = contentEnd;
+
+			listener = HTMLStringFactory.listener;
+			if(listener != null)
+				listener.elementCreated();
+		}
+
+        /**
+         * Cleans the content of the HTML element i.e. replaces all the special character
+         * entities with the actual special characters
+         * &nbsp; is removed rather than replaced, as it always has been
+         */
+		private void cleanContent() {
+			if(Content != null)
+				Content = HTMLEntityDecoder.decode(Content, true);
+		}
+
+        /**
+         * Finds the title of the HTML element, which is the name of the type of element
+         * @param tokenizer    A tokenizer to use for parsing
+         * @param start        The index from which to look for the opening tag
+         * @throws HTMLParseException   Thrown if no opening tag is found
+         */
+		private void findTitle(HTMLTokenizer tokenizer, int start) throws HTMLParseException {
+			int type;
+
+			tokenizer.reset(Source, start, elementEnd);
+			while((type = tokenizer.next()) != HTMLTokenizer.START_TAG)
+				if(type == HTMLTokenizer.END_OF_INPUT)
+					throw new HTMLParseException("HTMLElement(): No opening tag found");
+
+			elementStart = tokenizer.getTokenStart();
+			titleStart = tokenizer.getNameStart();
+			titleEnd = tokenizer.getNameEnd();
+		}
+
+        /**
+         * Finds the range of the content of the element, which is the information in between
+         * the two item title tags
+         * @throws HTMLParseException   Thrown if the element is never closed
+         */
+		private void findContent() throws HTMLParseException {
+			int start;
+			HTMLTokenizer tokenizer;
+			HTMLParseListener listener;
+
+			if(contentStart >= 0)
+				return;
+
+			tokenizer = new HTMLTokenizer();
+			tokenizer.reset(Source, elementStart, elementEnd);
+			tokenizer.next();
+			start = tokenizer.getTokenEnd();
+			if(tokenizer.isSelfClosing())
+				contentEnd = -1;
+			else if(tokenizer.skipToMatchingEndTag())
+				contentEnd = tokenizer.getTokenStart();
+			else
+				throw new HTMLParseException("HTMLElement(): No closing tag found for \"" + getTitle() + "\"");
+			contentStart = start;
+
+			listener = HTMLStringFactory.listener;
+			if(listener != null)
+				listener.documentScanned(tokenizer.getTokenEnd() - elementStart);
+		}
+
+		/**
+		 * Finds the child elements of the element
+		 * Each child only records where it is in the document; nothing inside the
+		 * child is parsed until it is requested
+		 */
+		private void findChildElements() {
+			int childStart;							//childStart: the index of the opening tag of a child
+			HTMLTokenizer tokenizer;
+			HTMLElement htmlElement;		//an HTMLElement to add to the list of child elements
+			HTMLParseListener listener;
+
+			findContent();
+			ChildElementList = new ArrayList<>();
+			listener = HTMLStringFactory.listener;
+			if(listener != null)
+				listener.elementParsed();
+			if(contentEnd < 0)
+				return;
+
+			tokenizer = new HTMLTokenizer();
+			tokenizer.reset(Source, contentStart, contentEnd);
+			while(tokenizer.next() != HTMLTokenizer.END_OF_INPUT) {
+				if(tokenizer.getTokenType() == HTMLTokenizer.START_TAG) {
+					if(tokenizer.isSelfClosing()) {
+						htmlElement = new HTMLElement(Source, tokenizer, -1, tokenizer.getTokenEnd());
+						ChildElementList.add(htmlElement);
+						continue;
+					}
+
+					childStart = tokenizer.getTokenStart();
+					htmlElement = new HTMLElement(Source, tokenizer, -1, -1);
+					if(!tokenizer.skipToMatchingEndTag())	//the rest of the content is inside an
+						break;								//element which is never closed
+					htmlElement.contentEnd = tokenizer.getTokenStart();
+					htmlElement.elementEnd = tokenizer.getTokenEnd();
+					ChildElementList.add(htmlElement);
+				}
+			}
+
+			if(listener != null)
+				listener.documentScanned(tokenizer.getTokenEnd() - contentStart);
+		}
+
+        /**
+         * Finds the attributes associated with the HTML element
+         * These attributes are the items inside the header element title tag,
+         * which generally include the style, format, layout, and other
+         * general aspects of the HTML element
+         * Only the ranges of the names and values are recorded; nothing is copied
+         */
+		private void findAttributes() {
+			int count, i;
+			int[] attributes;
+			HTMLTokenizer tokenizer;
+			HTMLParseListener listener;
+
+			listener = HTMLStringFactory.listener;
+			if(listener != null)
+				listener.elementParsed();
+
+			tokenizer = new HTMLTokenizer();
+			tokenizer.reset(Source, elementStart, elementEnd);
+			tokenizer.next();
+
+			attributes = new int[4 * ATTRIBUTE_FIELDS];
+			count = 0;
+			while(tokenizer.nextAttribute()) {
+				if((count + 1) * ATTRIBUTE_FIELDS > attributes.length)
+					attributes = HTMLNameTable.grow(attributes, attributes.length * 2);
+				i = count++ * ATTRIBUTE_FIELDS;
+				attributes[i + NAME_HASH] = HTMLNameTable.hash(Source, tokenizer.getAttributeNameStart(),
+						tokenizer.getAttributeNameEnd());
+				attributes[i + NAME_START] = tokenizer.getAttributeNameStart();
+				attributes[i + NAME_END] = tokenizer.getAttributeNameEnd();
+				attributes[i + VALUE_START] = tokenizer.getAttributeValueStart();
+				attributes[i + VALUE_END] = tokenizer.getAttributeValueEnd();
+			}
+
+			AttributeValues = new String[count];
+			Attributes = Arrays.copyOf(attributes, count * ATTRIBUTE_FIELDS);
+		}
+
+        /**
+         * Parses the title, attributes and child elements of the element, without parsing
+         * inside any of the children
+         * @throws HTMLParseException   Thrown if the element is never closed
+         */
+		void parseElement() throws HTMLParseException {
+			getTitle();
+			if(Attributes == null)
+				findAttributes();
+			if(ChildElementList == null)
+				findChildElements();
+		}
+
+        /**
+         * Retrieves the number of characters the element spans in the document
+         * @return  The length of the entire element, including its tags
+         */
+		int getLength() {
+			return elementEnd - elementStart;
+		}
+
+        /**
+         * Retrieves the title of the HTML element
+         * @return  The title of the element
+         */
+		public String getTitle() {
+			if(Title == null)
+				Title = Source.subSequence(titleStart, titleEnd).toString();
+			return Title;
+		}
+
+        /**
+         * Retrieves the content inside of the HTML element
+         * This content can include text or other HTML elements
+         * @return  The content in the HTML element, or null if the element closes itself
+         * @throws HTMLParseException   Thrown if the element is never closed
+         */
+		public String getContent() throws HTMLParseException {
+			HTMLParseListener listener;
+
+			findContent();
+			if(Content == null && contentEnd >= 0) {
+				Content = Source.subSequence(contentStart, contentEnd).toString();
+				cleanContent();
+				listener = HTMLStringFactory.listener;
+				if(listener != null)
+					listener.elementParsed();
+			}
+			return Content;
+		}
+
+        /**
+         * Retrieves the content inside of the HTML element exactly as it is in the document,
+         * without replacing any special character entities
+         * @return  The content in the HTML element, or null if the element closes itself
+         * @throws HTMLParseException   Thrown if the element is never closed
+         */
+		public String getRawContent() throws HTMLParseException {
+			findContent();
+			if(contentEnd < 0)
+				return null;
+			return Source.subSequence(contentStart, contentEnd).toString();
+		}
+
+		/**
+		 * Retrieves the child elements inside of the HTML element
+		 * @return  The child elements of the HTML element
+		 * @throws HTMLParseException   Thrown if the element is never closed
+		 */
+		public ArrayList<HTMLElement> getChildElementList() throws HTMLParseException {
+			if(ChildElementList == null)
+				findChildElements();
+			return ChildElementList;
+		}
+
+        /**
+         * Finds the attribute specified by attributeName and returns the value associated
+         * with this attribute
+         * The name must match exactly; the value may be in double quotes, single quotes, or
+         * no quotes at all
+         * @param attributeName    The attribute to find
+         * @return  The value associated with the attribute, or null if the element does not
+         *          have the attribute
+         */
+		public String getAttributeValue(String attributeName) {
+			int i, hash;
+
+			if(Attributes == null)
+				findAttributes();
+
+			if(Source instanceof HTMLByteSequence)		//the names were hashed the way the bytes are read
+				hash = HTMLByteSequence.encode(attributeName).hashCode();
+			else
+				hash = attributeName.hashCode();
+			for(i = 0; i < Attributes.length; i += ATTRIBUTE_FIELDS) {
+				if(Attributes[i + NAME_HASH] == hash && HTMLTokenizer.regionMatches(Source,
+						Attributes[i + NAME_START], Attributes[i + NAME_END], attributeName)) {
+					if(AttributeValues[i / ATTRIBUTE_FIELDS] == null)
+						AttributeValues[i / ATTRIBUTE_FIELDS] = Source.subSequence(Attributes[i + VALUE_START],
+								Attributes[i + VALUE_END]).toString();
+					return AttributeValues[i / ATTRIBUTE_FIELDS];
+				}
+			}
+			return null;
+		}
+	}
+
+	private static volatile HTMLParseListener listener;	//Told where parsing time goes; null when
+															//nobody is listening
+
+	private HTMLDocument document;  //The HTML document which intialized the HTMLStringFactory class
+	private HTMLScope scope;        //The current focus in the entire HTML document; this focus can
+                                    //be the entire HTML document, or a particular element inside
+                                    //the HTML document
+
+    /**
+     * Constructs an instance of the HTMLStringFactory
+     * @param HTML    The HTML code of the document
+     */
+	public HTMLStringFactory(String HTML) {
+		this(HTML, false);
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory, optionally indexing the document
+     * Indexing reads through the entire document once up front, after which finding an element
+     * by type and index, or finding the end of any element, no longer rescans the document
+     * @param HTML       The HTML code of the document
+     * @param indexed    Whether to index the document
+     */
+	public HTMLStringFactory(String HTML, boolean indexed) {
+		this((CharSequence) HTML, indexed);
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over a file, without reading the file
+     * into a String
+     * The file is mapped into memory and read as UTF-8; see HTMLByteSequence
+     * @param file    The HTML file
+     * @throws IOException  Thrown if the file cannot be opened or mapped
+     */
+	public HTMLStringFactory(Path file) throws IOException {
+		this(file, false);
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over a file, optionally indexing the document
+     * @param file       The HTML file
+     * @param indexed    Whether to index the document
+     * @throws IOException  Thrown if the file cannot be opened or mapped
+     */
+	public HTMLStringFactory(Path file, boolean indexed) throws IOException {
+		this(HTMLByteSequence.map(file), indexed);
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over UTF-8 bytes, without decoding them
+     * into a String first
+     * Tags and attributes are matched as bytes; only the content and attribute values actually
+     * retrieved are decoded
+     * @param HTML    The HTML code of the document, encoded as UTF-8
+     */
+	public HTMLStringFactory(byte[] HTML) {
+		this(HTML, false);
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over UTF-8 bytes, optionally indexing the document
+     * @param HTML       The HTML code of the document, encoded as UTF-8
+     * @param indexed    Whether to index the document
+     */
+	public HTMLStringFactory(byte[] HTML, boolean indexed) {
+		this(new HTMLDocument(HTML, indexed));
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over the remaining UTF-8 bytes of a buffer,
+     * such as one read from a network channel, optionally indexing the document
+     * @param HTML       The HTML code of the document, encoded as UTF-8
+     * @param indexed    Whether to index the document
+     */
+	public HTMLStringFactory(ByteBuffer HTML, boolean indexed) {
+		this(new HTMLDocument(HTML, indexed));
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over any sequence of characters, such as
+     * an HTMLByteSequence, without copying it
+     * @param HTML       The HTML code of the document
+     * @param indexed    Whether to index the document
+     */
+	public HTMLStringFactory(CharSequence HTML, boolean indexed) {
+		this(new HTMLDocument(HTML, indexed));
+	}
+
+    /**
+     * Constructs an instance of the HTMLStringFactory over a document which has already been
+     * parsed, such as one shared between threads
+     * Each thread should use its own HTMLStringFactory; the document itself is never changed
+     * @param document    The document
+     */
+	public HTMLStringFactory(HTMLDocument document) {
+		this.document = document;
+		scope = document.getRoot();
+	}
+
+	/**
+     * Loads an element by parsing the current query, searching for the specified ID
+     *
+     * @param id    The ID attribute of the element
+     * @throws HTMLParseException   Thrown when an element of the specified ID is not found
+     *                              in the current query
+     */
+	public void loadElementById(String id)  throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			scope = scope.loadElementById(id);
+		}
+		finally {
+			stopTimer("loadElementById", start);
+		}
+	}
+
+	/**
+	 * Loads an element by parsing the current query, searching for an element with the specified
+	 * value of the specified attribute
+	 * Indexed attributes are looked up in the attribute index, which is built the first time
+	 * it is needed; any other attribute is searched for by scanning the query
+	 * @param attributeName    The name of the attribute, such as "id" or "class"
+	 * @param value            The value of the attribute
+	 * @throws HTMLParseException   Thrown when no element with the value is found in the current query
+	 */
+	public void loadElementByAttribute(String attributeName, String value) throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			scope = scope.loadElementByAttribute(attributeName, value);
+		}
+		finally {
+			stopTimer("loadElementByAttribute", start);
+		}
+	}
+
+	/**
+	 * Resets the query to the entire HTML and then searches for the element with the specified
+	 * value of the specified attribute
+	 * @param attributeName    The name of the attribute, such as "id" or "class"
+	 * @param value            The value of the attribute
+	 * @throws HTMLParseException   Thrown when no element with the value is found in the
+	 *                              entire document
+	 */
+	public void loadNewElementByAttribute(String attributeName, String value) throws HTMLParseException {
+		resetQuery();
+		loadElementByAttribute(attributeName, value);
+	}
+
+	/**
+	 * Sets which attributes other than id and name are put in the attribute index, so that
+	 * loadElementByAttribute() can find them without scanning the document
+	 * @param attributeNames    The extra attributes to index
+	 */
+	public void setExtraIndexedAttributes(String... attributeNames) {
+		document = document.withExtraIndexedAttributes(attributeNames);
+		scope = new HTMLScope(document, scope.getQueryStart(), scope.getQueryEnd(), scope.getElementType(),
+				scope.getElementStart(), scope.getElementEnd(), scope.getContentStart(), scope.getContentEnd());
+	}
+
+	/**
+	 * Replaces part of the HTML code, re-reading only as much of the document as the edit
+	 * changes; see HTMLDocument.edit()
+	 * The query is reset to the entire HTML, as the edit may have moved the loaded element
+	 * @param offset		The index at which the edit starts
+	 * @param removedLength	The number of characters removed at offset
+	 * @param inserted		The text inserted at offset
+	 * @throws HTMLParseException	Thrown if the edit is outside the document
+	 */
+	public void edit(int offset, int removedLength, CharSequence inserted) throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			document = document.edit(offset, removedLength, inserted);
+			resetQuery();
+		}
+		finally {
+			stopTimer("edit", start);
+		}
+	}
+
+	/**
+     * Resets the query to the entire HTML and then searches for the element with the specified ID
+     * @param id    The
+     * @throws HTMLParseException   Thrown when an element of the specified ID is not found in the
+     *                              entire document
+     */
+    public void loadNewElementById(String id) throws HTMLParseException {
+        resetQuery();
+        loadElementById(id);
+    }
+
+    /**
+     * Loads an element by parsing the current query, searching for an element of the specified
+     * type at the specified index
+     * Index of 0 indicates the first element of the type in the document
+     * @param type	The type of element for which to search the document
+     * @param index	The number of the element to search for
+     * @throws HTMLParseException	Thrown if no element is found at the specified index
+     */
+	public void loadElementByTypeAndIndex(String type, int index) throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			scope = scope.narrowTo(type);	//the query stays narrowed even if nothing is found
+			scope = scope.loadElementByTypeAndIndex(type, index);
+		}
+		finally {
+			stopTimer("loadElementByTypeAndIndex", start);
+		}
+	}
+
+	/**
+	 * Resets the query to the entire HTML and then searches for the element with the specified type
+	 * at the specified index
+	 * @param type	The type of element for which to search the document
+	 * @param index	The number of the element to search for
+	 * @throws HTMLParseException	Thrown if no element is found at the specified index
+	 */
+    public void loadNewElementByTypeAndIndex(String type, int index) throws HTMLParseException {
+        resetQuery();
+        loadElementByTypeAndIndex(type, index);
+    }
+
+	/**
+	 * Installs a listener which is told where parsing time goes, for every document parsed
+	 * from then on by any thread; see HTMLParseListener
+	 * @param listener	The listener, or null to stop listening
+	 */
+	public static void setParseListener(HTMLParseListener listener) {
+		HTMLStringFactory.listener = listener;
+	}
+
+	/**
+	 * Retrieves the listener installed with setParseListener()
+	 * @return	The listener, or null if none is installed
+	 */
+	public static HTMLParseListener getParseListener() {
+		return listener;
+	}
+
+	/**
+	 * Starts timing a public method, if a listener is installed
+	 * @return	The current time in nanoseconds, or Long.MIN_VALUE if no listener is installed
+	 */
+	private static long startTimer() {
+		return listener != null ? System.nanoTime() : Long.MIN_VALUE;
+	}
+
+	/**
+	 * Reports the time a public method took to the listener
+	 * @param method	The name of the method
+	 * @param start		The time returned by startTimer()
+	 */
+	private static void stopTimer(String method, long start) {
+		HTMLParseListener listener;
+
+		listener = HTMLStringFactory.listener;
+		if(listener != null && start != Long.MIN_VALUE)
+			listener.methodCompleted(method, System.nanoTime() - start);
+	}
+
+    /**
+     * Resets the query to the entire HTML document, with no element loaded
+     */
+    private void resetQuery() {
+        scope = document.getRoot();
+    }
+
+	/**
+	 * Finds many elements of the entire document at once, in a single pass if the document is not
+	 * indexed, without changing the query
+	 * @param query	The elements to find; see HTMLBatchQuery
+	 * @return	The elements found, under the keys given to them in the query
+	 */
+	public Map<String, HTMLElement> extract(HTMLBatchQuery query) {
+		long start;
+
+		start = startTimer();
+		try {
+			return query.run(document);
+		}
+		finally {
+			stopTimer("extract", start);
+		}
+	}
+
+	/**
+	 * Finds every element in the current query which matches a CSS selector, such as
+	 * "table.report tr > td:nth-child(3)", without changing the query
+	 * @param selector	The selector; see HTMLSelector for what is supported
+	 * @return	The matching elements, in document order
+	 * @throws HTMLParseException	Thrown if the selector is not valid or not supported
+	 */
+	public ArrayList<HTMLElement> select(String selector) throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.select(selector);
+		}
+		finally {
+			stopTimer("select", start);
+		}
+	}
+
+    /**
+     * Parses through the current query and retrieves all the elements displayed in the drop-down list
+     * @return	2 lists, one containing all of the options of the drop-down list, and the second
+     * 			of all of the values of all of the options of the list
+     * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+     * 								is not of the correct type
+     */
+    public ArrayList[] getDropDownItemsAndValues() throws HTMLParseException {
+        long start;
+
+        start = startTimer();
+        try {
+        	return scope.getDropDownItemsAndValues();
+        }
+        finally {
+        	stopTimer("getDropDownItemsAndValues", start);
+        }
+    }
+
+    /**
+     * Finds the option of the drop-down list in the current query with the specified value, without
+     * parsing the options after it
+     * @param value	The value attribute of the option; an option without a value attribute is
+     * 				matched by its text instead
+     * @return	The option
+     * @throws HTMLParseException	Thrown if no element has been loaded, if the loaded element is
+     * 								not of the correct type, or if no option has the value
+     */
+    public HTMLElement getDropDownOption(String value) throws HTMLParseException {
+        long start;
+
+        start = startTimer();
+        try {
+        	return scope.getDropDownOption(value);
+        }
+        finally {
+        	stopTimer("getDropDownOption", start);
+        }
+    }
+
+    /**
+     * Parses through the current query and retrieves all the elements displayed in the table
+     * @return	A list of all of the rows in the table in, each row containing the individual
+	 * 			HTMLElement for each table cell
+     * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+     * 								is not of the correct type
+     */
+	public ArrayList<ArrayList> getTableElements() throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.getTableElements();
+		}
+		finally {
+			stopTimer("getTableElements", start);
+		}
+	}
+
+	/**
+	 * Retrieves the first rows of the table in the current query, reading the table no further
+	 * than the start of the row after the last one returned
+	 * @param maxRows	The most rows to retrieve
+	 * @return	A list of the rows, each row containing the individual HTMLElement for each cell
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public ArrayList<ArrayList> getTableElements(int maxRows) throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.getTableElements(maxRows);
+		}
+		finally {
+			stopTimer("getTableElements", start);
+		}
+	}
+
+	/**
+	 * Retrieves the rows of the table in the current query up to and including the first row which
+	 * passes the specified test, such as the row whose first cell reads "Total"
+	 * @param lastRow	The test, given the cells of each row once the row is complete
+	 * @return	A list of the rows, each row containing the individual HTMLElement for each cell; every
+	 * 			row of the table if no row passes the test
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public ArrayList<ArrayList> getTableElementsUntil(Predicate<? super ArrayList<HTMLElement>> lastRow)
+			throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.getTableElementsUntil(lastRow);
+		}
+		finally {
+			stopTimer("getTableElementsUntil", start);
+		}
+	}
+
+	/**
+	 * Iterates over the rows of the loaded table one at a time, without collecting them
+	 * Only the rows of the table itself are read; a table nested in a cell stays in that cell
+	 * The time reported to the listener is for the call itself; the rows are read afterwards, as
+	 * the iterator moves on
+	 * @return	An iterator of the rows, which reuses one HTMLTableRow for every row
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public HTMLTableRowIterator getTableRows() throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.getTableRows();
+		}
+		finally {
+			stopTimer("getTableRows", start);
+		}
+	}
+
+	/**
+	 * Streams the rows of the loaded table one at a time, without collecting them
+	 * The time reported to the listener is for the call itself; the rows are read afterwards, as
+	 * the stream is consumed
+	 * @return	A sequential Stream of the rows, which reuses one HTMLTableRow for every row
+	 * @throws HTMLParseException	Thrown if no element has been loaded, or if the loaded element
+	 * 								is not of the correct type
+	 */
+	public Stream<HTMLTableRow> getTableRowStream() throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.getTableRowStream();
+		}
+		finally {
+			stopTimer("getTableRowStream", start);
+		}
+	}
+
+	/**
+	 * Converts the string query into an HTMLElement object
+	 * @return	The converted HTMLElement object
+	 */
+    public HTMLElement getElement() {
+        return scope.getElement();
+    }
+
+	/**
+	 * Converts the string query into an HTMLElement object, parsing the entire tree of elements
+	 * inside it up front
+	 * When parsing in parallel, the children of large elements are parsed at the same time on
+	 * the common ForkJoinPool; the tree is the same either way
+	 * @param parallel	Whether to parse in parallel
+	 * @return	The converted HTMLElement object, with every element inside it already parsed
+	 * @throws HTMLParseException	Thrown if the element is never closed
+	 */
+	public HTMLElement getElement(boolean parallel) throws HTMLParseException {
+		long start;
+
+		start = startTimer();
+		try {
+			return scope.getElement(parallel);
+		}
+		finally {
+			stopTimer("getElement", start);
+		}
+	}
+
+	/**
+	 * Retrieves the parsed document, which can be shared with other threads
+	 * @return	The document
+	 */
+	public HTMLDocument getDocument() {
+		return document;
+	}
+
+	/**
+	 * Retrieves the current query and loaded element as an HTMLScope, which stays the same when
+	 * the HTMLStringFactory moves on
+	 * @return	The current scope
+	 */
+	public HTMLScope getScope() {
+		return scope;
+	}
+}
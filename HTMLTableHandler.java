@@ -0,0 +1,203 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayList;
+import java.util.function.Predicate;
+
+/**
+ * HTMLTableHandler collects the cells of a table from an HTMLStreamParser
+ * Each <tr> starts a new row, and each <td> or <th> is added to the current row as an HTMLElement,
+ * the same way HTMLStringFactory.getTableElements() lists them
+ *
+ * When parsing a document in memory, the cells are views into the document; when parsing a
+ * stream, the markup of each cell is copied as it goes by
+ *
+ * The handler can be told to stop after a number of rows, or after the row a caller is looking for,
+ * in which case the parser stops reading as soon as the next row starts
+ */
+public class HTMLTableHandler implements HTMLStreamHandler {
+
+	private CharSequence source;	//The document being parsed, if it is in memory; null for a stream
+	private int tableIndex;			//The table whose rows are collected; -1 to collect every row
+
+	private int tableCount;			//The number of tables found which are not nested in another table
+	private int tableDepth;			//The number of tables the parser is currently inside
+	private boolean inTable;		//Whether the parser is inside the table being collected
+	private boolean finished;		//Whether the table being collected has been closed, or the last
+									//row wanted has been collected
+	private int maxRows;			//The most rows to collect; -1 for no limit
+	private Predicate<? super ArrayList<HTMLElement>> lastRow;	//Picks out the last row to collect;
+																//null to collect every row
+
+	private ArrayList<ArrayList> tableRows;			//The rows collected so far
+	private ArrayList<HTMLElement> singleTableRow;	//The row currently being collected
+	private long cellStart;							//The offset of the last cell opened; -1 for none
+	private StringBuilder cellMarkup;				//The markup read since the last cell opened,
+													//when reading a stream
+
+	/**
+	 * Constructs a handler which collects every row in the stream
+	 */
+	public HTMLTableHandler() {
+		this(null, -1);
+	}
+
+	/**
+	 * Constructs a handler which collects the rows of one table in the stream
+	 * @param tableIndex	The table to collect; 0 is the first table which is not nested inside
+	 * 						another table
+	 */
+	public HTMLTableHandler(int tableIndex) {
+		this(null, tableIndex);
+	}
+
+	/**
+	 * Constructs a handler for a parser over a document in memory
+	 * @param source		The document being parsed
+	 * @param tableIndex	The table to collect, or -1 to collect every row
+	 */
+	HTMLTableHandler(CharSequence source, int tableIndex) {
+		this.source = source;
+		this.tableIndex = tableIndex;
+		inTable = tableIndex < 0;
+		cellStart = -1;
+		maxRows = -1;
+		tableRows = new ArrayList<>();
+	}
+
+	/**
+	 * Stops collecting once the specified number of rows have been collected
+	 * @param maxRows	The most rows to collect, or -1 for no limit
+	 * @return	This handler
+	 */
+	public HTMLTableHandler setMaxRows(int maxRows) {
+		this.maxRows = maxRows;
+		return this;
+	}
+
+	/**
+	 * Stops collecting after the first row which passes the specified test, such as the row whose
+	 * first cell holds a particular value
+	 * A row is only tested once it is complete, when the next row starts
+	 * @param lastRow	The test, given the cells of each row; null to collect every row
+	 * @return	This handler
+	 */
+	public HTMLTableHandler setLastRow(Predicate<? super ArrayList<HTMLElement>> lastRow) {
+		this.lastRow = lastRow;
+		return this;
+	}
+
+	@Override
+	public void startTag(CharSequence name, CharSequence token, long offset, boolean selfClosing) {
+		boolean table;
+
+		table = HTMLTokenizer.regionMatches(name, 0, name.length(), "table");
+		if(tableIndex >= 0 && table) {
+			if(tableDepth == 0 && tableCount++ == tableIndex && !selfClosing) {
+				inTable = true;		//the opening tag of the table itself is not part of its rows
+				tableDepth++;
+				return;
+			}
+			if(!selfClosing)
+				tableDepth++;
+		}
+		if(!inTable)
+			return;
+
+		if(HTMLTokenizer.regionMatches(name, 0, name.length(), "tr")) {
+			if(lastRowCollected()) {
+				finished = true;
+				return;
+			}
+			singleTableRow = new ArrayList<>();
+			tableRows.add(singleTableRow);
+		}
+		else if(HTMLTokenizer.regionMatches(name, 0, name.length(), "td")
+				|| HTMLTokenizer.regionMatches(name, 0, name.length(), "th")) {
+			cellStart = offset;
+			if(source == null)
+				cellMarkup = new StringBuilder();
+		}
+		capture(token);
+	}
+
+	@Override
+	public void endTag(CharSequence name, CharSequence token, long offset) {
+		HTMLElement item;
+
+		if(tableIndex >= 0 && HTMLTokenizer.regionMatches(name, 0, name.length(), "table") && tableDepth > 0) {
+			tableDepth--;
+			if(inTable && tableDepth == 0) {
+				inTable = false;
+				finished = true;
+				return;
+			}
+		}
+		if(!inTable)
+			return;
+
+		capture(token);
+		if(cellStart >= 0 && (HTMLTokenizer.regionMatches(name, 0, name.length(), "td")
+				|| HTMLTokenizer.regionMatches(name, 0, name.length(), "th"))) {
+			if(source != null)
+				item = new HTMLElement(source, (int) cellStart, (int) offset + token.length());
+			else
+				item = new HTMLElement(cellMarkup.toString());
+
+			if(singleTableRow == null) {		//a cell outside of any row
+				if(lastRowCollected()) {
+					finished = true;
+					return;
+				}
+				singleTableRow = new ArrayList<>();
+				tableRows.add(singleTableRow);
+			}
+			singleTableRow.add(item);
+		}
+	}
+
+	@Override
+	public void text(CharSequence text, long offset) {
+		if(inTable)
+			capture(text);
+	}
+
+	@Override
+	public void comment(CharSequence token, long offset) {
+		if(inTable)
+			capture(token);
+	}
+
+	/**
+	 * Checks whether the rows collected so far are all the rows wanted, before another row is started
+	 * @return	True if the row limit has been reached, or the current row is the last one wanted
+	 */
+	private boolean lastRowCollected() {
+		return (maxRows >= 0 && tableRows.size() >= maxRows)
+				|| (lastRow != null && singleTableRow != null && lastRow.test(singleTableRow));
+	}
+
+	/**
+	 * Copies markup belonging to the last cell opened, when reading a stream
+	 * @param token	The markup to copy
+	 */
+	private void capture(CharSequence token) {
+		if(cellMarkup != null)
+			cellMarkup.append(token);
+	}
+
+	@Override
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Retrieves the rows collected
+	 * @return	A list of all of the rows in the table in, each row containing the individual
+	 * 			HTMLElement for each table cell
+	 */
+	public ArrayList<ArrayList> getTableRows() {
+		return tableRows;
+	}
+}
@@ -0,0 +1,176 @@
+package big_boiz.antplanner;
+
+import java.nio.CharBuffer;
+
+/**
+ * HTMLTableRow holds the cells of a single table row read by an HTMLTableRowIterator
+ * Each cell is the content in between its <td> or <th> tags, given as a view with no copying
+ * when the document is in memory
+ *
+ * The same HTMLTableRow is reused for every row of the table, so its cells are only valid until
+ * the iterator moves on to the next row; use copy() to keep a row
+ */
+public class HTMLTableRow {
+
+	private CharSequence source;	//The characters the cells are in: the document, or buffer
+	private char[] buffer;			//The markup of the cells, when the table is read from a stream
+	private int bufferLength;		//The number of characters in buffer
+
+	private int rowIndex;			//The position of the row in the table; 0 is the first row
+	private int cellCount;			//The number of cells in the row
+	private int[] cellStart;		//The range of the content of each cell in source
+	private int[] cellEnd;
+	private HTMLTextView[] cells;	//Reused views of the cells
+
+	/**
+	 * Constructs an empty row
+	 */
+	HTMLTableRow() {
+		cellStart = new int[8];
+		cellEnd = new int[8];
+		cells = new HTMLTextView[8];
+	}
+
+	/**
+	 * Empties the row so it can hold the next row of the table
+	 * @param source	The document the cells are in, or null if the cells are copied into the row
+	 * @param rowIndex	The position of the next row in the table
+	 */
+	void clear(CharSequence source, int rowIndex) {
+		this.rowIndex = rowIndex;
+		cellCount = 0;
+		bufferLength = 0;
+		if(source != null)
+			this.source = source;
+		else if(buffer == null) {
+			buffer = new char[256];
+			this.source = CharBuffer.wrap(buffer);
+		}
+	}
+
+	/**
+	 * Starts a new cell
+	 * @param start	The index in the document at which the content of the cell starts; ignored when
+	 * 				the cells are copied into the row
+	 */
+	void startCell(int start) {
+		if(cellCount == cellStart.length) {
+			cellStart = HTMLNameTable.grow(cellStart, cellCount * 2);
+			cellEnd = HTMLNameTable.grow(cellEnd, cellCount * 2);
+		}
+		cellStart[cellCount] = buffer != null ? bufferLength : start;
+		cellEnd[cellCount] = -1;
+		cellCount++;
+	}
+
+	/**
+	 * Ends the last cell started
+	 * @param end	The index in the document at which the content of the cell ends; ignored when
+	 * 				the cells are copied into the row
+	 */
+	void endCell(int end) {
+		cellEnd[cellCount - 1] = buffer != null ? bufferLength : end;
+	}
+
+	/**
+	 * Checks whether the last cell started has not been ended yet
+	 * @return	True if a cell is open
+	 */
+	boolean isCellOpen() {
+		return cellCount > 0 && cellEnd[cellCount - 1] < 0;
+	}
+
+	/**
+	 * Copies markup into the open cell, when the table is read from a stream
+	 * @param markup	The markup to copy
+	 */
+	void append(CharSequence markup) {
+		int i, length;
+		char[] newBuffer;
+
+		length = markup.length();
+		if(bufferLength + length > buffer.length) {
+			newBuffer = new char[Math.max(buffer.length * 2, bufferLength + length)];
+			System.arraycopy(buffer, 0, newBuffer, 0, bufferLength);
+			buffer = newBuffer;
+			source = CharBuffer.wrap(buffer);
+		}
+		for(i = 0; i < length; i++)
+			buffer[bufferLength++] = markup.charAt(i);
+	}
+
+	/**
+	 * Retrieves the position of the row in the table
+	 * @return	The number of the row; 0 is the first row
+	 */
+	public int getRowIndex() {
+		return rowIndex;
+	}
+
+	/**
+	 * Retrieves the number of cells in the row
+	 * @return	The number of cells
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Retrieves the content of a cell
+	 * @param index	The position of the cell in the row; 0 is the first cell
+	 * Over a document read from UTF-8 bytes, the view reads the decoded characters of the cell, so
+	 * length(), charAt() and toString() always agree; only a cell which is not all ASCII is decoded
+	 * @return	A view of the content of the cell, valid until the iterator moves on
+	 */
+	public CharSequence getCell(int index) {
+		HTMLTextView[] newCells;
+
+		if(index < 0 || index >= cellCount)
+			throw new IndexOutOfBoundsException("getCell(): Cell " + index + " of " + cellCount);
+		if(cells.length < cellStart.length) {
+			newCells = new HTMLTextView[cellStart.length];
+			System.arraycopy(cells, 0, newCells, 0, cells.length);
+			cells = newCells;
+		}
+		if(cells[index] == null)
+			cells[index] = new HTMLTextView();
+		cells[index].decode(source, cellStart[index], cellEnd[index]);
+		return cells[index];
+	}
+
+	/**
+	 * Copies the row, so that it can be kept after the iterator moves on
+	 * @return	A copy of the row which holds its own characters
+	 */
+	public HTMLTableRow copy() {
+		int i;
+		HTMLTableRow row;
+
+		row = new HTMLTableRow();
+		row.clear(null, rowIndex);
+		for(i = 0; i < cellCount; i++) {
+			row.startCell(0);
+			row.append(getCell(i).toString());
+			row.endCell(0);
+		}
+		return row;
+	}
+
+	/**
+	 * Lists the cells of the row, separated by '|'
+	 * @return	The cells of the row
+	 */
+	@Override
+	public String toString() {
+		int i;
+		StringBuilder row;
+
+		row = new StringBuilder();
+		for(i = 0; i < cellCount; i++) {
+			if(i > 0)
+				row.append('|');
+			row.append(getCell(i).toString());
+		}
+		return row.toString();
+	}
+}
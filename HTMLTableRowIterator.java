@@ -0,0 +1,230 @@
+package big_boiz.antplanner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * HTMLTableRowIterator reads the rows of a table one at a time, so a table of any size can be
+ * processed while holding only a single row
+ * Rows are read as they are requested; nothing past the current row is parsed
+ *
+ * Only the rows of the table itself are returned: a table nested inside a cell is part of the
+ * content of that cell
+ * A cell or row which is never closed ends where the next cell or row starts
+ *
+ * The same HTMLTableRow is returned for every row, so it is only valid until the next call to
+ * next(); use HTMLTableRow.copy() to keep a row
+ * The cells of a document read from UTF-8 bytes are read as decoded characters, never as raw
+ * bytes; a cell which is all ASCII is read straight from the bytes, and any other is decoded
+ */
+public class HTMLTableRowIterator implements Iterator<HTMLTableRow> {
+
+	private HTMLStreamParser parser;	//The parser reading the table
+	private CharSequence source;		//The document, if it is in memory; null for a stream
+	private int tableIndex;				//The table to read; -1 if the parser starts inside the table
+
+	private int tableCount;				//The number of tables found which are not nested in another
+	private int tableDepth;				//The number of tables the parser is inside; 1 inside the table
+										//being read
+	private boolean inRow;				//Whether a row is open
+	private boolean ready;				//Whether row holds a row which has not been returned yet
+	private boolean rowStarting;		//Whether a <tr> ended the row which is ready; the new row
+										//is started once that one has been returned
+	private boolean finished;			//Whether the end of the table has been reached
+
+	private HTMLTableRow row;			//The row handed out by next()
+	private int rowCount;				//The number of rows read
+
+	/**
+	 * Constructs an iterator over the rows of a table in a stream
+	 * @param parser		The parser reading the stream
+	 * @param tableIndex	The table to read; 0 is the first table which is not nested inside
+	 * 						another table
+	 */
+	public HTMLTableRowIterator(HTMLStreamParser parser, int tableIndex) {
+		this(parser, null, tableIndex);
+	}
+
+	/**
+	 * Constructs an iterator over the rows of a table whose content is in memory
+	 * The cells are views into the document
+	 * @param source	The document
+	 * @param start		The index at which the content of the table starts
+	 * @param end		The index at which the content of the table ends
+	 */
+	public HTMLTableRowIterator(CharSequence source, int start, int end) {
+		this(new HTMLStreamParser(source, start, end), source, -1);
+	}
+
+	/**
+	 * Constructs an iterator over the rows of a table
+	 * @param parser		The parser reading the table
+	 * @param source		The document, if it is in memory; null for a stream
+	 * @param tableIndex	The table to read, or -1 if the parser starts inside the table
+	 */
+	private HTMLTableRowIterator(HTMLStreamParser parser, CharSequence source, int tableIndex) {
+		this.parser = parser;
+		this.source = source;
+		this.tableIndex = tableIndex;
+		tableDepth = tableIndex < 0 ? 1 : 0;
+		row = new HTMLTableRow();
+	}
+
+	/**
+	 * Reads ahead to the end of the next row, if it has not been read yet
+	 * @return	True if there is another row
+	 * @throws UncheckedIOException	Thrown if the stream cannot be read
+	 */
+	@Override
+	public boolean hasNext() {
+		try {
+			if(!ready && rowStarting) {
+				rowStarting = false;
+				startRow();
+			}
+			while(!ready && !finished)
+				readToken();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return ready;
+	}
+
+	/**
+	 * Retrieves the next row
+	 * @return	The row, valid until the next call to next()
+	 * @throws NoSuchElementException	Thrown if there are no more rows
+	 */
+	@Override
+	public HTMLTableRow next() {
+		if(!hasNext())
+			throw new NoSuchElementException("next(): No more rows in the table");
+		ready = false;
+		return row;
+	}
+
+	/**
+	 * Reads a single token of the table, finishing a row if the token ends one
+	 * @throws IOException	Thrown if the stream cannot be read
+	 */
+	private void readToken() throws IOException {
+		int type;
+
+		type = parser.next();
+		if(type == HTMLTokenizer.END_OF_INPUT) {
+			endRow();
+			finished = true;
+			return;
+		}
+
+		if(tableDepth == 0) {		//still looking for the table
+			if(type == HTMLTokenizer.START_TAG && parser.nameEquals("table")) {
+				if(tableCount++ == tableIndex && !parser.isSelfClosing())
+					tableDepth = 1;
+				else if(!parser.isSelfClosing())
+					skipTable();
+			}
+			return;
+		}
+
+		if(type == HTMLTokenizer.START_TAG && parser.nameEquals("table") && !parser.isSelfClosing())
+			tableDepth++;
+		else if(type == HTMLTokenizer.END_TAG && parser.nameEquals("table")) {
+			if(--tableDepth == 0) {
+				endRow();
+				finished = true;
+				return;
+			}
+		}
+		else if(tableDepth == 1 && type == HTMLTokenizer.START_TAG && parser.nameEquals("tr")) {
+			endRow();
+			if(ready)			//the row before was never closed, and has not been returned yet
+				rowStarting = true;
+			else
+				startRow();
+			return;
+		}
+		else if(tableDepth == 1 && type == HTMLTokenizer.END_TAG && parser.nameEquals("tr")) {
+			endRow();
+			return;
+		}
+		else if(tableDepth == 1 && type == HTMLTokenizer.START_TAG
+				&& (parser.nameEquals("td") || parser.nameEquals("th"))) {
+			if(!inRow)			//a cell outside of any row
+				startRow();
+			endCell();
+			row.startCell((int) parser.getEndOffset());
+			return;
+		}
+		else if(tableDepth == 1 && type == HTMLTokenizer.END_TAG
+				&& (parser.nameEquals("td") || parser.nameEquals("th"))) {
+			endCell();
+			return;
+		}
+
+		if(source == null && inRow && row.isCellOpen())
+			row.append(parser.getToken());
+	}
+
+	/**
+	 * Skips over a table which is not the one being read, along with any tables nested in it
+	 * @throws IOException	Thrown if the stream cannot be read
+	 */
+	private void skipTable() throws IOException {
+		int type, depth;
+
+		depth = 1;
+		while(depth > 0 && (type = parser.next()) != HTMLTokenizer.END_OF_INPUT) {
+			if(type == HTMLTokenizer.START_TAG && parser.nameEquals("table") && !parser.isSelfClosing())
+				depth++;
+			else if(type == HTMLTokenizer.END_TAG && parser.nameEquals("table"))
+				depth--;
+		}
+	}
+
+	/**
+	 * Starts a new row, emptying the row which was returned last
+	 */
+	private void startRow() {
+		row.clear(source, rowCount);
+		inRow = true;
+	}
+
+	/**
+	 * Ends the open cell, if there is one, at the start of the current token
+	 */
+	private void endCell() {
+		if(inRow && row.isCellOpen())
+			row.endCell((int) parser.getOffset());
+	}
+
+	/**
+	 * Ends the open row, if there is one, making it ready to be returned
+	 */
+	private void endRow() {
+		if(!inRow)
+			return;
+		endCell();
+		inRow = false;
+		ready = true;
+		rowCount++;
+	}
+
+	/**
+	 * Creates a sequential Stream of the rows
+	 * Each row is only valid until the stream moves on to the next one, so rows must be copied
+	 * or converted before being collected
+	 * @return	The Stream of rows
+	 */
+	public Stream<HTMLTableRow> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+				Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+}
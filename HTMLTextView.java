@@ -0,0 +1,133 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLTextView is a window onto a range of characters in a document
+ * No characters are copied until toString() is called, and the same view can be pointed at
+ * a different range with set(), so a parser can hand out views without creating any objects
+ *
+ * A view handed out by a parser is only valid until the parser moves on; call toString() to
+ * keep the characters
+ *
+ * A view of an HTMLByteSequence pointed with set() reads one character for each byte, like the
+ * sequence itself, so that length() can be added to an offset in the document; only toString()
+ * decodes UTF-8
+ * A view pointed with decode() reads the same characters toString() returns: a range which is all
+ * ASCII is read straight from the bytes, and any other range is decoded when the view is pointed
+ * at it; getStart() and getEnd() are still offsets into the document
+ */
+public class HTMLTextView implements CharSequence {
+
+	private CharSequence source;	//The document the view looks into
+	private int start, end;			//The range of the view in source
+	private String decoded;			//The range decoded as UTF-8, if the view was pointed with
+									//decode() at a range of bytes which is not all ASCII
+
+	/**
+	 * Constructs an empty view
+	 */
+	public HTMLTextView() {
+		source = "";
+	}
+
+	/**
+	 * Constructs a view of a range of a document
+	 * @param source	The document to look into
+	 * @param start		The start of the range
+	 * @param end		The end of the range
+	 */
+	public HTMLTextView(CharSequence source, int start, int end) {
+		set(source, start, end);
+	}
+
+	/**
+	 * Points the view at a range of a document
+	 * @param source	The document to look into
+	 * @param start		The start of the range
+	 * @param end		The end of the range
+	 */
+	public void set(CharSequence source, int start, int end) {
+		this.source = source;
+		this.start = start;
+		this.end = end;
+		decoded = null;
+	}
+
+	/**
+	 * Points the view at a range of a document, reading the range as decoded characters
+	 * A range of an HTMLByteSequence which is not all ASCII is decoded from UTF-8, so length(),
+	 * charAt() and toString() agree; any other range is read as it is, just as with set()
+	 * @param source	The document to look into
+	 * @param start		The start of the range
+	 * @param end		The end of the range
+	 */
+	void decode(CharSequence source, int start, int end) {
+		set(source, start, end);
+		if(source instanceof HTMLByteSequence && !((HTMLByteSequence) source).isAscii(start, end))
+			decoded = source.subSequence(start, end).toString();
+	}
+
+	@Override
+	public int length() {
+		return decoded != null ? decoded.length() : end - start;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if(decoded != null)
+			return decoded.charAt(index);
+		if(index < 0 || index >= end - start)
+			throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+		return source.charAt(start + index);
+	}
+
+	@Override
+	public CharSequence subSequence(int from, int to) {
+		if(decoded != null)
+			return decoded.subSequence(from, to);
+		if(from < 0 || to > end - start || from > to)
+			throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + (end - start));
+		return new HTMLTextView(source, start + from, start + to);
+	}
+
+	/**
+	 * Checks whether the view holds exactly the characters of a String
+	 * @param text	The String to compare against
+	 * @return	True if the characters match
+	 */
+	public boolean contentEquals(String text) {
+		return HTMLTokenizer.regionMatches(source, start, end, text);
+	}
+
+	/**
+	 * Retrieves the document the view looks into
+	 * @return	The document
+	 */
+	public CharSequence getSource() {
+		return source;
+	}
+
+	/**
+	 * @return	The index in the document at which the view starts
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * @return	The index in the document at which the view ends
+	 */
+	public int getEnd() {
+		return end;
+	}
+
+	/**
+	 * Copies the characters of the view
+	 * @return	The characters as a String
+	 */
+	@Override
+	public String toString() {
+		if(decoded != null)
+			return decoded;
+		return source.subSequence(start, end).toString();
+	}
+}
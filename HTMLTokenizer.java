@@ -0,0 +1,629 @@
+package big_boiz.antplanner;
+
+/**
+ * HTMLTokenizer breaks an HTML document down into tokens
+ * Tokens are reported as index ranges into the source, so walking through
+ * a document does not create any Strings
+ *
+ * A single HTMLTokenizer can be reused for any number of documents by
+ * calling reset()
+ *
+ * A document can also be fed to the tokenizer a piece at a time with refill(); until the
+ * last piece is given, a token cut off at the end of a piece is reported as INCOMPLETE
+ * instead of being guessed at
+ */
+public class HTMLTokenizer {
+
+	public static final int END_OF_INPUT = 0;	//No more tokens are left in the range
+	public static final int START_TAG = 1;		//An opening tag, such as <table> or <br/>
+	public static final int END_TAG = 2;		//A closing tag, such as </table>
+	public static final int TEXT = 3;			//The text in between two tags
+	public static final int COMMENT = 4;		//A comment: <!-- ... -->
+	public static final int DECLARATION = 5;	//A declaration or instruction: <!DOCTYPE ...>, <?xml ...?>
+	public static final int INCOMPLETE = 6;		//The rest of the range holds only part of a token; the
+												//range must be refilled with more of the document
+
+	private static final String[] VOID_ELEMENTS = {"area", "base", "br", "col", "embed", "hr", "img",
+			"input", "link", "meta", "param", "source", "track", "wbr"};	//Elements which never have
+																			//content or a closing tag
+
+	private CharSequence source;	//The document being tokenized
+	private int position, limit;	//position: the index at which the next token starts
+									//limit:    the index at which tokenizing stops
+	private boolean endOfInput;		//Whether the range ends at the end of the document
+
+	private int tokenType, tokenStart, tokenEnd;	//The type and range of the current token
+	private int nameStart, nameEnd;					//The range of the tag name of the current token
+	private boolean selfClosing;					//Whether the current start tag ends in "/>", or
+													//is a void element such as <br>
+
+	private int attributePosition;						//The index at which the next attribute starts
+	private int attributeNameStart, attributeNameEnd;	//The range of the name of the current attribute
+	private int attributeValueStart, attributeValueEnd;	//The range of the value of the current attribute
+
+	private String rawTextElement;	//The name of the element whose content is read as plain text,
+									//such as "script"; null when reading regular markup
+
+	/**
+	 * Constructs an instance of the HTMLTokenizer with no document
+	 * reset() must be called before reading any tokens
+	 */
+	public HTMLTokenizer() {
+		source = "";
+	}
+
+	/**
+	 * Constructs an instance of the HTMLTokenizer over an entire document
+	 * @param source	The HTML document to tokenize
+	 */
+	public HTMLTokenizer(CharSequence source) {
+		reset(source, 0, source.length());
+	}
+
+	/**
+	 * Restarts the tokenizer over the specified range of a document
+	 * @param source	The HTML document to tokenize
+	 * @param start		The index at which to start tokenizing
+	 * @param end		The index at which to stop tokenizing
+	 */
+	public void reset(CharSequence source, int start, int end) {
+		refill(source, start, end, true);
+		rawTextElement = null;
+	}
+
+	/**
+	 * Moves the tokenizer onto a new piece of a document, keeping track of where it was inside
+	 * the markup, such as inside a <script> element
+	 * @param source		The piece of the document to tokenize
+	 * @param start			The index at which to continue tokenizing
+	 * @param end			The index at which to stop tokenizing
+	 * @param endOfInput	Whether this piece reaches the end of the document
+	 */
+	public void refill(CharSequence source, int start, int end, boolean endOfInput) {
+		this.source = source;
+		this.endOfInput = endOfInput;
+		position = start;
+		limit = end;
+		tokenType = END_OF_INPUT;
+		tokenStart = start;
+		tokenEnd = start;
+		nameStart = -1;
+		nameEnd = -1;
+		selfClosing = false;
+		attributePosition = -1;
+	}
+
+	/**
+	 * Reads the next token in the document
+	 * @return	The type of the token read, or END_OF_INPUT when the end of the range is reached
+	 */
+	public int next() {
+		char c;
+
+		nameStart = -1;
+		nameEnd = -1;
+		selfClosing = false;
+		attributePosition = -1;
+		tokenStart = position;
+
+		if(position >= limit) {
+			tokenEnd = limit;
+			tokenType = END_OF_INPUT;
+			return tokenType;
+		}
+
+		if(rawTextElement != null)
+			return readRawText();
+
+		if(source.charAt(position) == '<' && !endOfInput && position + 4 > limit)
+			return incomplete();		//not enough is known yet to tell what kind of token this is
+
+		if(source.charAt(position) == '<' && position + 1 < limit) {
+			c = source.charAt(position + 1);
+			if(c == '/' && position + 2 < limit && isNameStart(source.charAt(position + 2)))
+				return readEndTag();
+			else if(c == '!' && startsWith(source, position, limit, "<!--"))
+				return readComment();
+			else if(c == '!' || c == '?')
+				return readDeclaration();
+			else if(isNameStart(c))
+				return readStartTag();
+		}
+		return readText(position + 1);
+	}
+
+	/**
+	 * Reads a text token, which continues up to the next '<'
+	 * @param i		The index from which to look for the end of the text
+	 * @return	TEXT
+	 */
+	private int readText(int i) {
+		return finishToken(TEXT, HTMLScanner.indexOf(source, '<', i, limit));
+	}
+
+	/**
+	 * Reads the content of an element such as <script> or <style>, which is
+	 * plain text up until the closing tag of the element
+	 * @return	TEXT, or the type of the closing tag if the content is empty
+	 */
+	private int readRawText() {
+		int i, length;
+
+		i = position;
+		length = rawTextElement.length() + 2;
+		while((i = HTMLScanner.indexOf(source, '<', i, limit)) < limit) {
+			if(i + length > limit) {
+				if(!endOfInput)
+					break;		//this may be the start of the closing tag
+			}
+			else if(source.charAt(i + 1) == '/'
+					&& regionMatchesIgnoreCase(source, i + 2, i + length, rawTextElement)) {
+				rawTextElement = null;
+				break;
+			}
+			i++;
+		}
+
+		if(i == position)
+			return rawTextElement == null ? next() : incomplete();
+		return finishToken(TEXT, i);
+	}
+
+	/**
+	 * Reads a start tag along with its attributes
+	 * Quoted attribute values may contain '>' without ending the tag
+	 * @return	START_TAG, or TEXT if the tag is never closed
+	 */
+	private int readStartTag() {
+		int i;
+
+		i = position + 1;
+		nameStart = i;
+		i = skipName(i);
+		nameEnd = i;
+
+		attributePosition = i;
+		while(readAttribute(limit))
+			;
+		i = attributePosition;
+
+		if(i >= limit && !endOfInput)
+			return incomplete();
+		if(i >= limit) {
+			//an unterminated quote swallowed the rest of the document;
+			//fall back to the first '>' after the tag name
+			i = HTMLScanner.indexOf(source, '>', nameEnd, limit);
+			if(i >= limit)
+				return readText(position + 1);
+		}
+
+		selfClosing = source.charAt(i - 1) == '/' || isVoidElement();
+		finishToken(START_TAG, i + 1);
+		attributePosition = nameEnd;
+
+		if(!selfClosing && (nameEqualsIgnoreCase("script") || nameEqualsIgnoreCase("style")))
+			rawTextElement = nameEqualsIgnoreCase("script") ? "script" : "style";
+		return tokenType;
+	}
+
+	/**
+	 * Reads an end tag, such as </table>
+	 * @return	END_TAG, or TEXT if the tag is never closed
+	 */
+	private int readEndTag() {
+		int i;
+
+		i = position + 2;
+		nameStart = i;
+		i = skipName(i);
+		nameEnd = i;
+
+		i = HTMLScanner.indexOf(source, '>', i, limit);
+		if(i >= limit && !endOfInput)
+			return incomplete();
+		if(i >= limit)
+			return readText(position + 1);
+		return finishToken(END_TAG, i + 1);
+	}
+
+	/**
+	 * Reads a comment, which continues up to the next "-->"
+	 * @return	COMMENT
+	 */
+	private int readComment() {
+		int i;
+
+		i = HTMLScanner.indexOf(source, "-->", position + 4, limit);
+		if(i >= limit && !endOfInput)
+			return incomplete();
+		return finishToken(COMMENT, Math.min(i + 3, limit));
+	}
+
+	/**
+	 * Reads a declaration or processing instruction, which continues up to the next '>'
+	 * @return	DECLARATION
+	 */
+	private int readDeclaration() {
+		int i;
+
+		i = HTMLScanner.indexOf(source, '>', position + 2, limit);
+		if(i >= limit && !endOfInput)
+			return incomplete();
+		return finishToken(DECLARATION, Math.min(i + 1, limit));
+	}
+
+	/**
+	 * Records the end of the current token and moves on to the next one
+	 * @param type	The type of the current token
+	 * @param end	The index just past the end of the current token
+	 * @return	The type of the current token
+	 */
+	private int finishToken(int type, int end) {
+		tokenType = type;
+		tokenEnd = end;
+		position = end;
+		return type;
+	}
+
+	/**
+	 * Reports that the token at the current position is cut off by the end of the range
+	 * The position is left at the start of the token, so it is read again after refill()
+	 * @return	INCOMPLETE
+	 */
+	private int incomplete() {
+		nameStart = -1;
+		nameEnd = -1;
+		selfClosing = false;
+		attributePosition = -1;
+		tokenType = INCOMPLETE;
+		tokenEnd = tokenStart;
+		position = tokenStart;
+		return tokenType;
+	}
+
+	/**
+	 * Skips over a tag name
+	 * @param i	The index of the first character of the name
+	 * @return	The index just past the end of the name
+	 */
+	private int skipName(int i) {
+		char c;
+
+		while(i < limit && !isSpace(c = source.charAt(i)) && c != '>' && c != '/')
+			i++;
+		return i;
+	}
+
+	/**
+	 * Reads the next attribute of the current start tag
+	 * Attribute values may be double quoted, single quoted or unquoted; an attribute
+	 * without a value is given an empty value
+	 * @param end	The index at which to stop looking for attributes
+	 * @return	True if an attribute was read, false if the end of the tag was reached
+	 */
+	private boolean readAttribute(int end) {
+		int i;
+		char c, quote;
+
+		i = attributePosition;
+		while(i < end && (isSpace(c = source.charAt(i)) || c == '/'))
+			i++;
+		if(i >= end || source.charAt(i) == '>') {
+			attributePosition = i;
+			return false;
+		}
+
+		attributeNameStart = i;
+		while(i < end && !isSpace(c = source.charAt(i)) && c != '=' && c != '>' && c != '/')
+			i++;
+		attributeNameEnd = i;
+		attributeValueStart = i;
+		attributeValueEnd = i;
+
+		while(i < end && isSpace(source.charAt(i)))
+			i++;
+		if(i < end && source.charAt(i) == '=') {
+			i++;
+			while(i < end && isSpace(source.charAt(i)))
+				i++;
+			if(i < end && ((quote = source.charAt(i)) == '\"' || quote == '\'')) {
+				attributeValueStart = ++i;
+				i = HTMLScanner.indexOf(source, quote, i, end);
+				attributeValueEnd = i;
+				if(i < end)
+					i++;
+			}
+			else {
+				attributeValueStart = i;
+				while(i < end && !isSpace(c = source.charAt(i)) && c != '>')
+					i++;
+				attributeValueEnd = i;
+			}
+		}
+		else
+			i = attributeNameEnd;
+
+		attributePosition = i;
+		return true;
+	}
+
+	/**
+	 * Moves on to the next attribute of the current start tag
+	 * The attributes of a tag can be read any number of times before calling next()
+	 * @return	True if there is another attribute, false otherwise
+	 */
+	public boolean nextAttribute() {
+		if(tokenType != START_TAG || attributePosition < 0)
+			return false;
+		if(!readAttribute(tokenEnd - 1)) {
+			attributePosition = -1;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Skips ahead to the end tag matching the current start tag
+	 * Only tags with the same name as the current tag are counted when matching,
+	 * so unclosed tags of other types inside the element do not affect the match
+	 * @return	True if the matching end tag was found, in which case it becomes the
+	 * 			current token; false if the end of the range was reached first, or if
+	 * 			the range was cut off in the middle of a token
+	 */
+	public boolean skipToMatchingEndTag() {
+		int record, openNameStart, openNameEnd;
+
+		if(tokenType != START_TAG)
+			return false;
+		if(selfClosing)
+			return true;
+
+		record = 1;
+		openNameStart = nameStart;
+		openNameEnd = nameEnd;
+		while(next() != END_OF_INPUT && tokenType != INCOMPLETE) {
+			if(tokenType == START_TAG && !selfClosing
+					&& regionsMatch(source, nameStart, nameEnd, openNameStart, openNameEnd))
+				record++;
+			else if(tokenType == END_TAG
+					&& regionsMatch(source, nameStart, nameEnd, openNameStart, openNameEnd)) {
+				record--;
+				if(record == 0)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the name of the current tag is the specified name
+	 * @param name	The name to compare against
+	 * @return	True if the names are the same
+	 */
+	public boolean nameEquals(String name) {
+		return nameStart >= 0 && regionMatches(source, nameStart, nameEnd, name);
+	}
+
+	/**
+	 * Checks whether the name of the current tag is the specified name, ignoring case
+	 * @param name	The name to compare against
+	 * @return	True if the names are the same
+	 */
+	public boolean nameEqualsIgnoreCase(String name) {
+		return nameStart >= 0 && nameEnd - nameStart == name.length()
+				&& regionMatchesIgnoreCase(source, nameStart, nameEnd, name);
+	}
+
+	/**
+	 * Checks whether the name of the current attribute is the specified name
+	 * @param name	The name to compare against
+	 * @return	True if the names are the same
+	 */
+	public boolean attributeNameEquals(String name) {
+		return regionMatches(source, attributeNameStart, attributeNameEnd, name);
+	}
+
+	/**
+	 * Checks whether the value of the current attribute is the specified value
+	 * @param value	The value to compare against
+	 * @return	True if the values are the same
+	 */
+	public boolean attributeValueEquals(String value) {
+		return regionMatches(source, attributeValueStart, attributeValueEnd, value);
+	}
+
+	/**
+	 * Retrieves the name of the current tag
+	 * @return	The name of the tag, or null if the current token is not a tag
+	 */
+	public String getName() {
+		if(nameStart < 0)
+			return null;
+		return source.subSequence(nameStart, nameEnd).toString();
+	}
+
+	/**
+	 * Retrieves the document being tokenized
+	 * @return	The document
+	 */
+	public CharSequence getSource() {
+		return source;
+	}
+
+	/**
+	 * Retrieves the type of the current token
+	 * @return	START_TAG, END_TAG, TEXT, COMMENT, DECLARATION, INCOMPLETE or END_OF_INPUT
+	 */
+	public int getTokenType() {
+		return tokenType;
+	}
+
+	/**
+	 * Retrieves the index at which the current token starts
+	 * @return	The starting index of the token in the document
+	 */
+	public int getTokenStart() {
+		return tokenStart;
+	}
+
+	/**
+	 * Retrieves the index just past the end of the current token
+	 * @return	The ending index of the token in the document
+	 */
+	public int getTokenEnd() {
+		return tokenEnd;
+	}
+
+	/**
+	 * Retrieves the index at which the name of the current tag starts
+	 * @return	The starting index of the name, or -1 if the token is not a tag
+	 */
+	public int getNameStart() {
+		return nameStart;
+	}
+
+	/**
+	 * Retrieves the index just past the end of the name of the current tag
+	 * @return	The ending index of the name, or -1 if the token is not a tag
+	 */
+	public int getNameEnd() {
+		return nameEnd;
+	}
+
+	/**
+	 * Checks whether the current start tag closes itself, such as <br/>
+	 * A void element, such as <br> or <input>, never has content or a closing tag, so it closes
+	 * itself whether or not it ends in "/>"
+	 * @return	True if the tag ends in "/>" or names a void element
+	 */
+	public boolean isSelfClosing() {
+		return selfClosing;
+	}
+
+	/**
+	 * Checks whether the current tag names a void element, such as <br> or <input>
+	 * @return	True if the name of the tag is the name of a void element, ignoring case
+	 */
+	private boolean isVoidElement() {
+		int length, i;
+
+		if(nameStart < 0)
+			return false;
+		length = nameEnd - nameStart;
+		if(length < 2 || length > 6)
+			return false;
+		for(i = 0; i < VOID_ELEMENTS.length; i++)
+			if(VOID_ELEMENTS[i].length() == length
+					&& regionMatchesIgnoreCase(source, nameStart, nameEnd, VOID_ELEMENTS[i]))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Retrieves the range of the name of the current attribute
+	 * @return	The starting index of the attribute name
+	 */
+	public int getAttributeNameStart() {
+		return attributeNameStart;
+	}
+
+	/**
+	 * @return	The ending index of the attribute name
+	 */
+	public int getAttributeNameEnd() {
+		return attributeNameEnd;
+	}
+
+	/**
+	 * Retrieves the range of the value of the current attribute, without any quotes
+	 * @return	The starting index of the attribute value
+	 */
+	public int getAttributeValueStart() {
+		return attributeValueStart;
+	}
+
+	/**
+	 * @return	The ending index of the attribute value
+	 */
+	public int getAttributeValueEnd() {
+		return attributeValueEnd;
+	}
+
+	/**
+	 * Checks whether the characters at the specified index start with the specified String
+	 * @param source	The document to search in
+	 * @param start		The index at which the String should start
+	 * @param limit		The index past which the document should not be read
+	 * @param search	The String to look for
+	 * @return	True if the String is found at the index
+	 */
+	static boolean startsWith(CharSequence source, int start, int limit, String search) {
+		return start + search.length() <= limit
+				&& regionMatches(source, start, start + search.length(), search);
+	}
+
+	/**
+	 * Compares a range of characters in the document to a String
+	 * @param source	The document containing the range
+	 * @param start		The start of the range
+	 * @param end		The end of the range
+	 * @param search	The String to compare against
+	 * @return	True if the range holds exactly the characters of the String
+	 */
+	static boolean regionMatches(CharSequence source, int start, int end, String search) {
+		int i, length;
+
+		if(source instanceof HTMLByteSequence)
+			return ((HTMLByteSequence) source).regionMatches(start, end, search);
+		length = end - start;
+		if(length != search.length())
+			return false;
+		if(source instanceof String)
+			return ((String) source).regionMatches(start, search, 0, length);
+
+		for(i = 0; i < length; i++)
+			if(source.charAt(start + i) != search.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Compares a range of characters in the document to a String, ignoring case
+	 * @param source	The document containing the range
+	 * @param start		The start of the range
+	 * @param end		The end of the range, which must not be longer than the String
+	 * @param search	The String to compare against
+	 * @return	True if the characters match
+	 */
+	static boolean regionMatchesIgnoreCase(CharSequence source, int start, int end, String search) {
+		int i;
+
+		for(i = start; i < end; i++)
+			if(Character.toLowerCase(source.charAt(i)) != search.charAt(i - start))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Compares two ranges of characters in the same document
+	 * @return	True if the ranges hold the same characters
+	 */
+	static boolean regionsMatch(CharSequence source, int start, int end, int otherStart, int otherEnd) {
+		int i;
+
+		if(end - start != otherEnd - otherStart)
+			return false;
+		for(i = 0; i < end - start; i++)
+			if(source.charAt(start + i) != source.charAt(otherStart + i))
+				return false;
+		return true;
+	}
+
+	static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
+	static boolean isNameStart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+}
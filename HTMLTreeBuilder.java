@@ -0,0 +1,134 @@
+package big_boiz.antplanner;
+
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * HTMLTreeBuilder parses an HTMLElement and every element inside it up front, instead of as
+ * each one is requested
+ *
+ * In parallel, the child elements of each element are found with a single scan, and are then
+ * handed out as tasks on a ForkJoinPool, each task holding sibling elements adding up to at least
+ * the threshold in size
+ * Pages made of many sibling sections, such as a long list of tables under <body>, are split
+ * between all of the cores; anything left over is parsed on the thread that found it
+ *
+ * Every element is only ever parsed by one task, and the tree is finished once build() returns,
+ * so the resulting tree is the same as parsing it on a single thread and may be shared freely
+ */
+public class HTMLTreeBuilder extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;	//RecursiveAction is Serializable; the
+														//builder is never serialized
+
+	public static final int DEFAULT_THRESHOLD = 1 << 16;	//The number of characters of elements
+															//given to each task
+
+	private ArrayList<HTMLElement> elements;	//The elements whose trees are parsed by this task
+	private int threshold;						//The number of characters of elements given to
+												//each new task
+
+	/**
+	 * Constructs a task which parses the tree of an element
+	 * @param element	The element to parse
+	 * @param threshold	The number of characters of elements given to each new task
+	 */
+	public HTMLTreeBuilder(HTMLElement element, int threshold) {
+		this(new ArrayList<HTMLElement>(), threshold);
+		elements.add(element);
+	}
+
+	/**
+	 * Constructs a task which parses the trees of a group of elements
+	 * @param elements	The elements to parse
+	 * @param threshold	The number of characters of elements given to each new task
+	 */
+	private HTMLTreeBuilder(ArrayList<HTMLElement> elements, int threshold) {
+		this.elements = elements;
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Parses the tree of an element on the current thread
+	 * @param element	The element to parse
+	 * @throws HTMLParseException	Thrown if the element is never closed
+	 */
+	public static void build(HTMLElement element) throws HTMLParseException {
+		ArrayList<HTMLElement> elements;
+
+		elements = new ArrayList<>();
+		elements.add(element);
+		parseTrees(elements, 0, null);
+	}
+
+	/**
+	 * Parses the tree of an element in parallel
+	 * @param element	The element to parse
+	 * @param pool		The pool to parse on
+	 * @throws HTMLParseException	Thrown if the element is never closed
+	 */
+	public static void build(HTMLElement element, ForkJoinPool pool) throws HTMLParseException {
+		pool.invoke(new HTMLTreeBuilder(element, DEFAULT_THRESHOLD));
+	}
+
+	@Override
+	protected void compute() {
+		ArrayList<HTMLTreeBuilder> tasks;
+
+		tasks = new ArrayList<>();
+		parseTrees(elements, threshold, tasks);
+		for(HTMLTreeBuilder task : tasks)
+			task.join();
+	}
+
+	/**
+	 * Parses elements and the elements inside them, handing groups of children off to new tasks
+	 * whenever they add up to the threshold
+	 * The elements are walked with a stack rather than recursion, so deep nesting cannot
+	 * overflow the call stack
+	 * @param roots		The elements to parse
+	 * @param threshold	The number of characters of elements given to each new task
+	 * @param tasks		The list the new tasks are forked and added to, or null to parse everything here
+	 */
+	private static void parseTrees(ArrayList<HTMLElement> roots, int threshold,
+			ArrayList<HTMLTreeBuilder> tasks) {
+		int batchLength;
+		HTMLElement current;
+		ArrayList<HTMLElement> batch;
+		ArrayDeque<HTMLElement> pending;
+
+		pending = new ArrayDeque<>(roots);
+		batch = new ArrayList<>();
+		batchLength = 0;
+		while(!pending.isEmpty() || !batch.isEmpty()) {
+			if(pending.isEmpty()) {		//too little was left over to be worth another task
+				pending.addAll(batch);
+				batch.clear();
+				batchLength = 0;
+				continue;
+			}
+
+			current = pending.pop();
+			current.parseElement();
+			for(HTMLElement child : current.getChildElementList()) {
+				if(tasks == null) {
+					pending.push(child);
+					continue;
+				}
+
+				batch.add(child);
+				batchLength += child.getLength();
+				if(batchLength >= threshold) {		//started right away, while this task carries on
+					tasks.add(new HTMLTreeBuilder(batch, threshold));
+					tasks.get(tasks.size() - 1).fork();
+					batch = new ArrayList<>();
+					batchLength = 0;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLDocument;
+import big_boiz.antplanner.HTMLParseContext;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * AllocationCheck measures the bytes allocated for each page when a worker parses and indexes page
+ * after page, once with a new HTMLDocument for each page and once with a single HTMLParseContext
+ * The pages, one of each shape from HTMLPageGenerator, are parsed in turn until the context has
+ * grown to fit the largest of them; from then on, parsing into the context must allocate no more
+ * than the few small objects handed back for each page, however large the page
+ *
+ * java big_boiz.antplanner.benchmarks.AllocationCheck [rounds]
+ */
+public class AllocationCheck {
+
+	private static final int LIMIT = 256;	//The most bytes a page parsed into a context may allocate
+
+	private static final String[] PAGES = {
+			HTMLPageGenerator.deepNesting(2000),
+			HTMLPageGenerator.wideTable(20000, 10),
+			HTMLPageGenerator.largeForm(200, 20),
+			HTMLPageGenerator.textHeavy(200, 300)};					//The pages parsed in turn
+	private static final String[] IDS = {"deepest", "report", "last", "article"};	//An id on each page
+
+	private static com.sun.management.ThreadMXBean threads;	//Counts the bytes allocated by this thread
+	private static int found;	//The elements found, so the lookups cannot be left out
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private AllocationCheck() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if a page parsed into a context allocates more than
+	 * LIMIT bytes
+	 * @param args	The number of times to parse every page while measuring
+	 */
+	public static void main(String[] args) {
+		int rounds;
+		long length, fresh, reused;
+		HTMLParseContext context;
+
+		rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		context = new HTMLParseContext();
+		length = 0;
+		for(String page : PAGES)
+			length += page.length();
+
+		measure(null, rounds);					//warms up both, and grows the context
+		measure(context, rounds);
+		fresh = measure(null, rounds);
+		reused = measure(context, rounds);
+
+		System.out.println("characters per page        " + length / PAGES.length);
+		System.out.println("bytes per page, new        " + fresh);
+		System.out.println("bytes per page, context    " + reused);
+		System.out.println("context memory             " + context.getMemoryUsage());
+		if(reused > LIMIT) {
+			System.out.println("a page parsed into a context allocated more than " + LIMIT + " bytes");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Parses and indexes every page a number of times, looking up an element by id on each
+	 * @param context	The context to parse into, or null to create a new HTMLDocument for each page
+	 * @param rounds	The number of times to parse every page
+	 * @return	The average number of bytes allocated for each page
+	 */
+	private static long measure(HTMLParseContext context, int rounds) {
+		int round, page;
+		long before;
+		HTMLDocument document;
+
+		before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		for(round = 0; round < rounds; round++)
+			for(page = 0; page < PAGES.length; page++) {
+				document = context != null ? context.parse(PAGES[page], true) : new HTMLDocument(PAGES[page], true);
+				if(document.loadElementById(IDS[page]) != null)
+					found++;
+			}
+		return (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / ((long) rounds * PAGES.length);
+	}
+}
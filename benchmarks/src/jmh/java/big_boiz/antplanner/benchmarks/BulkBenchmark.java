@@ -0,0 +1,75 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLBulkParser;
+import big_boiz.antplanner.HTMLStringFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * BulkBenchmark measures extracting the same element from many small pages, one HTMLStringFactory
+ * after another on a single thread, and with an HTMLBulkParser
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkBenchmark {
+
+	@Param({"1000"})
+	public int pages;				//The number of pages parsed by each call
+
+	@Param({"false", "true"})
+	public boolean ordered;			//Whether the bulk parser keeps the order of the pages
+
+	private List<String> sources;	//The generated pages
+
+	/**
+	 * Generates the pages, each a small form with a different number of fields
+	 */
+	@Setup
+	public void setup() {
+		int i;
+
+		sources = new ArrayList<>(pages);
+		for(i = 0; i < pages; i++)
+			sources.add(HTMLPageGenerator.largeForm(5 + i % 20, 10));
+	}
+
+	@Benchmark
+	public int sequential() {
+		int count;
+		HTMLStringFactory factory;
+
+		count = 0;
+		for(String source : sources) {
+			factory = new HTMLStringFactory(source);
+			factory.loadNewElementById("last");
+			count += factory.getDropDownItemsAndValues()[0].size();
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int bulk() {
+		HTMLBulkParser<Integer> parser;
+
+		parser = new HTMLBulkParser<Integer>(factory -> {
+			factory.loadNewElementById("last");
+			return factory.getDropDownItemsAndValues()[0].size();
+		}).setOrdered(ordered);
+		try(Stream<Integer> counts = parser.parse(sources.stream())) {
+			return counts.mapToInt(Integer::intValue).sum();
+		}
+	}
+}
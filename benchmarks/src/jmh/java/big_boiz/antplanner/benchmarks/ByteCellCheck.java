@@ -0,0 +1,114 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLStreamParser;
+import big_boiz.antplanner.HTMLStringFactory;
+import big_boiz.antplanner.HTMLTableRow;
+import big_boiz.antplanner.HTMLTableRowIterator;
+import big_boiz.antplanner.HTMLTextView;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * ByteCellCheck checks that the cells of a table read from UTF-8 bytes are read as decoded
+ * characters: for a cell which is not ASCII, length(), charAt(), subSequence(), contentEquals() and
+ * toString() must all agree with each other and with the same table read from a String
+ *
+ * java big_boiz.antplanner.benchmarks.ByteCellCheck
+ */
+public class ByteCellCheck {
+
+	private static final String[] CELLS = {
+			"plain",
+			"caf\u00e9",
+			"\u65e5\u672c\u8a9e",
+			"na\u00efve \ud83d\ude00 text",
+			""};				//The cells of the second row; ASCII, 2, 3 and 4 byte characters, and empty
+
+	private static int failures;	//The number of checks which failed
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private ByteCellCheck() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if any check fails
+	 * @param args	Not used
+	 */
+	public static void main(String[] args) {
+		String page;
+		StringBuilder builder;
+
+		builder = new StringBuilder("<html><body><table>");
+		builder.append("<tr><th>head</th></tr><tr>");
+		for(String cell : CELLS)
+			builder.append("<td>").append(cell).append("</td>");
+		page = builder.append("</tr></table></body></html>").toString();
+
+		checkRows("bytes", rowsOf(new HTMLStringFactory(page.getBytes(StandardCharsets.UTF_8), true)));
+		checkRows("String", rowsOf(new HTMLStringFactory(page, true)));
+		checkRows("stream", new HTMLTableRowIterator(new HTMLStreamParser(new StringReader(page)), 0));
+
+		System.out.println("failures " + failures);
+		if(failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Loads the table of a page and starts reading its rows
+	 * @param factory	The page
+	 * @return	The rows of its table
+	 */
+	private static HTMLTableRowIterator rowsOf(HTMLStringFactory factory) {
+		factory.loadNewElementByTypeAndIndex("table", 0);
+		return factory.getTableRows();
+	}
+
+	/**
+	 * Checks the second row of the table, which holds CELLS
+	 * @param name	The way the table was read, printed if a check fails
+	 * @param rows	The rows of the table
+	 */
+	private static void checkRows(String name, HTMLTableRowIterator rows) {
+		int i, j;
+		CharSequence cell;
+		HTMLTableRow row;
+
+		rows.next();
+		row = rows.next();
+		check(name + ": cell count", row.getCellCount() == CELLS.length);
+		for(i = 0; i < CELLS.length && i < row.getCellCount(); i++) {
+			cell = row.getCell(i);
+			check(name + ": cell " + i + " length() matches toString()", cell.length() == cell.toString().length());
+			check(name + ": cell " + i + " toString()", cell.toString().equals(CELLS[i]));
+			check(name + ": cell " + i + " contentEquals()",
+					cell instanceof HTMLTextView && ((HTMLTextView) cell).contentEquals(CELLS[i]));
+			for(j = 0; j < cell.length() && j < CELLS[i].length(); j++)
+				if(cell.charAt(j) != CELLS[i].charAt(j)) {
+					check(name + ": cell " + i + " charAt(" + j + ")", false);
+					break;
+				}
+			if(cell.length() > 1)
+				check(name + ": cell " + i + " subSequence()",
+						cell.subSequence(1, cell.length()).toString().equals(CELLS[i].substring(1)));
+			check(name + ": cell " + i + " matches a regular expression", CELLS[i].isEmpty()
+					|| Pattern.compile(Pattern.quote(CELLS[i])).matcher(cell).matches());
+		}
+		check(name + ": copy() reads the same", row.copy().toString().equals(row.toString()));
+	}
+
+	/**
+	 * Counts a failure if a condition does not hold
+	 * @param name		The name of the check, printed if it fails
+	 * @param passed	Whether the check passed
+	 */
+	private static void check(String name, boolean passed) {
+		if(!passed) {
+			System.out.println("FAILED: " + name);
+			failures++;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLBulkParser;
+import big_boiz.antplanner.HTMLDocument;
+import big_boiz.antplanner.HTMLParseContext;
+import big_boiz.antplanner.HTMLParseException;
+import big_boiz.antplanner.HTMLParseMetrics;
+import big_boiz.antplanner.HTMLStringFactory;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * ContextCheck checks that a document parsed with an HTMLParseContext cannot be used once the
+ * context has moved on to another page: every query, edit() and getMemoryUsage() must throw
+ * HTMLParseException instead of reading the indexes of the next page, while the current document
+ * still works and edits the same way as a document parsed on its own
+ * Each page parsed into a context, directly or by an HTMLBulkParser, must be counted as indexed
+ * exactly once, however many times the context is reset
+ *
+ * java big_boiz.antplanner.benchmarks.ContextCheck
+ */
+public class ContextCheck {
+
+	private static int failures;	//The number of checks which failed
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private ContextCheck() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if any check fails
+	 * @param args	Not used
+	 */
+	public static void main(String[] args) {
+		String first, second;
+		HTMLParseContext context;
+		HTMLDocument stale, current, edited, expected;
+
+		first = HTMLPageGenerator.largeForm(20, 5);
+		second = HTMLPageGenerator.wideTable(400, 8);
+		context = new HTMLParseContext();
+
+		stale = context.parse(first, true);
+		stale.loadElementById("last");			//builds the attribute index in the context as well
+		current = context.parse(second, true);
+		expectStale("edit()", () -> stale.edit(first.indexOf("Option 3"), 8, "Changed"));
+		expectStale("getMemoryUsage()", stale::getMemoryUsage);
+		expectStale("loadElementById()", () -> stale.loadElementById("last"));
+		expectStale("loadElementByTypeAndIndex()", () -> stale.loadElementByTypeAndIndex("select", 0));
+		expectStale("getCursor()", stale::getCursor);
+
+		edited = current.edit(second.indexOf("R3C4"), 4, "Changed");
+		expected = new HTMLDocument(second, true).edit(second.indexOf("R3C4"), 4, "Changed");
+		check("edit() of the current document",
+				edited.loadElementByTypeAndIndex("td", 3 * 8 + 4).getElement().getContent()
+						.equals(expected.loadElementByTypeAndIndex("td", 3 * 8 + 4).getElement().getContent()));
+
+		context.reset();
+		expectStale("edit() after reset()", () -> current.edit(0, 0, "<p>new</p>"));
+		check("an edited document outlives its context", edited.loadElementById("report") != null);
+
+		checkIndexedCount();
+
+		System.out.println("failures " + failures);
+		if(failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Parses pages into a context, and with an HTMLBulkParser which reuses a context on each thread,
+	 * checking that every page is counted as indexed once and that resetting a context is not
+	 */
+	private static void checkIndexedCount() {
+		int i;
+		HTMLParseMetrics metrics;
+		HTMLParseContext context;
+
+		metrics = new HTMLParseMetrics();
+		HTMLStringFactory.setParseListener(metrics);
+		context = new HTMLParseContext();
+		for(i = 0; i < 10; i++)
+			context.parse(HTMLPageGenerator.wideTable(20, 4), true);
+		context.reset();
+		check("each page parsed into a context is indexed once", metrics.getDocumentsIndexed() == 10);
+
+		metrics.reset();
+		try(Stream<String> titles = new HTMLBulkParser<String>(page -> {
+					page.loadNewElementById("last");
+					return page.getElement().getTitle();
+				}).setIndexed(true).setReused(true).parse(Stream.generate(() -> HTMLPageGenerator.largeForm(5, 3)).limit(40))) {
+			titles.collect(Collectors.toList());
+		}
+		check("each page of a bulk parse with reused contexts is indexed once", metrics.getDocumentsIndexed() == 40);
+		HTMLStringFactory.setParseListener(null);
+	}
+
+	/**
+	 * Runs a use of a stale document, which must throw HTMLParseException
+	 * @param name	The name of the use, printed if it does not throw
+	 * @param use	The use
+	 */
+	private static void expectStale(String name, Runnable use) {
+		try {
+			use.run();
+			check(name + " of a stale document throws", false);
+		}
+		catch(HTMLParseException e) {
+			check(name + " of a stale document throws", true);
+		}
+	}
+
+	/**
+	 * Counts a failure if a condition does not hold
+	 * @param name		The name of the check, printed if it fails
+	 * @param passed	Whether the check passed
+	 */
+	private static void check(String name, boolean passed) {
+		if(!passed) {
+			System.out.println("FAILED: " + name);
+			failures++;
+		}
+	}
+}
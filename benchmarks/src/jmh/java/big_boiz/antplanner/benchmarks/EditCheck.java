@@ -0,0 +1,105 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLCursor;
+import big_boiz.antplanner.HTMLDocument;
+import big_boiz.antplanner.HTMLParseMetrics;
+import big_boiz.antplanner.HTMLStringFactory;
+
+/**
+ * EditCheck checks that editing the text deep inside a large page reuses the indexes of the page
+ * instead of indexing the edited page from scratch, even when every element around the edit holds
+ * a <br> without a slash, and that the edited page reads the same as the page indexed on its own
+ *
+ * java big_boiz.antplanner.benchmarks.EditCheck [depth]
+ */
+public class EditCheck {
+
+	private static int failures;	//The number of checks which failed
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private EditCheck() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if any check fails
+	 * @param args	The number of nested elements around the edit
+	 */
+	public static void main(String[] args) {
+		int depth, i, offset;
+		long indexed, start, nanos;
+		String page, edited;
+		StringBuilder builder;
+		HTMLParseMetrics metrics;
+		HTMLDocument document, result, expected;
+
+		depth = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		builder = new StringBuilder("<html><body>");
+		for(i = 0; i < depth; i++)
+			builder.append("<div class=\"level\">line ").append(i).append("<br>");
+		builder.append("<div name=\"deepest\">old text<br>more text</div>");
+		for(i = 0; i < depth; i++)
+			builder.append("</div>");
+		page = builder.append("</body></html>").toString();
+		offset = page.indexOf("old text");
+		edited = page.substring(0, offset) + "new words<br>" + page.substring(offset + 3);
+
+		metrics = new HTMLParseMetrics();
+		HTMLStringFactory.setParseListener(metrics);
+		document = new HTMLDocument(page, true);
+		document.loadElementById("deepest");		//builds the attribute index, which is edited too
+		indexed = metrics.getDocumentsIndexed();
+		start = System.nanoTime();
+		result = document.edit(offset, 3, "new words<br>");
+		nanos = System.nanoTime() - start;
+		check("the edit reuses the index", metrics.getDocumentsIndexed() == indexed);
+		HTMLStringFactory.setParseListener(null);
+
+		expected = new HTMLDocument(edited, true);
+		check("the edited element reads the same", result.loadElementById("deepest").getElement().getRawContent()
+				.equals(expected.loadElementById("deepest").getElement().getRawContent()));
+		check("every element is in the same place", sameElements(result, expected));
+
+		System.out.println("depth " + depth + ", edit " + nanos / 1000 + " us, failures " + failures);
+		if(failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Walks two documents side by side, comparing the type and location of each element
+	 * @param document	The document to check
+	 * @param expected	The document it should match
+	 * @return	True if both have the same elements in the same places
+	 */
+	private static boolean sameElements(HTMLDocument document, HTMLDocument expected) {
+		boolean more;
+		HTMLCursor cursor, expectedCursor;
+
+		cursor = document.getCursor();
+		expectedCursor = expected.getCursor();
+		do {
+			if(!cursor.getTagName().equals(expectedCursor.getTagName())
+					|| cursor.getElementStart() != expectedCursor.getElementStart()
+					|| cursor.getContentEnd() != expectedCursor.getContentEnd()
+					|| cursor.getElementEnd() != expectedCursor.getElementEnd())
+				return false;
+			more = cursor.next();
+			if(more != expectedCursor.next())
+				return false;
+		} while(more);
+		return true;
+	}
+
+	/**
+	 * Counts a failure if a condition does not hold
+	 * @param name		The name of the check, printed if it fails
+	 * @param passed	Whether the check passed
+	 */
+	private static void check(String name, boolean passed) {
+		if(!passed) {
+			System.out.println("FAILED: " + name);
+			failures++;
+		}
+	}
+}
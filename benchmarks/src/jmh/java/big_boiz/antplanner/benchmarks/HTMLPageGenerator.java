@@ -0,0 +1,120 @@
+package big_boiz.antplanner.benchmarks;
+
+/**
+ * HTMLPageGenerator builds synthetic pages shaped like the worst cases the parser sees, so the
+ * benchmarks do not depend on any saved page
+ * Every page is generated the same way each time, so results can be compared between runs
+ */
+public class HTMLPageGenerator {
+
+	private static final String[] WORDS = {"the", "parser", "reads", "plain", "text", "between", "tags,",
+			"which", "on", "most", "pages", "is", "far", "longer", "than", "markup."};	//The words of an article
+
+	/**
+	 * Prevents the generator from being constructed; all of its methods are static
+	 */
+	private HTMLPageGenerator() {
+	}
+
+	/**
+	 * Generates a page of nested <div> elements, each also holding a little text and a <span>,
+	 * with a <p id="deepest"> in the innermost <div>
+	 * @param depth	The number of nested <div> elements
+	 * @return	The page
+	 */
+	public static String deepNesting(int depth) {
+		int i;
+		StringBuilder page;
+
+		page = new StringBuilder(depth * 64);
+		page.append("<html><head><title>Deep</title></head><body>");
+		for(i = 0; i < depth; i++)
+			page.append("<div class=\"level").append(i % 10).append("\"><span>").append(i).append("</span>");
+		page.append("<p id=\"deepest\" name=\"deepest\">bottom &amp; end</p>");
+		for(i = 0; i < depth; i++)
+			page.append("</div>");
+		page.append("</body></html>");
+		return page.toString();
+	}
+
+	/**
+	 * Generates a page holding a single wide table, with a header row and then rows of cells
+	 * which each have a few attributes
+	 * @param cells		The total number of cells in the table, not counting the header
+	 * @param columns	The number of cells in each row
+	 * @return	The page
+	 */
+	public static String wideTable(int cells, int columns) {
+		int row, column, rows;
+		StringBuilder page;
+
+		rows = Math.max(1, cells / columns);
+		page = new StringBuilder(rows * columns * 48);
+		page.append("<html><body><div id=\"results\"><table class=\"report\" name=\"report\"><tr>");
+		for(column = 0; column < columns; column++)
+			page.append("<th>Column ").append(column).append("</th>");
+		page.append("</tr>");
+		for(row = 0; row < rows; row++) {
+			page.append("<tr class=\"").append(row % 2 == 0 ? "even" : "odd").append("\">");
+			for(column = 0; column < columns; column++)
+				page.append("<td class=\"cell\" data-row=\"").append(row).append("\" align=\"left\">R")
+						.append(row).append("C").append(column).append("&nbsp;</td>");
+			page.append("</tr>");
+		}
+		page.append("</table></div></body></html>");
+		return page.toString();
+	}
+
+	/**
+	 * Generates a page holding a large form of text inputs and drop-down lists, the last of
+	 * which is named "last"
+	 * @param fields	The number of drop-down lists, each followed by a text input
+	 * @param options	The number of options in each drop-down list
+	 * @return	The page
+	 */
+	public static String largeForm(int fields, int options) {
+		int field, option;
+		StringBuilder page;
+
+		page = new StringBuilder(fields * (options + 2) * 48);
+		page.append("<html><body><form name=\"search\" action=\"/search\" method=\"post\">");
+		for(field = 0; field < fields; field++) {
+			page.append("<div class=\"field\"><label>Field ").append(field).append("</label>");
+			page.append("<select name=\"").append(field == fields - 1 ? "last" : "field" + field)
+					.append("\" size=\"1\">");
+			for(option = 0; option < options; option++)
+				page.append("<option value=\"v").append(option).append("\">Option ").append(option)
+						.append("</option>");
+			page.append("</select><input name=\"text").append(field).append("\" type=\"text\"/></div>");
+		}
+		page.append("</form></body></html>");
+		return page.toString();
+	}
+
+	/**
+	 * Generates an article: paragraphs of long plain text with only a link now and then, so
+	 * almost none of the page is markup
+	 * @param paragraphs	The number of paragraphs
+	 * @param words			The number of words in each paragraph
+	 * @return	The page
+	 */
+	public static String textHeavy(int paragraphs, int words) {
+		int paragraph, word;
+		StringBuilder page;
+
+		page = new StringBuilder(paragraphs * words * 8);
+		page.append("<html><head><title>Article</title></head><body><div id=\"article\" name=\"article\">");
+		for(paragraph = 0; paragraph < paragraphs; paragraph++) {
+			page.append("<p>");
+			for(word = 0; word < words; word++) {
+				if(word % 97 == 96)
+					page.append("<a href=\"/page").append(word).append("\">link</a> ");
+				else
+					page.append(WORDS[(paragraph * 31 + word * 7) % WORDS.length]).append(' ');
+			}
+			page.append("</p>\n");
+		}
+		page.append("</div></body></html>");
+		return page.toString();
+	}
+}
@@ -0,0 +1,75 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLStringFactory;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * LookupBenchmark measures finding elements in a large form, by ID and by type and index, and
+ * reading the options of a drop-down list
+ * The element looked for is always the last one in the page, the worst case for a scan
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LookupBenchmark {
+
+	@Param({"100", "2000"})
+	public int fields;				//The number of drop-down lists in the form
+
+	@Param({"false", "true"})
+	public boolean indexed;		//Whether the document is indexed
+
+	private String page;				//The generated form
+	private HTMLStringFactory factory;	//The factory over page, shared by every call
+
+	/**
+	 * Generates the form and parses it once
+	 */
+	@Setup
+	public void setup() {
+		page = HTMLPageGenerator.largeForm(fields, 20);
+		factory = new HTMLStringFactory(page, indexed);
+	}
+
+	@Benchmark
+	public HTMLStringFactory loadNewElementById() {
+		factory.loadNewElementById("last");
+		return factory;
+	}
+
+	@Benchmark
+	public HTMLStringFactory loadNewElementByTypeAndIndex() {
+		factory.loadNewElementByTypeAndIndex("select", fields - 1);
+		return factory;
+	}
+
+	@Benchmark
+	public ArrayList[] getDropDownItemsAndValues() {
+		factory.loadNewElementById("last");
+		return factory.getDropDownItemsAndValues();
+	}
+
+	/**
+	 * Parses the page from scratch and finds the last drop-down list, the cost of a page seen
+	 * only once
+	 */
+	@Benchmark
+	public HTMLStringFactory parseAndLoadById() {
+		HTMLStringFactory fresh;
+
+		fresh = new HTMLStringFactory(page, indexed);
+		fresh.loadNewElementById("last");
+		return fresh;
+	}
+}
@@ -0,0 +1,38 @@
+package big_boiz.antplanner.benchmarks;
+
+/**
+ * PlainCharSequence hides the type of a document behind a plain CharSequence, so the tokenizer
+ * cannot use any bulk search on it and has to read it one character at a time
+ * Tokenizing a PlainCharSequence gives the scalar results every faster search is checked against
+ */
+public class PlainCharSequence implements CharSequence {
+
+	private final CharSequence source;	//The document being hidden
+
+	/**
+	 * @param source	The document to hide
+	 */
+	public PlainCharSequence(CharSequence source) {
+		this.source = source;
+	}
+
+	@Override
+	public int length() {
+		return source.length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		return source.charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return new PlainCharSequence(source.subSequence(start, end));
+	}
+
+	@Override
+	public String toString() {
+		return source.toString();
+	}
+}
@@ -0,0 +1,94 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLStreamParser;
+import big_boiz.antplanner.HTMLStringFactory;
+import big_boiz.antplanner.HTMLTableRow;
+import big_boiz.antplanner.HTMLTableRowIterator;
+
+import java.io.StringReader;
+import java.util.Iterator;
+
+/**
+ * RowCheck checks that HTMLTableRowIterator reads the rows of tables whose <tr> and <td> tags are
+ * never closed the way the rest of the parser does: a row or cell which is never closed ends where
+ * the next one starts, and every row keeps its own cells and position
+ * Each table is read with getTableRows(), getTableRowStream() and from a stream
+ *
+ * java big_boiz.antplanner.benchmarks.RowCheck
+ */
+public class RowCheck {
+
+	private static final String[][] TABLES = {
+			{"<tr><td>a</td><td>b</td></tr><tr><td>c</td><td>d</td></tr>", "0:a|b 1:c|d"},
+			{"<tr><td>a</td><td>b</td><tr><td>c</td><td>d</td>", "0:a|b 1:c|d"},
+			{"<tr><td>a<td>b</tr><tr><td>c<td>d</tr>", "0:a|b 1:c|d"},
+			{"<tr><td>a<td>b<tr><td>c<td>d", "0:a|b 1:c|d"},
+			{"<tr><th>x<th>y<tr><td>1<td>2<tr><td>3<td>4", "0:x|y 1:1|2 2:3|4"},
+			{"<tr><td>a<tr><tr><td>b", "0:a 1: 2:b"},
+			{"<tr><td><table><tr><td>in</table>a<td>b<tr><td>c", "0:<table><tr><td>in</table>a|b 1:c"}};
+										//The content of each table, and the rows it holds
+
+	private static int failures;	//The number of checks which failed
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private RowCheck() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if any check fails
+	 * @param args	Not used
+	 */
+	public static void main(String[] args) {
+		int i;
+		String page;
+		HTMLStringFactory factory;
+
+		for(i = 0; i < TABLES.length; i++) {
+			page = "<html><body><table name=\"t\">" + TABLES[i][0] + "</table></body></html>";
+			factory = new HTMLStringFactory(page, true);
+			factory.loadNewElementById("t");
+			checkRows("table " + i + ", getTableRows()", factory.getTableRows(), TABLES[i][1]);
+			checkRows("table " + i + ", getTableRowStream()", factory.getTableRowStream().iterator(), TABLES[i][1]);
+			checkRows("table " + i + ", stream", new HTMLTableRowIterator(
+					new HTMLStreamParser(new StringReader(page)), 0), TABLES[i][1]);
+		}
+
+		System.out.println("tables " + TABLES.length + ", failures " + failures);
+		if(failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Reads every row of a table and compares them to the rows expected
+	 * @param name		The table and the way it was read, printed if the check fails
+	 * @param rows		The rows of the table
+	 * @param expected	The position and cells of each row, separated by spaces
+	 */
+	private static void checkRows(String name, Iterator<HTMLTableRow> rows, String expected) {
+		HTMLTableRow row;
+		StringBuilder found;
+
+		found = new StringBuilder();
+		while(rows.hasNext()) {
+			row = rows.next();
+			if(found.length() > 0)
+				found.append(' ');
+			found.append(row.getRowIndex()).append(':').append(row);
+		}
+		check(name + ": expected " + expected + ", found " + found, found.toString().equals(expected));
+	}
+
+	/**
+	 * Counts a failure if a condition does not hold
+	 * @param name		The name of the check, printed if it fails
+	 * @param passed	Whether the check passed
+	 */
+	private static void check(String name, boolean passed) {
+		if(!passed) {
+			System.out.println("FAILED: " + name);
+			failures++;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLByteSequence;
+import big_boiz.antplanner.HTMLStringFactory;
+import big_boiz.antplanner.HTMLTokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * ScanBenchmark measures tokenizing a text heavy article, where almost every character is plain
+ * text between tags
+ * The same page is tokenized as a String and as mapped bytes, which are searched in bulk, and as
+ * a PlainCharSequence, which is read one character at a time, to show what the bulk searches save
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScanBenchmark {
+
+	@Param({"100", "2000"})
+	public int paragraphs;				//The number of paragraphs in the article
+
+	private String page;				//The generated article
+	private CharSequence plain;			//The article, hidden from the bulk searches
+	private HTMLByteSequence bytes;		//The article as bytes outside of the heap
+	private HTMLTokenizer tokenizer;	//Reused for every call
+
+	/**
+	 * Generates the article in each of its forms
+	 */
+	@Setup
+	public void setup() {
+		byte[] encoded;
+		ByteBuffer buffer;
+
+		page = HTMLPageGenerator.textHeavy(paragraphs, 400);
+		plain = new PlainCharSequence(page);
+		encoded = page.getBytes(StandardCharsets.UTF_8);
+		buffer = ByteBuffer.allocateDirect(encoded.length);
+		buffer.put(encoded).flip();
+		bytes = new HTMLByteSequence(buffer);
+		tokenizer = new HTMLTokenizer();
+	}
+
+	@Benchmark
+	public int tokenizeString() {
+		return tokenize(page);
+	}
+
+	@Benchmark
+	public int tokenizeBytes() {
+		return tokenize(bytes);
+	}
+
+	@Benchmark
+	public int tokenizeScalar() {
+		return tokenize(plain);
+	}
+
+	/**
+	 * Parses the article from scratch and finds its last paragraph, the cost of a text heavy page
+	 * seen only once
+	 */
+	@Benchmark
+	public HTMLStringFactory parseAndLoadByTypeAndIndex() {
+		HTMLStringFactory fresh;
+
+		fresh = new HTMLStringFactory(page);
+		fresh.loadNewElementByTypeAndIndex("p", paragraphs - 1);
+		return fresh;
+	}
+
+	/**
+	 * Reads every token of a document
+	 * @param source	The document
+	 * @return	The number of tokens
+	 */
+	private int tokenize(CharSequence source) {
+		int count;
+
+		count = 0;
+		tokenizer.reset(source, 0, source.length());
+		while(tokenizer.next() != HTMLTokenizer.END_OF_INPUT)
+			count++;
+		return count;
+	}
+}
@@ -0,0 +1,168 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLByteSequence;
+import big_boiz.antplanner.HTMLTokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * ScanDifferential checks that the bulk searches of the tokenizer find exactly the same tokens as
+ * reading one character at a time
+ * Random pages, made mostly of the pieces of markup the searches look for, are tokenized as a
+ * String, a CharBuffer and HTMLByteSequences over heap and direct buffers, and every token and
+ * attribute is compared against tokenizing the same range of a PlainCharSequence
+ * Besides the whole page and random ranges, each page is tokenized over a narrowed range which
+ * ends just before a structural character, as the scope of an element inside a larger page does,
+ * so that a bulk search which reads past the end of the range finds a match right there
+ *
+ * java big_boiz.antplanner.benchmarks.ScanDifferential [pages] [seed]
+ */
+public class ScanDifferential {
+
+	private static final String[] PIECES = {"<", ">", "</", "/>", "<!--", "-->", "--", "-", "<!", "<?",
+			"\"", "'", "=", " ", "\n", "a", "p", "div", " id=\"x\"", " class='y z'", " title=\"a>b\"",
+			"<script>", "</script>", "<style>", "</STYLE>", "<p>", "</p>", "<a href=", "</a>", "\u00E9",
+			"\u013C", "\u3C3C", "the quick brown fox jumps over the lazy dog ",
+			"text long enough to be searched in bulk, with no markup in it at all "};	//What the
+							//random pages are made of
+
+	private static int mismatches;	//The number of ranges tokenized differently
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private ScanDifferential() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if any range is tokenized differently
+	 * @param args	The number of pages to generate, and the seed of the random pages
+	 */
+	public static void main(String[] args) {
+		int pages, page, trial, start, end;
+		long tokens;
+		boolean endOfInput;
+		char[] padded;
+		byte[] encoded;
+		String source, bytesSource;
+		ByteBuffer heap, direct;
+		Random random;
+
+		pages = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		random = new Random(args.length > 1 ? Long.parseLong(args[1]) : 1);
+		tokens = 0;
+		for(page = 0; page < pages; page++) {
+			source = randomPage(random);
+			padded = ("##" + source + "##").toCharArray();
+			bytesSource = source.replaceAll("[^\\x00-\\xFF]", "?");		//each character is one byte
+			encoded = ("###" + bytesSource).getBytes(StandardCharsets.ISO_8859_1);
+			heap = ByteBuffer.wrap(encoded);
+			heap.position(3);
+			direct = ByteBuffer.allocateDirect(encoded.length).order(ByteOrder.LITTLE_ENDIAN);
+			direct.put(encoded).position(3);
+
+			for(trial = 0; trial < 8; trial++) {
+				start = trial == 0 ? 0 : random.nextInt(source.length() + 1);
+				if(trial == 0)
+					end = source.length();
+				else if(trial == 1)
+					end = narrowedEnd(source, start, random);
+				else
+					end = start + random.nextInt(source.length() - start + 1);
+				endOfInput = trial == 0 || random.nextBoolean();
+
+				tokens += compare("String", source, source, start, end, endOfInput);
+				compare("CharBuffer", source, CharBuffer.wrap(padded, 2, source.length()), start, end, endOfInput);
+				compare("heap bytes", bytesSource, new HTMLByteSequence(heap), start, end, endOfInput);
+				compare("direct bytes", bytesSource, new HTMLByteSequence(direct), start, end, endOfInput);
+			}
+		}
+
+		System.out.println("pages " + pages + ", tokens " + tokens + ", mismatches " + mismatches);
+		if(mismatches > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Tokenizes a range of a document both ways and reports any difference
+	 * @param form			The name of the form the document is in
+	 * @param expected		The document, as a String
+	 * @param source		The same document in the form being checked
+	 * @param start			The index at which to start tokenizing
+	 * @param end			The index at which to stop tokenizing
+	 * @param endOfInput	Whether the range is the last piece of the document
+	 * @return	The number of tokens read
+	 */
+	private static int compare(String form, String expected, CharSequence source, int start, int end, boolean endOfInput) {
+		String scalar, bulk;
+
+		scalar = tokenize(new PlainCharSequence(expected), start, end, endOfInput);
+		bulk = tokenize(source, start, end, endOfInput);
+		if(!scalar.equals(bulk)) {
+			if(mismatches++ < 5)
+				System.out.println(form + " [" + start + ", " + end + ") " + endOfInput + "\n" + expected
+						+ "\nscalar: " + scalar + "\nbulk:   " + bulk);
+		}
+		return scalar.length() - scalar.replace("\n", "").length();
+	}
+
+	/**
+	 * Lists every token in a range of a document, with the name, attributes and ranges of each
+	 * @return	One line per token
+	 */
+	private static String tokenize(CharSequence source, int start, int end, boolean endOfInput) {
+		int type;
+		StringBuilder tokens;
+		HTMLTokenizer tokenizer;
+
+		tokens = new StringBuilder();
+		tokenizer = new HTMLTokenizer();
+		tokenizer.refill(source, start, end, endOfInput);
+		do {
+			type = tokenizer.next();
+			tokens.append(type).append(' ').append(tokenizer.getTokenStart()).append('-').append(tokenizer.getTokenEnd())
+					.append(' ').append(tokenizer.getNameStart()).append('-').append(tokenizer.getNameEnd())
+					.append(tokenizer.isSelfClosing() ? " /" : "");
+			while(tokenizer.nextAttribute())
+				tokens.append(' ').append(tokenizer.getAttributeNameStart()).append('-').append(tokenizer.getAttributeNameEnd())
+						.append('=').append(tokenizer.getAttributeValueStart()).append('-').append(tokenizer.getAttributeValueEnd());
+			tokens.append('\n');
+		} while(type != HTMLTokenizer.END_OF_INPUT && type != HTMLTokenizer.INCOMPLETE);
+		return tokens.toString();
+	}
+
+	/**
+	 * Finds the end of a narrowed range: the last occurrence of a random structural character in
+	 * the page, so that the range ends just before it while the rest of the page lies past the range
+	 * @param source	The page
+	 * @param start		The start of the range
+	 * @param random	The source of randomness
+	 * @return	The index of the character, or start if it does not occur after start
+	 */
+	private static int narrowedEnd(String source, int start, Random random) {
+		int end;
+
+		end = source.lastIndexOf("<>\"'-".charAt(random.nextInt(5)));
+		return end > start ? end : start;
+	}
+
+	/**
+	 * Generates a random page
+	 * @param random	The source of randomness
+	 * @return	The page
+	 */
+	private static String randomPage(Random random) {
+		int pieces, i;
+		StringBuilder page;
+
+		page = new StringBuilder();
+		pieces = 1 + random.nextInt(random.nextBoolean() ? 20 : 200);
+		for(i = 0; i < pieces; i++)
+			page.append(PIECES[random.nextInt(PIECES.length)]);
+		return page.toString();
+	}
+}
@@ -0,0 +1,101 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLDocument;
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+/**
+ * SelectorCheck checks CSS selectors against markup written the way real pages are, where void
+ * elements such as <br>, <input> and <img> have no closing tag and no slash: each void element ends
+ * with its own tag, so the elements after it are its siblings, not its children, and the void
+ * element itself can be selected
+ *
+ * java big_boiz.antplanner.benchmarks.SelectorCheck
+ */
+public class SelectorCheck {
+
+	private static final String PAGE = "<html><head><meta charset=\"utf-8\"><link rel=\"stylesheet\" href=\"a.css\">"
+			+ "<title>Check</title></head><body>"
+			+ "<div name=\"text\"><br><p>a</p><p>b</p></div>"
+			+ "<div name=\"upper\"><BR><P>c</P><HR></div>"
+			+ "<form name=\"search\"><input name=\"query\" value=\"x\"><select name=\"term\">"
+			+ "<option value=\"1\">One</option><option value=\"2\">Two</option></select>"
+			+ "<img src=\"go.png\" alt=\"go\"></form>"
+			+ "<table><tr><td>1<br>2</td><td><input type=\"checkbox\" checked></td></tr></table>"
+			+ "</body></html>";	//The page every selector is run against
+
+	private static final String[][] SELECTORS = {
+			{"div > p", "p=a p=b"},
+			{"p:first-child", ""},
+			{"p:nth-child(2)", "p=a"},
+			{"br", "br= br="},
+			{"div > br:first-child", "br="},
+			{"p:last-child", "p=b"},
+			{"[name=upper] > *", "BR= P=c HR="},
+			{"form > select", "select=<option value=\"1\">One</option><option value=\"2\">Two</option>"},
+			{"form > *", "input= select=<option value=\"1\">One</option><option value=\"2\">Two</option> img="},
+			{"input", "input= input="},
+			{"form > input:first-child", "input="},
+			{"img:last-child", "img="},
+			{"select:nth-child(2) > option:last-child", "option=Two"},
+			{"td:last-child > input[checked]", "input="},
+			{"head > title", "title=Check"},
+			{"head > *", "meta= link= title=Check"}};	//Each selector, and the type and content of
+															//each element it should match, in order
+
+	private static int failures;	//The number of checks which failed
+
+	/**
+	 * Prevents the check from being constructed; everything is done in main()
+	 */
+	private SelectorCheck() {
+	}
+
+	/**
+	 * Runs the check and exits with status 1 if any check fails
+	 * @param args	Not used
+	 */
+	public static void main(String[] args) {
+		int i;
+		HTMLDocument document;
+
+		document = new HTMLDocument(PAGE, true);
+		for(i = 0; i < SELECTORS.length; i++)
+			checkSelector(document, SELECTORS[i][0], SELECTORS[i][1]);
+
+		System.out.println("selectors " + SELECTORS.length + ", failures " + failures);
+		if(failures > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Runs a selector and compares the elements it matches to the elements expected
+	 * @param document	The page to run the selector against
+	 * @param selector	The selector
+	 * @param expected	The type and content of each element expected, separated by spaces
+	 */
+	private static void checkSelector(HTMLDocument document, String selector, String expected) {
+		String content;
+		StringBuilder found;
+
+		found = new StringBuilder();
+		for(HTMLElement element : document.select(selector)) {
+			if(found.length() > 0)
+				found.append(' ');
+			content = element.getContent();
+			found.append(element.getTitle()).append('=').append(content != null ? content : "");
+		}
+		check(selector + ": expected " + expected + ", found " + found, found.toString().equals(expected));
+	}
+
+	/**
+	 * Counts a failure if a condition does not hold
+	 * @param name		The name of the check, printed if it fails
+	 * @param passed	Whether the check passed
+	 */
+	private static void check(String name, boolean passed) {
+		if(!passed) {
+			System.out.println("FAILED: " + name);
+			failures++;
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLStringFactory;
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * TableBenchmark measures reading every cell of a wide table, along with the content and an
+ * attribute of each cell, the way a scraper extracts a report
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TableBenchmark {
+
+	@Param({"10000", "100000", "1000000"})
+	public int cells;					//The number of cells in the table
+
+	private HTMLStringFactory factory;	//The factory over the generated table
+
+	/**
+	 * Generates the table and parses it once
+	 */
+	@Setup
+	public void setup() {
+		factory = new HTMLStringFactory(HTMLPageGenerator.wideTable(cells, 20));
+	}
+
+	@Benchmark
+	public ArrayList<ArrayList> getTableElements() {
+		factory.loadNewElementByTypeAndIndex("table", 0);
+		return factory.getTableElements();
+	}
+
+	@Benchmark
+	public void getContentOfEveryCell(Blackhole blackhole) {
+		factory.loadNewElementByTypeAndIndex("table", 0);
+		for(ArrayList row : factory.getTableElements())
+			for(Object cell : row)
+				blackhole.consume(((HTMLElement) cell).getContent());
+	}
+
+	@Benchmark
+	public void getAttributeValueOfEveryCell(Blackhole blackhole) {
+		factory.loadNewElementByTypeAndIndex("table", 0);
+		for(ArrayList row : factory.getTableElements())
+			for(Object cell : row)
+				blackhole.consume(((HTMLElement) cell).getAttributeValue("data-row"));
+	}
+}
@@ -0,0 +1,98 @@
+package big_boiz.antplanner.benchmarks;
+
+import big_boiz.antplanner.HTMLCursor;
+import big_boiz.antplanner.HTMLDocument;
+import big_boiz.antplanner.HTMLStringFactory;
+import big_boiz.antplanner.HTMLStringFactory.HTMLElement;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * TreeBenchmark measures turning a deeply nested page into HTMLElements and walking the whole
+ * tree, along with finding the innermost element
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TreeBenchmark {
+
+	@Param({"100", "1000"})
+	public int depth;					//The number of nested elements
+
+	private HTMLStringFactory factory;	//The factory over the generated page
+	private HTMLDocument document;		//The generated page, indexed
+
+	/**
+	 * Generates the page and parses it once
+	 */
+	@Setup
+	public void setup() {
+		factory = new HTMLStringFactory(HTMLPageGenerator.deepNesting(depth));
+		document = new HTMLDocument(HTMLPageGenerator.deepNesting(depth), true);
+	}
+
+	@Benchmark
+	public HTMLElement getElement() {
+		factory.loadNewElementByTypeAndIndex("body", 0);
+		return factory.getElement();
+	}
+
+	/**
+	 * Walks every element of the tree, requesting the children and an attribute of each
+	 * @return	The number of elements found
+	 */
+	@Benchmark
+	public int walkTree() {
+		int count;
+		HTMLElement element;
+		ArrayDeque<HTMLElement> pending;
+
+		factory.loadNewElementByTypeAndIndex("body", 0);
+		pending = new ArrayDeque<>();
+		pending.push(factory.getElement());
+		count = 0;
+		while(!pending.isEmpty()) {
+			element = pending.pop();
+			element.getAttributeValue("class");
+			count++;
+			for(HTMLElement child : element.getChildElementList())
+				pending.push(child);
+		}
+		return count;
+	}
+
+	/**
+	 * Walks every element of the same tree with a cursor over the document index, which creates
+	 * no objects for the elements
+	 * @return	The number of elements found
+	 */
+	@Benchmark
+	public int walkCursor() {
+		int count;
+		HTMLCursor cursor;
+
+		cursor = document.getCursor();
+		count = 0;
+		do {
+			cursor.getAttributeValue("class");
+			count++;
+		} while(cursor.next());
+		return count;
+	}
+
+	@Benchmark
+	public HTMLStringFactory loadNewElementById() {
+		factory.loadNewElementById("deepest");
+		return factory;
+	}
+}
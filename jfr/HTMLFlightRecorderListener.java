@@ -0,0 +1,139 @@
+package big_boiz.antplanner;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * HTMLFlightRecorderListener records each public method call and each document indexed as an
+ * event for the JDK Flight Recorder, so slow pages show up in a recording next to everything else
+ * the application was doing
+ * Events which are not enabled in the recording cost nothing beyond checking for them
+ *
+ * Every event is also passed on to another listener, such as an HTMLParseMetrics, if one is given
+ *
+ * This class needs Java 11 or later; the rest of the library still runs on Java 8 as long as this
+ * listener is never installed
+ */
+public class HTMLFlightRecorderListener implements HTMLParseListener {
+
+	private final HTMLParseListener next;	//The listener every event is passed on to; null for none
+
+	/**
+	 * Constructs a listener which only records events
+	 */
+	public HTMLFlightRecorderListener() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a listener which records events and passes them on to another listener
+	 * @param next	The listener to pass every event on to, or null for none
+	 */
+	public HTMLFlightRecorderListener(HTMLParseListener next) {
+		this.next = next;
+	}
+
+	@Override
+	public void methodCompleted(String method, long nanos) {
+		MethodEvent event;
+
+		event = new MethodEvent();
+		if(event.isEnabled()) {
+			event.method = method;
+			event.nanos = nanos;
+			event.commit();
+		}
+		if(next != null)
+			next.methodCompleted(method, nanos);
+	}
+
+	@Override
+	public void documentIndexed(int elements, int maxDepth, long characters, long nanos) {
+		IndexEvent event;
+
+		event = new IndexEvent();
+		if(event.isEnabled()) {
+			event.elements = elements;
+			event.maxDepth = maxDepth;
+			event.characters = characters;
+			event.nanos = nanos;
+			event.commit();
+		}
+		if(next != null)
+			next.documentIndexed(elements, maxDepth, characters, nanos);
+	}
+
+	@Override
+	public void documentScanned(long characters) {
+		if(next != null)
+			next.documentScanned(characters);
+	}
+
+	@Override
+	public void indexHit() {
+		if(next != null)
+			next.indexHit();
+	}
+
+	@Override
+	public void cacheLookup(boolean hit) {
+		if(next != null)
+			next.cacheLookup(hit);
+	}
+
+	@Override
+	public void elementCreated() {
+		if(next != null)
+			next.elementCreated();
+	}
+
+	@Override
+	public void elementParsed() {
+		if(next != null)
+			next.elementParsed();
+	}
+
+	/**
+	 * MethodEvent is a single call to a public method of HTMLStringFactory
+	 */
+	@Name("big_boiz.antplanner.Method")
+	@Label("HTML Method")
+	@Category("HTML")
+	@Description("A call to a public method of HTMLStringFactory")
+	static class MethodEvent extends Event {
+
+		@Label("Method")
+		String method;		//The name of the method
+
+		@Label("Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long nanos;			//The time the method took
+	}
+
+	/**
+	 * IndexEvent is a single document being indexed
+	 */
+	@Name("big_boiz.antplanner.Index")
+	@Label("HTML Index")
+	@Category("HTML")
+	@Description("A document read through once to build its index")
+	static class IndexEvent extends Event {
+
+		@Label("Elements")
+		int elements;		//The number of elements found
+
+		@Label("Max Depth")
+		int maxDepth;		//The deepest nesting of elements found
+
+		@Label("Characters")
+		long characters;	//The length of the document
+
+		@Label("Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long nanos;			//The time indexing took
+	}
+}